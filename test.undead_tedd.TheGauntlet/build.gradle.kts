@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id("com.runemate") version "1.5.0"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 runemate {
@@ -31,10 +32,30 @@ runemate {
             testImplementation("org.junit.jupiter:junit-jupiter")
             implementation("org.openjfx:javafx-controls:17.0.1")
             implementation("org.openjfx:javafx-fxml:17.0.1")
+            implementation("com.lmax:disruptor:3.4.4") // Backs the AsyncLogger/AsyncRoot in log4j2.xml
         }
 
         tasks.test {
-            useJUnitPlatform()
+            useJUnitPlatform {
+                excludeTags("allocation")
+            }
+            // DungeonUtils holds the game port and trackers statically, so every test class gets a fresh JVM
+            forkEvery = 1
+        }
+
+        // Allocation tests count bytes on the bot thread, so they run without C2, whose compile requests allocate there
+        val allocationTest by tasks.registering(Test::class) {
+            testClassesDirs = sourceSets.test.get().output.classesDirs
+            classpath = sourceSets.test.get().runtimeClasspath
+            useJUnitPlatform {
+                includeTags("allocation")
+            }
+            forkEvery = 1
+            jvmArgs("-XX:TieredStopAtLevel=1")
+        }
+
+        tasks.check {
+            dependsOn(allocationTest)
         }
 
         tasks.jar {
@@ -55,3 +76,14 @@ runemate {
         }
     }
 }
+
+// Microbenchmarks for the decision and tracking hot paths: ./gradlew jmh
+// They install a stand-in scene capture, so no game client is needed.
+jmh {
+    jmhVersion = "1.37"
+    warmupIterations = 3
+    iterations = 5
+    fork = 1
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+}
@@ -0,0 +1,40 @@
+package fighter;
+
+import com.runemate.game.api.hybrid.location.Coordinate;
+import com.runemate.game.api.script.framework.tree.BranchTask;
+import com.runemate.game.api.script.framework.tree.TreeTask;
+import fighter.world.StubSceneCapture;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Decision selection in RootTask.successTask against a stand-in room with monsters, resources and a lightable node
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DecisionBenchmark {
+    private BranchTask rootTask;
+
+    @Setup
+    public void setUp() {
+        DungeonUtils.installSceneCapture(new StubSceneCapture()
+                .player(new Coordinate(1911, 5671, 1))
+                .npc("Crystalline Rat", new Coordinate(1914, 5672, 1))
+                .npc("Crystalline Bat", new Coordinate(1908, 5669, 1))
+                .npc("Crystalline Dragon", new Coordinate(1915, 5675, 1))
+                .object("Crystal Ore", new Coordinate(1909, 5674, 1), "Mine")
+                .object("Phren Bark", new Coordinate(1916, 5667, 1), "Chop")
+                .object("Node", new Coordinate(1913, 5678, 1), "Light")
+                .inventory("Crystal Sceptre")
+                .inventory("Raw Paddlefish"));
+
+        DungeonCrawler bot = new DungeonCrawler();
+        bot.setStartingRoomChecked(true);
+        rootTask = (BranchTask) ((BranchTask) bot.createRootTask()).successTask();
+    }
+
+    @Benchmark
+    public TreeTask successTask() {
+        return rootTask.successTask();
+    }
+}
@@ -0,0 +1,31 @@
+package fighter;
+
+import com.runemate.game.api.hybrid.entities.Npc;
+import com.runemate.game.api.hybrid.location.Coordinate;
+import fighter.tasks.tracking.ResourceTracker;
+import fighter.world.SceneEntity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DungeonUtilsBenchmark {
+    @Param({"Crystalline Rat", "Corrupted Dark Beast", "Crystal Hunllef", "Bryn"})
+    public String npcName;
+
+    private SceneEntity<Npc> target;
+    private ResourceTracker resourceTracker;
+
+    @Setup
+    public void setUp() {
+        target = new SceneEntity<>(null, 0, npcName, new Coordinate(1914, 5672, 1), 1, null);
+        resourceTracker = new ResourceTracker();
+    }
+
+    @Benchmark
+    public boolean isNeededMonster() {
+        return DungeonUtils.isNeededMonster(target, resourceTracker);
+    }
+}
@@ -0,0 +1,39 @@
+package fighter.tasks;
+
+import com.runemate.game.api.hybrid.location.Coordinate;
+import fighter.DungeonUtils;
+import fighter.world.StubSceneCapture;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Safe-tile selection in the Hunllef room with a handful of hazards around the player
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BossFightBenchmark {
+    private BossFightTask bossFightTask;
+
+    @Setup
+    public void setUp() {
+        StubSceneCapture scene = new StubSceneCapture()
+                .player(new Coordinate(1911, 5687, 1))
+                .npc("Crystalline Hunllef", new Coordinate(1912, 5689, 1));
+        for (int x = 1909; x <= 1913; x++) {
+            scene.hazard(new Coordinate(x, 5687, 1));
+            scene.hazard(new Coordinate(x, 5686, 1));
+        }
+        DungeonUtils.installSceneCapture(scene);
+        bossFightTask = new BossFightTask(null, BossType.CRYSTALLINE_HUNLLEF);
+    }
+
+    @Benchmark
+    public Iterable<Coordinate> getRoomCoordinates() {
+        return BossType.CRYSTALLINE_HUNLLEF.getRoomCoordinates();
+    }
+
+    @Benchmark
+    public Coordinate findNearestSafeCoordinate() {
+        return bossFightTask.findNearestSafeCoordinate();
+    }
+}
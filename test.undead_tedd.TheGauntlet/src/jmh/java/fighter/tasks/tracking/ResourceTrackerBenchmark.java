@@ -0,0 +1,38 @@
+package fighter.tasks.tracking;
+
+import fighter.DungeonUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResourceTrackerBenchmark {
+    @Param({"Crystal Ore", "Crystalline Shards", "Weapon Frame", "Egniol Potion (3)", "Bones"})
+    public String resourceName;
+
+    private ResourceTracker tracker;
+
+    @Setup
+    public void setUp() {
+        // Half-way through phase one, so neither readiness check short-circuits on an empty tracker
+        tracker = new ResourceTracker();
+        for (int i = 0; i < 80; i++) {
+            tracker.incrementResourceCount("Crystalline Shards");
+        }
+        tracker.incrementResourceCount("Weapon Frame");
+        tracker.incrementResourceCount("Crystal Ore");
+        DungeonUtils.getResourceTracker().incrementResourceCount("Crystal Ore");
+    }
+
+    @Benchmark
+    public boolean isReadyToCraft() {
+        return tracker.isReadyToCraft();
+    }
+
+    @Benchmark
+    public boolean isNeededResource() {
+        return ResourceTracker.isNeededResource(resourceName);
+    }
+}
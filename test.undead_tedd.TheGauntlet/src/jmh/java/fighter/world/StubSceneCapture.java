@@ -0,0 +1,74 @@
+package fighter.world;
+
+import com.runemate.game.api.hybrid.location.Coordinate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Stand-in for RuneMateSceneCapture: replays a fixed scene built from names and coordinates, without a game client
+public class StubSceneCapture implements SceneCapture {
+    private final List<String> npcNames = new ArrayList<>();
+    private final List<Coordinate> npcPositions = new ArrayList<>();
+    private final List<String> objectNames = new ArrayList<>();
+    private final List<Coordinate> objectPositions = new ArrayList<>();
+    private final List<List<String>> objectActions = new ArrayList<>();
+    private final List<String> groundItemNames = new ArrayList<>();
+    private final List<Coordinate> groundItemPositions = new ArrayList<>();
+    private final List<String> inventoryNames = new ArrayList<>();
+    private final List<Coordinate> hazards = new ArrayList<>();
+    private Coordinate playerPosition;
+
+    public StubSceneCapture player(Coordinate position) {
+        this.playerPosition = position;
+        return this;
+    }
+
+    public StubSceneCapture npc(String name, Coordinate position) {
+        npcNames.add(name);
+        npcPositions.add(position);
+        return this;
+    }
+
+    public StubSceneCapture object(String name, Coordinate position, String... actions) {
+        objectNames.add(name);
+        objectPositions.add(position);
+        objectActions.add(List.of(actions));
+        return this;
+    }
+
+    public StubSceneCapture groundItem(String name, Coordinate position) {
+        groundItemNames.add(name);
+        groundItemPositions.add(position);
+        return this;
+    }
+
+    public StubSceneCapture inventory(String name) {
+        inventoryNames.add(name);
+        return this;
+    }
+
+    public StubSceneCapture hazard(Coordinate position) {
+        hazards.add(position);
+        return this;
+    }
+
+    @Override
+    public void capture(WorldSnapshot snapshot) {
+        snapshot.setPlayer(null, playerPosition, false);
+        for (int i = 0; i < npcNames.size(); i++) {
+            snapshot.addNpc(null, i, npcNames.get(i), npcPositions.get(i));
+        }
+        for (int i = 0; i < objectNames.size(); i++) {
+            snapshot.addObject(null, i, objectNames.get(i), objectPositions.get(i), objectActions.get(i));
+        }
+        for (int i = 0; i < groundItemNames.size(); i++) {
+            snapshot.addGroundItem(null, i, groundItemNames.get(i), groundItemPositions.get(i), 1);
+        }
+        for (int i = 0; i < inventoryNames.size(); i++) {
+            snapshot.addInventoryItem(null, i, inventoryNames.get(i), 1);
+        }
+        for (int i = 0; i < hazards.size(); i++) {
+            snapshot.addSpotAnimation(hazards.get(i));
+        }
+    }
+}
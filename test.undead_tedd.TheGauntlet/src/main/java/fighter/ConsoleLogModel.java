@@ -0,0 +1,126 @@
+package fighter;
+
+import org.apache.logging.log4j.Level;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * List model behind the DebugConsole: a fixed-capacity ring buffer of log lines, so a long session holds at most
+ * {@code capacity} lines and the oldest are overwritten.
+ * <p>
+ * Filtering by minimum level and topic never copies lines; the visible rows are a ring of slot indices into the
+ * buffer that is kept up to date as lines are added and evicted, and only rebuilt when the filter changes.
+ * Like every Swing model, this is only touched on the EDT.
+ */
+public class ConsoleLogModel extends AbstractListModel<String> {
+    public static final String ALL_TOPICS = "All topics";
+
+    private final int capacity;
+    private final Level[] levels;
+    private final String[] topics;
+    private final String[] messages;
+    private int oldest;
+    private int size;
+
+    // Visible rows: slot indices of the lines passing the filter, oldest first, stored as a ring
+    private final int[] visible;
+    private int visibleStart;
+    private int visibleSize;
+
+    private Level minimumLevel = Level.ALL;
+    private String topicFilter = ALL_TOPICS;
+    private final List<String> knownTopics = new ArrayList<>();
+
+    public ConsoleLogModel(int capacity) {
+        this.capacity = capacity;
+        this.levels = new Level[capacity];
+        this.topics = new String[capacity];
+        this.messages = new String[capacity];
+        this.visible = new int[capacity];
+    }
+
+    /**
+     * Appends a line, evicting the oldest one once the buffer is full.
+     *
+     * @return true if the topic had not been seen before
+     */
+    public boolean add(Level level, String topic, String message) {
+        int slot;
+        if (size == capacity) {
+            slot = oldest;
+            oldest = (oldest + 1) % capacity;
+            // The evicted line is the oldest, so if it was visible it is the first visible row
+            if (visibleSize > 0 && visible[visibleStart] == slot) {
+                visibleStart = (visibleStart + 1) % capacity;
+                visibleSize--;
+                fireIntervalRemoved(this, 0, 0);
+            }
+        } else {
+            slot = (oldest + size) % capacity;
+            size++;
+        }
+        levels[slot] = level;
+        topics[slot] = topic;
+        messages[slot] = message;
+
+        if (matches(slot)) {
+            visible[(visibleStart + visibleSize) % capacity] = slot;
+            visibleSize++;
+            fireIntervalAdded(this, visibleSize - 1, visibleSize - 1);
+        }
+
+        if (!knownTopics.contains(topic)) {
+            knownTopics.add(topic);
+            return true;
+        }
+        return false;
+    }
+
+    public void setFilter(Level minimumLevel, String topic) {
+        this.minimumLevel = minimumLevel;
+        this.topicFilter = topic == null ? ALL_TOPICS : topic;
+
+        int previousSize = visibleSize;
+        visibleStart = 0;
+        visibleSize = 0;
+        for (int i = 0; i < size; i++) {
+            int slot = (oldest + i) % capacity;
+            if (matches(slot)) {
+                visible[visibleSize++] = slot;
+            }
+        }
+        if (previousSize > 0) {
+            fireIntervalRemoved(this, 0, previousSize - 1);
+        }
+        if (visibleSize > 0) {
+            fireIntervalAdded(this, 0, visibleSize - 1);
+        }
+    }
+
+    public List<String> getKnownTopics() {
+        return knownTopics;
+    }
+
+    public Level getLevelAt(int index) {
+        return levels[visible[(visibleStart + index) % capacity]];
+    }
+
+    @Override
+    public int getSize() {
+        return visibleSize;
+    }
+
+    // Only called for the rows the JList is actually painting
+    @Override
+    public String getElementAt(int index) {
+        int slot = visible[(visibleStart + index) % capacity];
+        return "[" + levels[slot] + "] " + topics[slot] + ": " + messages[slot];
+    }
+
+    private boolean matches(int slot) {
+        return levels[slot].isMoreSpecificThan(minimumLevel)
+                && (ALL_TOPICS.equals(topicFilter) || topicFilter.equals(topics[slot]));
+    }
+}
@@ -1,11 +1,19 @@
 package fighter;
 
+import org.apache.logging.log4j.Level;
+
 import javax.swing.*;
 import java.awt.*;
 
 public class DebugConsole extends JFrame {
 
-    private JTextArea logArea;
+    // Lines kept in memory; older ones are dropped so a long session does not grow the heap
+    private static final int CAPACITY = 5000;
+
+    private final ConsoleLogModel model = new ConsoleLogModel(CAPACITY);
+    private final JList<String> logList;
+    private final JComboBox<Level> levelFilter;
+    private final JComboBox<String> topicFilter;
 
     public DebugConsole() {
         setTitle("Debug Console");
@@ -13,20 +21,69 @@ public class DebugConsole extends JFrame {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null); // Center the console window on screen
 
-        // Create a non-editable text area for displaying logs
-        logArea = new JTextArea();
-        logArea.setEditable(false);
+        // A list only renders the rows in view; fixed cell sizes stop it measuring every line on each update
+        logList = new JList<>(model);
+        logList.setFixedCellHeight(16);
+        logList.setFixedCellWidth(2000);
+        logList.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        logList.setCellRenderer(new LevelColourRenderer());
 
-        // Add the log area inside a scroll pane (so it can scroll)
-        JScrollPane scrollPane = new JScrollPane(logArea);
+        // Add the log list inside a scroll pane (so it can scroll)
+        JScrollPane scrollPane = new JScrollPane(logList);
         add(scrollPane, BorderLayout.CENTER);
 
+        // Level and topic filters
+        levelFilter = new JComboBox<>(new Level[]{Level.ALL, Level.DEBUG, Level.INFO, Level.WARN, Level.ERROR});
+        topicFilter = new JComboBox<>(new String[]{ConsoleLogModel.ALL_TOPICS});
+        levelFilter.addActionListener(event -> applyFilter());
+        topicFilter.addActionListener(event -> applyFilter());
+        JPanel filters = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filters.add(new JLabel("Level:"));
+        filters.add(levelFilter);
+        filters.add(new JLabel("Topic:"));
+        filters.add(topicFilter);
+        add(filters, BorderLayout.NORTH);
+
         setVisible(true); // Show the console window
     }
 
-    // Method to log a message in the console
-    public void log(String message) {
-        logArea.append(message + "\n");  // Add the message to the text area
-        logArea.setCaretPosition(logArea.getDocument().getLength()); // Scroll to the latest message
+    // Method to log a message in the console; the topic filter lists each topic as it first appears
+    public void log(Level level, String topic, String message) {
+        boolean atBottom = isScrolledToBottom();
+        if (model.add(level, topic, message)) {
+            topicFilter.addItem(topic);
+        }
+        // Only follow new lines while the user has not scrolled up to read older ones
+        if (atBottom && model.getSize() > 0) {
+            logList.ensureIndexIsVisible(model.getSize() - 1);
+        }
+    }
+
+    private boolean isScrolledToBottom() {
+        int size = model.getSize();
+        int lastVisible = logList.getLastVisibleIndex(); // -1 until the list has been laid out
+        return size == 0 || lastVisible < 0 || lastVisible >= size - 1;
+    }
+
+    private void applyFilter() {
+        model.setFilter((Level) levelFilter.getSelectedItem(), (String) topicFilter.getSelectedItem());
+        if (model.getSize() > 0) {
+            logList.ensureIndexIsVisible(model.getSize() - 1);
+        }
+    }
+
+    // Colours warnings and errors so they stand out while scrolling
+    private class LevelColourRenderer extends DefaultListCellRenderer {
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected,
+                                                      boolean cellHasFocus) {
+            super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+            if (!isSelected) {
+                Level level = model.getLevelAt(index);
+                setForeground(level.isMoreSpecificThan(Level.ERROR) ? Color.RED
+                        : level.isMoreSpecificThan(Level.WARN) ? Color.ORANGE.darker() : list.getForeground());
+            }
+            return this;
+        }
     }
 }
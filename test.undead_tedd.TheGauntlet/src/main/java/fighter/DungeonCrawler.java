@@ -2,29 +2,39 @@ package fighter;
 
 import com.runemate.game.api.hybrid.entities.GameObject;
 import com.runemate.game.api.hybrid.entities.Npc;
-import com.runemate.game.api.hybrid.entities.Player;
-import com.runemate.game.api.hybrid.local.hud.interfaces.Health;
-import com.runemate.game.api.hybrid.local.hud.interfaces.Inventory;
 import com.runemate.game.api.hybrid.location.Coordinate;
-import com.runemate.game.api.hybrid.region.GameObjects;
-import com.runemate.game.api.hybrid.region.Npcs;
-import com.runemate.game.api.hybrid.region.Players;
+import com.runemate.game.api.script.framework.listeners.EngineListener;
 import com.runemate.game.api.script.framework.tree.*;
 import com.runemate.ui.DefaultUI;
+import fighter.game.GamePort;
+import fighter.journal.Decision;
+import fighter.journal.DecisionJournal;
+import fighter.journal.JournalRecord;
+import fighter.journal.RunCheckpoint;
+import fighter.replay.RecordingGamePort;
 import fighter.tasks.*;
+import fighter.tasks.tracking.GauntletResource;
 import fighter.tasks.tracking.ResourceTracker;
+import fighter.world.ItemCategory;
+import fighter.world.SceneEntity;
+import fighter.world.WorldSnapshot;
 import javafx.scene.control.ToggleButton;
 import javafx.scene.text.Text;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
+import org.apache.logging.log4j.Level;
 
+import javax.swing.SwingUtilities;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
 
 @Log4j2(topic = "DungeonCrawler")
-public class DungeonCrawler extends TreeBot {
+public class DungeonCrawler extends TreeBot implements EngineListener {
     @Getter
     private static HashMap<Coordinate, Boolean> scannedRooms = new HashMap<>();
 
@@ -36,16 +46,16 @@ public class DungeonCrawler extends TreeBot {
         }
 
         // Query for the "Illuminated Symbol" object to confirm new area activation
-        GameObject illuminatedSymbol = GameObjects.newQuery().names("Illuminated Symbol").results().first();
+        SceneEntity<GameObject> illuminatedSymbol = DungeonUtils.getWorld().firstObject("Illuminated Symbol");
 
         // If the illuminated symbol is found, mark this room as accessible
         if (illuminatedSymbol != null) {
             scannedRooms.put(roomLocation, true); // Store room as accessible
-            log.info("New area detected at " + roomLocation + ". Marking room as accessible.");
+            log.info("New area detected at {}. Marking room as accessible.", roomLocation);
             return true;
         } else {
             // Room is not accessible yet
-            log.warn("Room at " + roomLocation + " is not accessible.");
+            log.warn("Room at {} is not accessible.", roomLocation);
             return false;
         }
 
@@ -54,8 +64,13 @@ public class DungeonCrawler extends TreeBot {
     private DebugConsole debugConsole;
     private Text taskStatusText;
     @Getter
+    @Setter
     private boolean botRunning = false;
 
+    // Installed in DungeonUtils before the bot is created; the RuneMate client unless running simulated
+    @Getter
+    private final GamePort gamePort = DungeonUtils.getGamePort();
+
     // Define instance variables
     @Setter
     @Getter
@@ -67,11 +82,10 @@ public class DungeonCrawler extends TreeBot {
     private BossType bossType;
 
     @Getter
-    private final ResourceTracker resourceTracker = new ResourceTracker();
-    @Getter
-    private int craftingPhase = 1;
+    private final ResourceTracker resourceTracker = DungeonUtils.getResourceTracker();
 
-    // Task declarations
+    // Task declarations; every task is created once so the decision tree allocates nothing per loop
+    private final TreeTask idleTask = new IdleTask();
     private final TreeTask craftingTask;
     @Getter
     private final TreeTask combatTask;
@@ -81,10 +95,30 @@ public class DungeonCrawler extends TreeBot {
     private final TreeTask bossFightTask;
     @Getter
     private final TreeTask unexpectedScenarioHandlerTask;
+    @Getter
+    private final TreeTask resourceGatheringTask;
+
+    // Status updates travel to the console and status text through here, off the bot thread
+    private final StatusPipeline statusPipeline = new StatusPipeline();
+    // Console topic for statuses published before the tree has taken its first branch
+    private static final String STARTUP_TOPIC = "Startup";
+    private static final int NEEDED_MONSTER_CATEGORIES =
+            NpcCategory.WEAK_MONSTER.bit() | NpcCategory.DEMI_BOSS.bit() | NpcCategory.BOSS.bit();
+
+    // Every loop of the tree leaves one fixed-width record here; the record is reused so journaling allocates nothing
+    private DecisionJournal decisionJournal;
+    private final JournalRecord journalRecord = new JournalRecord();
+    private final int[] journalCounts = new int[GauntletResource.count()];
+    @Getter
+    private Decision lastDecision;
+    private long loopStartNanos;
+    private long previousLoopStartNanos;
 
-    // Lists to track resources and monsters in the current room
-    private List<GameObject> currentResources;
-    private List<Npc> currentMonsters;
+    // In-run progress, saved whenever it changes so a restarted client can carry on with the same attempt
+    private static final long CHECKPOINT_MAX_AGE_MILLIS = 30 * 60_000L;
+    private RunCheckpoint runCheckpoint;
+    private final RunCheckpoint.State checkpointState = new RunCheckpoint.State();
+    private long savedProgress = -1;
 
     // Constructor to initialize bossType and tasks
     public DungeonCrawler() {
@@ -98,6 +132,7 @@ public class DungeonCrawler extends TreeBot {
         this.startingRoomCheckTask = new StartingRoomCheckTask(this, bossType);
         this.bossFightTask = new BossFightTask(this, bossType);
         this.unexpectedScenarioHandlerTask = new UnexpectedScenarioHandlerTask(this);
+        this.resourceGatheringTask = new ResourceGatheringTask(this);
     }
 
     public static void setScannedRooms(HashMap<Coordinate, Boolean> scannedRooms) {
@@ -110,9 +145,13 @@ public class DungeonCrawler extends TreeBot {
         this.bossType = enterCorrupted ? BossType.CORRUPTED_HUNLLEF : BossType.CRYSTALLINE_HUNLLEF;
     }
 
+    // The tracker holds the phase, so one restored from a checkpoint or reset for a new run is what crafting sees
+    public int getCraftingPhase() {
+        return resourceTracker.getCraftingPhase();
+    }
+
     public void advanceCraftingPhase() {
-        if (craftingPhase == 1) {
-            craftingPhase = 2;
+        if (resourceTracker.finishCraftingPhase(1)) {
             log.info("Advanced to second crafting phase.");
         }
     }
@@ -124,9 +163,14 @@ public class DungeonCrawler extends TreeBot {
 
     @Override
     public void onStart(String... args) {
-        debugConsole = new DebugConsole();
+        // Swing components are created and only ever touched on the EDT
+        SwingUtilities.invokeLater(() -> debugConsole = new DebugConsole());
         log.info("Bot started");
-        debugConsole.log("Bot started");
+        openDecisionJournal(Paths.get("journal"));
+        openRunCheckpoint(Paths.get("journal", "checkpoint.bin"));
+
+        // Tick events drive the once-per-tick world snapshot
+        getEventDispatcher().addListener(this);
 
         DefaultUI ui = new DefaultUI(this);
 
@@ -140,12 +184,12 @@ public class DungeonCrawler extends TreeBot {
                 startButton.setText("ON");
                 startButton.setStyle("-fx-background-color: green; -fx-text-fill: white;");
                 log.info("Bot has started.");
-                updateTaskStatus("Bot is running.");
+                showStatusFromUi("Bot is running.");
             } else {
                 startButton.setText("OFF");
                 startButton.setStyle("-fx-background-color: red; -fx-text-fill: white;");
                 log.info("Bot is stopped.");
-                updateTaskStatus("Bot is stopped.");
+                showStatusFromUi("Bot is stopped.");
             }
         });
 
@@ -159,7 +203,7 @@ public class DungeonCrawler extends TreeBot {
                 corruptedButton.setText("Enter Corrupted (ON)");
                 corruptedButton.setStyle("-fx-background-color: red; -fx-text-fill: white;");
                 corruptedButton.setDisable(true);  // Disable after being turned on
-                updateTaskStatus("Set to Enter Corrupted Gauntlet.");
+                showStatusFromUi("Set to Enter Corrupted Gauntlet.");
                 log.info("Locked to Enter Corrupted Gauntlet.");
             }
         });
@@ -177,7 +221,144 @@ public class DungeonCrawler extends TreeBot {
         DefaultUI.addPanel(this, "Task Status", taskStatusText);
 
         DefaultUI.setStatus(this, "Initializing Dungeon Crawler");
-        taskStatusText.setText("Starting the bot...");
+        statusPipeline.start((level, topic, message) -> debugConsole.log(level, topic, message),
+                text -> taskStatusText.setText(text));
+        updateTaskStatus("Starting the bot...");
+    }
+
+    @Override
+    public void onStop() {
+        statusPipeline.stop();
+        DungeonUtils.getPrayerFlicker().stop();
+        DungeonUtils.getPrayerFlicker().logSummary();
+        closeDecisionJournal();
+        closeRunCheckpoint();
+        if (gamePort instanceof RecordingGamePort) {
+            ((RecordingGamePort) gamePort).close();
+        }
+    }
+
+    public void openDecisionJournal(Path directory) {
+        try {
+            decisionJournal = DecisionJournal.openForSession(directory);
+            log.info("Recording decisions to {}", decisionJournal.getPath());
+        } catch (IOException e) {
+            log.warn("Could not open a decision journal in {}; running without one.", directory, e);
+        }
+    }
+
+    public void closeDecisionJournal() {
+        if (decisionJournal != null) {
+            decisionJournal.close();
+            decisionJournal = null;
+        }
+    }
+
+    // Opens the checkpoint and, if it holds a recent attempt, picks up where that attempt left off
+    public void openRunCheckpoint(Path file) {
+        try {
+            runCheckpoint = RunCheckpoint.open(file);
+        } catch (IOException e) {
+            log.warn("Could not open a run checkpoint at {}; running without one.", file, e);
+            return;
+        }
+        RunCheckpoint.State state = checkpointState;
+        if (runCheckpoint.load(state, CHECKPOINT_MAX_AGE_MILLIS)) {
+            resourceTracker.restoreProgress(state.getCraftedItems(), state.getCraftingPhase());
+            startingRoomChecked = state.isStartingRoomChecked();
+            ((StartingRoomCheckTask) startingRoomCheckTask).restoreProgress(state.getStartingRoomProgress());
+            for (int i = 0; i < state.getScannedRooms().size(); i++) {
+                scannedRooms.put(state.getScannedRooms().get(i), true);
+            }
+            ((DungeonTraversalTask) dungeonTraversalTask).getVisitedRooms().addAll(state.getVisitedRooms());
+            savedProgress = progressFingerprint();
+            log.info("Resumed run from checkpoint: crafting phase {}, {} rooms scanned, {} rooms visited.",
+                    state.getCraftingPhase(), state.getScannedRooms().size(), state.getVisitedRooms().size());
+        }
+    }
+
+    public void closeRunCheckpoint() {
+        if (runCheckpoint != null) {
+            saveCheckpointIfChanged();
+            runCheckpoint.close();
+            runCheckpoint = null;
+        }
+    }
+
+    // Everything the checkpoint holds only ever grows or flips a flag, so a change in any of it changes this value.
+    // Each field is masked to its own bits, so a large one cannot spill into the next: 12 crafted flags, the phase
+    // in 4 bits, 3 starting room flags, the checked flag, and 16 bits each for the room counts.
+    private long progressFingerprint() {
+        long fingerprint = resourceTracker.getCraftedMask() & 0xFFFL;
+        fingerprint |= (resourceTracker.getCraftingPhase() & 0xFL) << 12;
+        fingerprint |= (((StartingRoomCheckTask) startingRoomCheckTask).getProgress() & 0x7L) << 16;
+        fingerprint |= (startingRoomChecked ? 1L : 0L) << 19;
+        fingerprint |= (scannedRooms.size() & 0xFFFFL) << 20;
+        fingerprint |= (((DungeonTraversalTask) dungeonTraversalTask).getVisitedRooms().size() & 0xFFFFL) << 36;
+        return fingerprint;
+    }
+
+    // Checked at the top of every loop, so the checkpoint is never more than one loop behind
+    private void saveCheckpointIfChanged() {
+        long progress = progressFingerprint();
+        if (runCheckpoint == null || progress == savedProgress) {
+            return;
+        }
+        RunCheckpoint.State state = checkpointState;
+        state.clear();
+        state.setCraftingPhase(resourceTracker.getCraftingPhase());
+        state.setCraftedItems(resourceTracker.getCraftedMask());
+        state.setStartingRoomChecked(startingRoomChecked);
+        state.setStartingRoomProgress(((StartingRoomCheckTask) startingRoomCheckTask).getProgress());
+        for (Coordinate room : scannedRooms.keySet()) {
+            state.getScannedRooms().add(room);
+        }
+        state.getVisitedRooms().addAll(((DungeonTraversalTask) dungeonTraversalTask).getVisitedRooms());
+        runCheckpoint.save(state);
+        savedProgress = progress;
+    }
+
+    // Called once the branch for this loop is known; the loop is timed from the top of the tree
+    private void recordDecision(Decision decision) {
+        lastDecision = decision;
+        if (decisionJournal == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        JournalRecord record = journalRecord;
+        record.setTick(gamePort.getTickClock().getTick());
+        record.setEpochMillis(System.currentTimeMillis());
+        record.setDecisionNanos(now - loopStartNanos);
+        record.setLoopNanos(previousLoopStartNanos == 0 ? 0 : loopStartNanos - previousLoopStartNanos);
+        record.setDecision(decision);
+        record.setCraftingPhase(resourceTracker.getCraftingPhase());
+        record.setHealthPercent(gamePort.getHealthPercent());
+        record.setPrayerPoints(gamePort.getPrayerPoints());
+        Coordinate position = DungeonUtils.getWorld().getPlayerPosition();
+        record.setX(position != null ? position.getX() : -1);
+        record.setY(position != null ? position.getY() : -1);
+        record.setPlane(position != null ? position.getPlane() : -1);
+        int[] counts = journalCounts;
+        resourceTracker.snapshot(counts);
+        record.setCrystallineShards(counts[GauntletResource.CRYSTALLINE_SHARDS.ordinal()]);
+        record.setCorruptedShards(counts[GauntletResource.CORRUPTED_SHARDS.ordinal()]);
+        record.setWeaponFrames(counts[GauntletResource.WEAPON_FRAME.ordinal()]);
+        record.setPaddlefish(counts[GauntletResource.RAW_PADDLEFISH.ordinal()]);
+        record.setCrystalOre(counts[GauntletResource.CRYSTAL_ORE.ordinal()]);
+        record.setPhrenBark(counts[GauntletResource.PHREN_BARK.ordinal()]);
+        record.setLinumTirinium(counts[GauntletResource.LINUM_TIRINIUM.ordinal()]);
+        record.setGrymLeaf(counts[GauntletResource.GRYM_LEAF.ordinal()]);
+        record.setOrbs(counts[GauntletResource.CRYSTALLINE_ORB.ordinal()]
+                + counts[GauntletResource.CORRUPTED_ORB.ordinal()]);
+        record.setBowstrings(counts[GauntletResource.CRYSTALLINE_BOWSTRING.ordinal()]
+                + counts[GauntletResource.CORRUPTED_BOWSTRING.ordinal()]);
+        decisionJournal.append(record);
+    }
+
+    @Override
+    public void onTickStart() {
+        gamePort.getTickClock().onTick();
+        DungeonUtils.onGameTick();
     }
 
     @Override
@@ -186,31 +367,27 @@ public class DungeonCrawler extends TreeBot {
     }
 
     public void setStopReason(String reason) {
-        log.info("Stopping bot due to: " + reason);
+        log.info("Stopping bot due to: {}", reason);
         updateTaskStatus(reason);
         super.stop(reason);
     }
 
-    // Scan the dungeon for new resources and monsters
-    public void scanDungeon() {
-        currentResources = GameObjects.newQuery().names("Node", "Ore", "Resource").results().asList();  // Adjust names as needed
-        currentMonsters = Npcs.newQuery().names("MonsterName1", "MonsterName2", "BossName").results().asList();  // Adjust names as needed
-        log.info("Dungeon scanned. Found " + currentResources.size() + " resources and " + currentMonsters.size() + " monsters.");
+    // Scan the dungeon for new resources and monsters, reusing this tick's snapshot when it is still current
+    public WorldSnapshot scanDungeon() {
+        WorldSnapshot world = DungeonUtils.getWorld();
+        log.debug("Dungeon scanned. Found {} objects and {} npcs.", world.getObjects().size(), world.getNpcs().size());
+        return world;
     }
 
-    public Npc getNeededMonster() {
-        for (Npc npc : currentMonsters) {
-            if (DungeonUtils.isNeededMonster(npc, resourceTracker)) {
-                return npc;
-            }
-        }
-        return null;
+    // The best monster to fight right now, if any is needed
+    public SceneEntity<Npc> getNeededMonster() {
+        return DungeonUtils.getBestTarget(resourceTracker, NEEDED_MONSTER_CATEGORIES);
     }
 
     public boolean hasNeededResource() {
-        for (GameObject resource : currentResources) {
-            String resourceName = Objects.requireNonNull(resource.getDefinition()).getName();
-            if (ResourceTracker.isNeededResource(resourceName)) {
+        List<SceneEntity<GameObject>> objects = DungeonUtils.getWorld().getObjects();
+        for (int i = 0; i < objects.size(); i++) {
+            if (ResourceTracker.isNeededResource(objects.get(i).getName())) {
                 return true;
             }
         }
@@ -223,6 +400,11 @@ public class DungeonCrawler extends TreeBot {
 
         @Override
         public boolean validate() {
+            previousLoopStartNanos = loopStartNanos;
+            loopStartNanos = System.nanoTime();
+            // Actions deferred to a later tick by the tasks run here, at the top of the loop that follows
+            DungeonUtils.getScheduler().runDue();
+            saveCheckpointIfChanged();
             return botRunning;
         }
 
@@ -233,46 +415,57 @@ public class DungeonCrawler extends TreeBot {
 
         @Override
         public TreeTask failureTask() {
-            return new IdleTask();
+            recordDecision(Decision.IDLE);
+            return idleTask;
         }
     }
 
     private class RootTask extends BranchTask {
         @Override
         public boolean validate() {
-            return Health.getCurrentPercent() > 50;
+            return gamePort.getHealthPercent() > 50;
         }
 
         @Override
         public TreeTask successTask() {
             // Step 1: Finish starting room check (only executes once)
             if (!isStartingRoomChecked()) {
-                updateTaskStatus("Checking starting room...");
                 startingRoomChecked = true;
-                return startingRoomCheckTask;
+                return decided(Decision.STARTING_ROOM_CHECK, startingRoomCheckTask, "Checking starting room...");
+            }
+
+            // In the Hunllef's room the fight is all there is left to do
+            if (DungeonUtils.getBoss(bossType) != null) {
+                return decided(Decision.BOSS_FIGHT, bossFightTask, "Fighting the Hunllef...");
+            }
+
+            // Stay in a fight already under way rather than walking off to craft or gather mid-fight, and take the drop
+            // of one that ended while the tree was elsewhere
+            EngagementTracker engagement = DungeonUtils.getEngagementTracker();
+            if (engagement.isEngaged() || engagement.hasLoot()) {
+                return decided(Decision.COMBAT, combatTask);
             }
 
-            // Step 2: Check if crafting is ready (always checked first in each room)
-            if (resourceTracker.isReadyToCraft()) {
-                updateTaskStatus("Preparing for crafting...");
-                return craftingTask;
+            // Step 2: Check if crafting is ready (always checked first in each room); away from the Singing Bowl the
+            // teleport below takes us there
+            if (resourceTracker.isReadyToCraft() && DungeonUtils.isInCraftingArea(bossType)) {
+                return decided(Decision.CRAFTING, craftingTask, "Preparing for crafting...");
             }
 
             // Step 3: Room scan, prioritizing combat if needed
             scanDungeon();
-            Npc target = getNeededMonster();
+            SceneEntity<Npc> target = getNeededMonster();
             if (target != null && combatTask.validate()) {
-                updateTaskStatus("Prioritizing combat...");
-                return combatTask;
+                return decided(Decision.COMBAT, combatTask, "Prioritizing combat...");
             }
 
             // Step 4: Gather resources if they are needed
             if (hasNeededResource()) {
-                updateTaskStatus("Gathering resources...");
-                return new ResourceGatheringTask(DungeonCrawler.this);
+                return decided(Decision.GATHERING, resourceGatheringTask, "Gathering resources...");
             }
 
             if (((DungeonTraversalTask) dungeonTraversalTask).shouldTeleport()) {
+                recordDecision(Decision.TELEPORT);
                 updateTaskStatus("Teleporting for crafting...");
                 ((DungeonTraversalTask) dungeonTraversalTask).teleportToCraftingArea();
                 return null;
@@ -281,33 +474,72 @@ public class DungeonCrawler extends TreeBot {
 
             // Step 6: Traverse the dungeon if all other tasks are unnecessary
             if (dungeonTraversalTask.validate()) {
-                updateTaskStatus("Traversing dungeon...");
-                return dungeonTraversalTask;
+                return decided(Decision.TRAVERSAL, dungeonTraversalTask, "Traversing dungeon...");
             }
 
             // Step 7: Default to handling unexpected scenarios if no valid tasks are found
             log.warn("No valid task found; handling unexpected scenario.");
-            updateTaskStatus("No valid task found, handling unexpected scenario...");
+            recordDecision(Decision.NO_VALID_TASK);
+            updateTaskStatus(Level.WARN, "No valid task found, handling unexpected scenario...");
             return unexpectedScenarioHandlerTask;
         }
 
         @Override
         public TreeTask failureTask() {
-            updateTaskStatus("Handling unexpected scenario...");
+            // There is no leaving the Hunllef's room to recover; the fight task drinks potions as it goes
+            if (DungeonUtils.getBoss(bossType) != null) {
+                return decided(Decision.BOSS_FIGHT, bossFightTask, "Fighting the Hunllef...");
+            }
+            recordDecision(Decision.LOW_HEALTH);
+            updateTaskStatus(Level.WARN, "Handling unexpected scenario...");
             return unexpectedScenarioHandlerTask;
         }
+
+        private TreeTask decided(Decision decision, TreeTask task) {
+            recordDecision(decision);
+            return task;
+        }
+
+        // The decision is recorded first so the status goes out under the new branch's topic
+        private TreeTask decided(Decision decision, TreeTask task, String status) {
+            recordDecision(decision);
+            updateTaskStatus(status);
+            return task;
+        }
     }
 
-    public void updateTaskStatus(String status) {
-        log.info("Task Status Updated: " + status);
-        debugConsole.log("Task Status Updated: " + status);
+    // For the toggle listeners, which already run on the JavaFX thread; the pipeline only takes the bot thread
+    private void showStatusFromUi(String status) {
+        log.info("Task Status Updated: {}", status);
         taskStatusText.setText(status);
     }
 
+    public void updateTaskStatus(String status) {
+        updateTaskStatus(Level.INFO, status, null);
+    }
+
+    public void updateTaskStatus(String status, String detail) {
+        updateTaskStatus(Level.INFO, status, detail);
+    }
+
+    public void updateTaskStatus(Level level, String status) {
+        updateTaskStatus(level, status, null);
+    }
+
+    // Status with a variable part (e.g. a target name); the two parts are only joined on the UI side, and a repeat
+    // of the previous status is merged into a counter without logging or building any string. The console files
+    // it under the topic of the branch the tree is running.
+    public void updateTaskStatus(Level level, String status, String detail) {
+        String topic = lastDecision != null ? lastDecision.getTopic() : STARTUP_TOPIC;
+        if (statusPipeline.publish(level, topic, status, detail)) {
+            log.log(level, "Task Status Updated: {}{}", status, detail == null ? "" : detail);
+        }
+    }
+
     public Coordinate getRoomLocation() {
-        Player localPlayer = Players.getLocal();
-        if (localPlayer != null) {
-            return localPlayer.getPosition();
+        Coordinate position = DungeonUtils.getWorld().getPlayerPosition();
+        if (position != null) {
+            return position;
         } else {
             log.warn("Unable to retrieve player location.");
             return null;
@@ -318,12 +550,12 @@ public class DungeonCrawler extends TreeBot {
             // Check if crafting phase 1 is ready and the bot is away from the crafting area
             if (resourceTracker.getCraftingPhase() == 1
                     && !DungeonUtils.isInCraftingArea(this.getBossType())  // Pass bot.getBossType() here
-                    && Inventory.contains("Teleport crystal")) {
+                    && DungeonUtils.getWorld().inventoryContains(ItemCategory.TELEPORT)) {
 
                 log.info("Teleporting back for Phase 1 crafting...");
                 return true;
 }
-            else if (resourceTracker.getCraftingPhase() == 2 && Inventory.contains("Teleport crystal")) {
+            else if (resourceTracker.getCraftingPhase() == 2 && DungeonUtils.getWorld().inventoryContains(ItemCategory.TELEPORT)) {
                 log.info("Teleporting back for Phase 2 crafting...");
                 return true;
             }
@@ -1,32 +1,46 @@
 package fighter;
 
+import java.nio.file.Paths;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import com.runemate.game.api.hybrid.entities.GameObject;
 import com.runemate.game.api.hybrid.entities.GroundItem;
 import com.runemate.game.api.hybrid.entities.Npc;
-import com.runemate.game.api.hybrid.input.Keyboard;
 import com.runemate.game.api.hybrid.local.hud.interfaces.*;
 import com.runemate.game.api.hybrid.location.Coordinate;
-import com.runemate.game.api.hybrid.region.GameObjects;
-import com.runemate.game.api.hybrid.region.GroundItems;
-import com.runemate.game.api.hybrid.region.Npcs;
-import com.runemate.game.api.hybrid.region.Players;
 import com.runemate.game.api.osrs.local.hud.interfaces.ControlPanelTab;
-import com.runemate.game.api.script.Execution;
 import com.runemate.game.api.osrs.local.hud.interfaces.Prayer;
+import fighter.game.ActionScheduler;
+import fighter.game.GamePort;
+import fighter.game.PrayerFlickEngine;
+import fighter.game.RuneMateGamePort;
+import fighter.replay.RecordingGamePort;
+import fighter.stats.RunStats;
 import fighter.tasks.BossType;
+import fighter.tasks.ArenaDistanceTable;
+import fighter.tasks.EngagementTracker;
+import fighter.tasks.HazardGrid;
+import fighter.tasks.HunllefAttackTracker;
+import fighter.tasks.Loadout;
+import fighter.tasks.NpcCategory;
+import fighter.tasks.NpcClassifier;
+import fighter.tasks.tracking.GauntletResource;
 import fighter.tasks.tracking.ResourceTracker;
-import com.runemate.game.api.hybrid.local.hud.interfaces.SpriteItem;
+import fighter.world.InventoryIndex;
+import fighter.world.ItemCategory;
+import fighter.world.SceneCapture;
+import fighter.world.SceneEntity;
+import fighter.world.WorldSnapshot;
 import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
 
 import java.awt.event.KeyEvent;
-import java.util.Objects;
 
 import static fighter.tasks.tracking.ResourceTracker.isNeededResource;
 
-@Log4j2
+@Log4j2(topic = "DungeonUtils")
 public class DungeonUtils {
 
     // Coordinates for normal and corrupted mode
@@ -40,6 +54,11 @@ public class DungeonUtils {
     public static final Coordinate[] corruptedSouthDoorNodes = {new Coordinate(1977, 5665, 1), new Coordinate(1974, 5665, 1)};
     public static final Coordinate[] corruptedWestDoorNodes = {new Coordinate(1969, 5670, 1), new Coordinate(1969, 5673, 1)};
 
+    // Resource nodes in the order getNeededResourceNode looks for them
+    private static final GauntletResource[] GATHERING_ORDER = {GauntletResource.CRYSTAL_ORE,
+            GauntletResource.CORRUPTED_ORE, GauntletResource.PHREN_BARK, GauntletResource.LINUM_TIRINIUM,
+            GauntletResource.GRYM_LEAF};
+
     private static Coordinate currentRoomLocation;
 
     public static void updateRoomLocation(Coordinate newLocation) {
@@ -51,8 +70,6 @@ public class DungeonUtils {
     }
 
 
-    private static final long FLICK_DELAY = 600; // Flick every 600ms
-
     // Tracks second base return for teleport crystal
     @Getter
     private static boolean secondReturnToBase;
@@ -67,35 +84,159 @@ public class DungeonUtils {
     public static ResourceTracker getResourceTracker() {
         if (resourceTracker == null) {
             resourceTracker = new ResourceTracker();
+            // Counts come from what actually enters and leaves the inventory
+            worldSnapshot.addInventoryListener(resourceTracker);
             log.info("Initialized a new ResourceTracker.");
         }
         return resourceTracker;
     }
 
+    private static RunStats runStats;
+
+    // Per-run statistics, with the histograms of earlier sessions loaded on first use
+    public static RunStats getRunStats() {
+        if (runStats == null) {
+            runStats = new RunStats(Paths.get("journal", "runstats.bin"));
+            runStats.load();
+            worldSnapshot.addInventoryListener(runStats);
+            getResourceTracker().addPhaseListener(runStats);
+        }
+        return runStats;
+    }
+
+    // Every Gauntlet NPC by category, for target selection
+    private static final NpcClassifier npcClassifier = new NpcClassifier();
+
+    private static EngagementTracker engagementTracker;
+
+    // The fight in progress, followed through every capture; kills feed the run statistics
+    public static EngagementTracker getEngagementTracker() {
+        if (engagementTracker == null) {
+            engagementTracker = new EngagementTracker(npcClassifier);
+            engagementTracker.addKillListener(getRunStats());
+            worldSnapshot.addSceneListener(engagementTracker);
+        }
+        return engagementTracker;
+    }
+
+    // Walking distances across a boss room, built up-front; no pillars or other obstacles are known in either room
+    private static final ArenaDistanceTable arenaDistances = new ArenaDistanceTable(new long[ArenaDistanceTable.WORDS]);
+
+    private static final Map<BossType, HazardGrid> hazardGrids = new EnumMap<>(BossType.class);
+
+    // The hazards of a Hunllef room, rebuilt from every capture once asked for
+    public static HazardGrid getHazardGrid(BossType bossType) {
+        HazardGrid grid = hazardGrids.get(bossType);
+        if (grid == null) {
+            grid = new HazardGrid(bossType, arenaDistances);
+            hazardGrids.put(bossType, grid);
+            worldSnapshot.addSceneListener(grid);
+        }
+        return grid;
+    }
+
+    private static HunllefAttackTracker hunllefAttackTracker;
+
+    // The Hunllef's attack count, kept up from every capture with the boss in it, and its protection prayer
+    public static HunllefAttackTracker getHunllefAttackTracker() {
+        if (hunllefAttackTracker == null) {
+            hunllefAttackTracker = new HunllefAttackTracker(npcClassifier);
+            worldSnapshot.addSceneListener(hunllefAttackTracker);
+        }
+        return hunllefAttackTracker;
+    }
+
+    private static Loadout loadout;
+
+    // What the player wears, kept up to date from inventory events
+    public static Loadout getLoadout() {
+        if (loadout == null) {
+            loadout = new Loadout();
+            worldSnapshot.addInventoryListener(loadout);
+        }
+        return loadout;
+    }
+
+    // Scene captured once per game tick, shared by every task
+    private static final WorldSnapshot worldSnapshot = new WorldSnapshot();
+
+    // The game everything reads from and acts on; the RuneMate client unless a simulator is installed
+    // Wrapped in a RecordingGamePort when -Ddungeoncrawler.record is set
+    private static GamePort gamePort = RecordingGamePort.wrapIfEnabled(new RuneMateGamePort());
+
+    // Tick-aligned waits and deferred actions on top of the port's tick clock
+    private static ActionScheduler scheduler = new ActionScheduler(gamePort);
+
+    // Prayer flicking in the background, on the engine's tick events
+    private static PrayerFlickEngine prayerFlicker = new PrayerFlickEngine(gamePort, scheduler,
+            PrayerFlickEngine.newFlickExecutor());
+
+    static {
+        installSceneCapture(gamePort);
+    }
+
+    public static GamePort getGamePort() {
+        return gamePort;
+    }
+
+    public static ActionScheduler getScheduler() {
+        return scheduler;
+    }
+
+    // Install a different game (e.g. SimulatedGauntlet) before the bot and its tasks are created
+    public static void setGamePort(GamePort port) {
+        gamePort = port;
+        scheduler = new ActionScheduler(port);
+        // Installed ports deliver their ticks on the bot thread, and flicks have to stay in step with them
+        prayerFlicker = new PrayerFlickEngine(port, scheduler, Runnable::run);
+        installSceneCapture(port);
+    }
+
+    // Get the world snapshot for the current tick, recapturing it if the tick has advanced
+    public static WorldSnapshot getWorld() {
+        return worldSnapshot.current();
+    }
+
+    // Invoked from the engine tick event so the next read recaptures the scene, and the tick gets its flick
+    public static void onGameTick() {
+        worldSnapshot.onTickStart();
+        prayerFlicker.onTickStart();
+    }
+
+    // Forces the next read to recapture, e.g. when a replay knows the scene changed before a tick is seen
+    public static void invalidateWorld() {
+        worldSnapshot.invalidate();
+    }
+
+    // Replace where the snapshot reads the scene from, e.g. a stand-in when running headless
+    public static void installSceneCapture(SceneCapture capture) {
+        worldSnapshot.setCapture(capture);
+        worldSnapshot.invalidate();
+    }
+
     /// Check for starting area (Bryn and reward chest)
     public static boolean isInStartingRoom() {
-        Npc bryn = Npcs.newQuery().names("Bryn").results().first();
-        GameObject rewardChest = GameObjects.newQuery().names("Reward Chest").results().first();
-        boolean inStartingRoom = bryn != null && rewardChest != null;
+        WorldSnapshot world = getWorld();
+        boolean inStartingRoom = world.firstNpc("Bryn") != null && world.firstObject("Reward Chest") != null;
 
         // Log the result for debugging
-        log.debug("Starting room status: " + (inStartingRoom ? "In starting room" : "Not in starting room"));
+        log.debug("Starting room status: {}", inStartingRoom ? "In starting room" : "Not in starting room");
 
         return inStartingRoom;
     }
 
-    public static GameObject getGauntletEntrancePlatform() {
-        return GameObjects.newQuery().names("The Gauntlet").results().first();
+    public static SceneEntity<GameObject> getGauntletEntrancePlatform() {
+        return getWorld().firstObject("The Gauntlet");
     }
 
     public static boolean enterGauntlet(boolean enterCorrupted) {
-        GameObject platform = getGauntletEntrancePlatform();
+        SceneEntity<GameObject> platform = getGauntletEntrancePlatform();
         if (platform != null) {
             String interactionType = enterCorrupted ? "Enter-corrupted" : "Enter";
-            log.info("Starting our Gauntlet Run (" + (enterCorrupted ? "Corrupted" : "Normal") + "), GL!");
+            log.info("Starting our Gauntlet Run ({}), GL!", enterCorrupted ? "Corrupted" : "Normal");
             boolean interactionResult = platform.interact(interactionType);
             if (interactionResult) {
-                Execution.delay(3000, 5000); // Adding a delay to ensure interaction completes
+                scheduler.awaitTicksUntil(() -> !isInStartingRoom(), 8); // Wait until we have left the lobby
             }
             return interactionResult;
         } else {
@@ -108,21 +249,21 @@ public class DungeonUtils {
 
     // Method to check if we need to heal
     public static boolean shouldHeal() {
-        return Health.getCurrentPercent() < 30;
+        return gamePort.getHealthPercent() < 30;
     }
 
     // Method to check if we need to restore prayer
     public static boolean shouldRestorePrayer() {
-        return Prayer.getPoints() < 20;
+        return gamePort.getPrayerPoints() < 20;
     }
 
     // Restore health using Paddlefish
     public static void restoreHealth() {
-        var paddlefish = Inventory.getItems("Paddlefish").first();
+        var paddlefish = getWorld().inventoryItem(ItemCategory.FOOD);
         if (paddlefish != null) {
             paddlefish.interact("Eat");
             log.info("Eating paddlefish to restore HP.");
-            Execution.delay(500, 1000);
+            scheduler.awaitTicks(2);
         } else {
             log.warn("No paddlefish found in inventory.");
         }
@@ -130,20 +271,21 @@ public class DungeonUtils {
 
     // Restore prayer using Egniol Potion
     public static void restorePrayer() {
-        var egniolPotion = Inventory.getItems(item -> item.getDefinition() != null && item.getDefinition().getName().contains("Egniol Potion")).first();
+        var egniolPotion = getWorld().inventoryItem(ItemCategory.POTION);
         if (egniolPotion != null) {
             egniolPotion.interact("Drink");
             log.info("Drinking Egniol Potion to restore prayer/run energy.");
-            Execution.delay(500, 1000);
+            scheduler.awaitTicks(2);
         } else {
             log.warn("We are out of Egniol Potions!");
         }
     }
 
     // Retrieve resource nodes
-    public static GameObject getResourceNode(String... resourceNames) {
+    public static SceneEntity<GameObject> getResourceNode(String... resourceNames) {
+        WorldSnapshot world = getWorld();
         for (String resourceName : resourceNames) {
-            GameObject resourceNode = GameObjects.newQuery().names(resourceName).results().first();
+            SceneEntity<GameObject> resourceNode = world.firstObject(resourceName);
             if (resourceNode != null) {
                 return resourceNode;
             }
@@ -160,7 +302,7 @@ public class DungeonUtils {
         } else if (shouldHeal()) {
             log.info("Health low, need to heal.");
             healPlayer();
-        } else if (Objects.requireNonNull(Players.getLocal()).isMoving()) {
+        } else if (getWorld().isPlayerMoving()) {
             log.info("Player is moving, keeping prayer active.");
             keepPrayerActive(Prayer.PROTECT_FROM_MELEE);
         }
@@ -168,37 +310,36 @@ public class DungeonUtils {
 
     // Decide when to flick prayer
     public static boolean shouldPrayerFlick() {
-        return Prayer.getPoints() < 20 && !Objects.requireNonNull(Players.getLocal()).isMoving() && !Inventory.contains("Egniol Potion");
+        WorldSnapshot world = getWorld();
+        return gamePort.getPrayerPoints() < 20 && !world.isPlayerMoving() && !world.inventoryContains(ItemCategory.POTION);
     }
 
+    // Hands the prayer to the flick engine and returns at once; it flicks on every tick while shouldPrayerFlick holds
     public static void flickPrayer(Prayer prayer) {
         switchToPrayerInterface();
-        while (shouldPrayerFlick()) {
-            if (!prayer.isActivated()) {
-                prayer.activate();
-                log.info("Prayer activated: " + prayer);
-            }
-            Execution.delay(FLICK_DELAY);
-            prayer.deactivate();
-            log.info("Prayer deactivated: " + prayer);
-            Execution.delay(FLICK_DELAY);
+        if (shouldPrayerFlick()) {
+            prayerFlicker.start(prayer, DungeonUtils::shouldPrayerFlick);
         }
     }
 
+    public static PrayerFlickEngine getPrayerFlicker() {
+        return prayerFlicker;
+    }
+
     // Keep prayer active without flicking
     public static void keepPrayerActive(Prayer prayer) {
-        if (!prayer.isActivated()) {
-            prayer.activate();
-            log.info("Activated prayer without flicking: " + prayer);
+        if (!gamePort.isPrayerActive(prayer)) {
+            gamePort.activatePrayer(prayer);
+            log.info("Activated prayer without flicking: {}", prayer);
         }
     }
 
     // Switch to prayer interface
     public static void switchToPrayerInterface() {
-        if (!ControlPanelTab.PRAYER.isOpen()) {
-            Keyboard.pressKey(KeyEvent.VK_F1);
+        if (!gamePort.isTabOpen(ControlPanelTab.PRAYER)) {
+            gamePort.pressKey(KeyEvent.VK_F1);
             log.info("Switched to prayer interface.");
-            Execution.delay(300, 500);
+            scheduler.awaitTicksUntil(() -> gamePort.isTabOpen(ControlPanelTab.PRAYER), 2);
         }
     }
 
@@ -212,9 +353,9 @@ public class DungeonUtils {
     // Switch to Inventory Interface
     private static void switchToInventoryInterface() {
         log.info("Switching to the inventory interface.");
-        Keyboard.pressKey(114); // Keycode for F3
-        Execution.delay(300, 600);  // Delay to allow the interface to open
-        Keyboard.releaseKey(114); // Release F3
+        gamePort.pressKey(114); // Keycode for F3
+        scheduler.nextTick();  // Allow the interface to open
+        gamePort.releaseKey(114); // Release F3
     }
 
     // Crafting logic for Bows and Staffs
@@ -235,27 +376,34 @@ public class DungeonUtils {
     }
 
     public static boolean isLootNeeded() {
-        GroundItem loot = GroundItems.newQuery().filter(item -> isNeededResource(Objects.requireNonNull(item.getDefinition()).getName())).results().first();
+        WorldSnapshot world = getWorld();
+        SceneEntity<GroundItem> loot = null;
+        for (SceneEntity<GroundItem> item : world.getGroundItems()) {
+            if (item.getName() != null && isNeededResource(item.getName())) {
+                loot = item;
+                break;
+            }
+        }
 
         if (loot == null) {
             log.info("No needed loot found.");
             return false;
         }
 
-        String lootName = Objects.requireNonNull(loot.getDefinition()).getName();
-        log.info("Needed loot found: " + lootName);
+        String lootName = loot.getName();
+        log.info("Needed loot found: {}", lootName);
 
-        if (Inventory.isFull()) {
+        if (world.isInventoryFull()) {
             log.info("Inventory is full. Checking if paddlefish should be dropped for high-priority loot.");
 
             if (isHighPriorityLoot(lootName)) {
-                log.info("High-priority loot detected: " + lootName);
+                log.info("High-priority loot detected: {}", lootName);
                 if (shouldDropPaddlefishForLoot()) {
                     dropPaddlefish();
                     return true;
                 }
             } else {
-                log.info("Loot found, but no space and not high-priority: " + lootName);
+                log.info("Loot found, but no space and not high-priority: {}", lootName);
                 return false;
             }
         }
@@ -263,17 +411,6 @@ public class DungeonUtils {
         return true;
     }
 
-    // Weak monsters include both Crystalline and Corrupted variants
-    public static final List<String> WEAK_MONSTER_NAMES = List.of("Crystalline Rat", "Crystalline Spider", "Crystalline Bat",
-            "Corrupted Rat", "Corrupted Spider", "Corrupted Bat");
-
-    // Demi-bosses include both Crystalline and Corrupted variants
-    public static final List<String> DEMI_BOSS_NAMES = List.of("Crystalline Dragon", "Crystalline Dark Beast",
-            "Corrupted Dragon", "Corrupted Dark Beast");
-
-    // Bosses include both Crystal and Corrupted variants of the main boss
-    private static final List<String> BOSS_NAMES = List.of("Crystal Hunllef", "Corrupted Hunllef");
-
     // Check if loot is high priority
     public static boolean isHighPriorityLoot(String lootName) {
         return lootName.equals("Weapon Frame") || lootName.equals("Corrupted Orb") || lootName.equals("Crystalline Orb")
@@ -282,89 +419,82 @@ public class DungeonUtils {
 
     // Check if we should drop paddlefish to make space for loot
     public static boolean shouldDropPaddlefishForLoot() {
-        return Inventory.contains("Raw Paddlefish") && Inventory.isFull();
+        return getResourceTracker().getCount(GauntletResource.RAW_PADDLEFISH) > 0 && getWorld().isInventoryFull();
     }
 
     // Drop paddlefish to create space in inventory
     public static void dropPaddlefish() {
-        List<SpriteItem> paddlefish = Inventory.getItems("Raw Paddlefish").asList();
+        WorldSnapshot world = getWorld();
+        InventoryIndex inventory = world.getInventoryIndex();
+        int slotsToFree = 1 - inventory.getFreeSlots();
 
-        if (!paddlefish.isEmpty()) {
+        if (getResourceTracker().getCount(GauntletResource.RAW_PADDLEFISH) > 0) {
             log.info("Dropping raw paddlefish to make space for high-priority loot.");
-            for (SpriteItem fish : paddlefish) {
-                if (!Inventory.isFull()) {
+            for (int slots = inventory.slotMask("Raw Paddlefish"); slots != 0; slots &= slots - 1) {
+                if (slotsToFree <= 0) {
                     log.info("Inventory space made. Ready to pick up loot.");
                     break;
                 }
-                fish.interact("Drop");
-                Execution.delay(300, 600);
+                // Every drop is issued from this tick's capture; waiting in between would leave the slots stale
+                if (inventory.item(Integer.numberOfTrailingZeros(slots)).interact("Drop")) {
+                    slotsToFree--;
+                }
             }
+            scheduler.nextTick();
         } else {
             log.warn("No raw paddlefish in inventory to drop.");
         }
     }
 
     // Get the nearest weak monster for easy combat
-    public static Npc getWeakMonster() {
-        return Npcs.newQuery().names(WEAK_MONSTER_NAMES.toArray(new String[0])).results().nearest();
+    public static SceneEntity<Npc> getWeakMonster() {
+        return npcClassifier.nearest(getWorld(), NpcCategory.WEAK_MONSTER);
     }
 
     // Get the nearest demi-boss
-    public static Npc getDemiBoss() {
-        return Npcs.newQuery().names(DEMI_BOSS_NAMES.toArray(new String[0])).results().nearest();
+    public static SceneEntity<Npc> getDemiBoss() {
+        return npcClassifier.nearest(getWorld(), NpcCategory.DEMI_BOSS);
+    }
+
+    // The needed NPC of the given categories, as NpcCategory bits, worth the most for its distance, from one pass over
+    // this tick's NPCs
+    public static SceneEntity<Npc> getBestTarget(ResourceTracker resourceTracker, int categoryMask) {
+        return npcClassifier.bestTarget(getWorld(), resourceTracker, categoryMask);
     }
 
     // Check if a target is a boss or demi-boss
-    public static boolean isBossOrDemiBoss(Npc target) {
-        if (target == null) return false;
-        String name = target.getName();
-        return BOSS_NAMES.contains(name) || DEMI_BOSS_NAMES.contains(name);
+    public static boolean isBossOrDemiBoss(SceneEntity<Npc> target) {
+        NpcCategory category = npcClassifier.classify(target);
+        return category == NpcCategory.BOSS || category == NpcCategory.DEMI_BOSS;
     }
 
     // Determine if an NPC is needed based on resource requirements
-    public static boolean isNeededMonster(Npc target, ResourceTracker resourceTracker) {
-        if (target == null || resourceTracker == null) return false;
-        String name = target.getName();
-
-        // Demi-bosses needed for crafting resources
-        if (DEMI_BOSS_NAMES.contains(name)) {
-            assert name != null;
-            return (name.contains("Dragon") && resourceTracker.isArmorCrafted("body", "corrupted")) ||
-                    (name.contains("Dark Beast") && resourceTracker.isArmorCrafted("helm", "corrupted"));
-        }
-
-        // Weak monsters needed for shards
-        if (WEAK_MONSTER_NAMES.contains(name)) {
-            return resourceTracker.getCrystallineShards() < resourceTracker.getPhase1RequiredShards() ||
-                    resourceTracker.getCorruptedShards() < resourceTracker.getPhase1RequiredShards();
-        }
-
-        // Boss needed if all crafting phases are complete
-        return BOSS_NAMES.contains(name) && resourceTracker.isReadyToCraft() && resourceTracker.isPhaseTwoCraftingComplete();
+    public static boolean isNeededMonster(SceneEntity<Npc> target, ResourceTracker resourceTracker) {
+        return npcClassifier.isNeeded(target, resourceTracker);
     }
 
     // Check if the target NPC is a demi-boss
-    public static boolean isDemiBoss(Npc target) {
-        return target != null && DEMI_BOSS_NAMES.contains(target.getName());
+    public static boolean isDemiBoss(SceneEntity<Npc> target) {
+        return npcClassifier.classify(target) == NpcCategory.DEMI_BOSS;
     }
 
     // Determine if prayer flicking is needed for weak monsters
-    public static boolean shouldFlickForWeakMonster(Npc target) {
-        return target != null && WEAK_MONSTER_NAMES.contains(target.getName());
+    public static boolean shouldFlickForWeakMonster(SceneEntity<Npc> target) {
+        return npcClassifier.classify(target) == NpcCategory.WEAK_MONSTER;
     }
 
     public static boolean hasTeleportCrystal() {
         // Check if there's a "Teleport Crystal" in the inventory
-        return Inventory.contains("Teleport Crystal");
+        return getWorld().inventoryContains(ItemCategory.TELEPORT);
     }
 
     public static void teleportBackToSpawn() {
         // Attempt to use the "Teleport Crystal" if it is present in the inventory
         if (hasTeleportCrystal()) {
-            var teleportCrystal = Inventory.getItems("Teleport Crystal").first();
+            var teleportCrystal = getWorld().inventoryItem(ItemCategory.TELEPORT);
             if (teleportCrystal != null && teleportCrystal.interact("Teleport")) {
                 log.info("Teleporting back to spawn using Teleport Crystal.");
-                Execution.delayUntil(() -> !Objects.requireNonNull(Players.getLocal()).isMoving(), 2000, 5000); // Wait until teleport completes
+                scheduler.awaitTicksUntil(() -> !getWorld().isPlayerMoving(), 9); // Wait until teleport completes
             } else {
                 log.warn("Failed to interact with the Teleport Crystal.");
             }
@@ -373,16 +503,18 @@ public class DungeonUtils {
         }
     }
 
-    public static GameObject getNeededResourceNode() {
-        // Check resource nodes in the dungeon based on what is still needed
-        if (!getResourceTracker().isResourceFullyGathered("Crystal Ore")) {
-            return GameObjects.newQuery().names("Crystal Ore").results().nearest();
-        } else if (!getResourceTracker().isResourceFullyGathered("Corrupted Ore")) {
-            return GameObjects.newQuery().names("Corrupted Ore").results().nearest();
-        } else if (!getResourceTracker().isResourceFullyGathered("Phren Bark")) {
-            return GameObjects.newQuery().names("Phren Bark").results().nearest();
-        } else if (!getResourceTracker().isResourceFullyGathered("Linum Tirinium")) {
-            return GameObjects.newQuery().names("Linum Tirinium").results().nearest();
+    public static SceneEntity<GameObject> getNeededResourceNode() {
+        // Check resource nodes in the dungeon based on what is still needed. A resource with no node in this room
+        // gives way to the next one, or the root would keep choosing to gather in a room with nothing to gather
+        WorldSnapshot world = getWorld();
+        for (int i = 0; i < GATHERING_ORDER.length; i++) {
+            GauntletResource resource = GATHERING_ORDER[i];
+            if (!getResourceTracker().isResourceFullyGathered(resource)) {
+                SceneEntity<GameObject> node = world.nearestObject(resource.getDisplayName());
+                if (node != null) {
+                    return node;
+                }
+            }
         }
 
         // Add more resources if necessary
@@ -396,12 +528,12 @@ public class DungeonUtils {
 
         // Check if this room has already been scanned and marked accessible
         if (scannedRooms.containsKey(roomLocation) && scannedRooms.get(roomLocation)) {
-            log.info("Adding roomLocation to scannedRooms: " + roomLocation);
+            log.info("Adding roomLocation to scannedRooms: {}", roomLocation);
             return true; // Skip if already marked as accessible
         }
 
         // Check for the "Illuminated Symbol" object to confirm new area activation
-        GameObject illuminatedSymbol = GameObjects.newQuery().names("Illuminated Symbol").results().first();
+        SceneEntity<GameObject> illuminatedSymbol = getWorld().firstObject("Illuminated Symbol");
 
         if (illuminatedSymbol != null) {
             // Mark the room as accessible in the HashMap
@@ -413,9 +545,8 @@ public class DungeonUtils {
     }
 
 
-    public static Npc getBoss(BossType bossType) {
-        // Replace "BossName" with the actual name of the boss NPC.
-        return Npcs.newQuery().names("Crystalline Hunllef", "Corrupted Hunllef").results().first();
+    public static SceneEntity<Npc> getBoss(BossType bossType) {
+        return npcClassifier.nearest(getWorld(), NpcCategory.BOSS);
     }
 
     // Crafting area coordinates for Crystalline variant
@@ -427,13 +558,14 @@ public class DungeonUtils {
     public static final Coordinate CORRUPTED_CRAFTING_SE = new Coordinate(1981, 5666, 1);
 
     public static boolean isInCraftingArea(BossType bossType) {
-        Coordinate playerPosition = Objects.requireNonNull(Players.getLocal()).getPosition();
+        Coordinate playerPosition = getWorld().getPlayerPosition();
+        if (playerPosition == null) {
+            return false;
+        }
 
         if (bossType == BossType.CRYSTALLINE_HUNLLEF) {
-            assert playerPosition != null;
             return isWithinArea(playerPosition, CRYSTALLINE_CRAFTING_NW, CRYSTALLINE_CRAFTING_SE);
         } else if (bossType == BossType.CORRUPTED_HUNLLEF) {
-            assert playerPosition != null;
             return isWithinArea(playerPosition, CORRUPTED_CRAFTING_NW, CORRUPTED_CRAFTING_SE);
         }
         return false;
@@ -447,8 +579,7 @@ public class DungeonUtils {
     }
 
     public static boolean isInventoryFull() {
-        int maxInventorySize = 28;
-        return Inventory.getQuantity() >= maxInventorySize;
+        return getWorld().isInventoryFull();
     }
 }
 
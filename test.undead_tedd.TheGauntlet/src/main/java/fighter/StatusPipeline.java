@@ -0,0 +1,169 @@
+package fighter;
+
+import javafx.application.Platform;
+import org.apache.logging.log4j.Level;
+
+import javax.swing.*;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Carries task status updates from the bot thread to the UI without the bot thread ever touching Swing or JavaFX.
+ * <p>
+ * The bot thread publishes into a single-producer, single-consumer ring buffer; a repeat of the status it published
+ * last only bumps that entry's counter. A Swing timer drains the buffer at a capped rate on the EDT, appends the
+ * entries to the debug console and forwards the latest status to the JavaFX thread, only when it actually changed.
+ * Every entry carries the level and topic it was published with, so the console can filter on them.
+ * If the UI falls more than a buffer behind, new statuses are counted and dropped rather than blocking the bot.
+ */
+public class StatusPipeline {
+    private static final int CAPACITY = 1024; // Must be a power of two
+    private static final int MASK = CAPACITY - 1;
+    private static final int REFRESH_MILLIS = 100;
+    private static final String CONSOLE_PREFIX = "Task Status Updated: ";
+    private static final String PIPELINE_TOPIC = "StatusPipeline";
+
+    // Receives the console lines on the EDT
+    @FunctionalInterface
+    public interface ConsoleSink {
+        void log(Level level, String topic, String message);
+    }
+
+    private static final class Entry {
+        private long sequence;
+        private Level level;
+        private String topic;
+        private String status;
+        private String detail;
+        // Written only by the producer, read by the consumer
+        private volatile int repeats;
+
+        private String text() {
+            return detail == null ? status : status + detail;
+        }
+    }
+
+    private final Entry[] ring = new Entry[CAPACITY];
+    private final AtomicLong tail = new AtomicLong(); // Next sequence the producer writes
+    private final AtomicLong head = new AtomicLong(); // Next sequence the consumer reads
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Producer state (bot thread)
+    private Level lastLevel;
+    private String lastTopic;
+    private String lastStatus;
+    private String lastDetail;
+    private Entry lastEntry;
+
+    // Consumer state (EDT)
+    private Timer timer;
+    private ConsoleSink console;
+    private Consumer<String> statusText;
+    private Entry shownEntry;
+    private long shownSequence = -1;
+    private int shownRepeats;
+
+    public StatusPipeline() {
+        for (int i = 0; i < CAPACITY; i++) {
+            ring[i] = new Entry();
+        }
+    }
+
+    /**
+     * Publishes a status from the bot thread. Never blocks and, for a repeated status, never allocates.
+     *
+     * @return true if this was a new status, false if it repeated the previous one or was dropped
+     */
+    public boolean publish(Level level, String topic, String status, String detail) {
+        if (status.equals(lastStatus) && Objects.equals(detail, lastDetail) && level == lastLevel
+                && topic.equals(lastTopic)) {
+            Entry entry = lastEntry;
+            if (entry != null) {
+                entry.repeats = entry.repeats + 1; // Single writer, so a plain read-modify-write is safe
+            }
+            return false;
+        }
+        lastLevel = level;
+        lastTopic = topic;
+        lastStatus = status;
+        lastDetail = detail;
+
+        long sequence = tail.get();
+        if (sequence - head.get() >= CAPACITY) {
+            dropped.incrementAndGet();
+            lastEntry = null;
+            return false;
+        }
+        Entry entry = ring[(int) (sequence & MASK)];
+        entry.sequence = sequence;
+        entry.level = level;
+        entry.topic = topic;
+        entry.status = status;
+        entry.detail = detail;
+        entry.repeats = 0;
+        lastEntry = entry;
+        tail.lazySet(sequence + 1); // Publishes the entry's fields to the consumer
+        return true;
+    }
+
+    /**
+     * Starts draining on the EDT. The console sink is called on the EDT; the status sink on the JavaFX thread.
+     */
+    public void start(ConsoleSink console, Consumer<String> statusText) {
+        SwingUtilities.invokeLater(() -> {
+            this.console = console;
+            this.statusText = statusText;
+            timer = new Timer(REFRESH_MILLIS, event -> drain());
+            timer.start();
+        });
+    }
+
+    public void stop() {
+        SwingUtilities.invokeLater(() -> {
+            if (timer != null) {
+                timer.stop();
+                drain();
+            }
+        });
+    }
+
+    // Runs on the EDT
+    private void drain() {
+        long from = head.get();
+        long to = tail.get();
+        for (long sequence = from; sequence < to; sequence++) {
+            logFinalRepeats();
+            Entry entry = ring[(int) (sequence & MASK)];
+            console.log(entry.level, entry.topic, CONSOLE_PREFIX + entry.text());
+            shownEntry = entry;
+            shownSequence = sequence;
+            shownRepeats = -1;
+        }
+
+        // The status line only ever shows the newest entry, so it is refreshed at most once per drain
+        if (isShownEntryCurrent() && shownEntry.repeats != shownRepeats) {
+            shownRepeats = shownEntry.repeats;
+            String text = shownRepeats > 0 ? shownEntry.text() + " (x" + (shownRepeats + 1) + ")" : shownEntry.text();
+            Platform.runLater(() -> statusText.accept(text));
+        }
+        head.lazySet(to); // Only hand the slots back once we are done reading them
+
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            console.log(Level.WARN, PIPELINE_TOPIC, "Status console fell behind; " + lost + " status updates were dropped.");
+        }
+    }
+
+    // Once an entry is replaced, its final repeat count goes to the console as a single line
+    private void logFinalRepeats() {
+        if (isShownEntryCurrent() && shownEntry.repeats > 0) {
+            console.log(shownEntry.level, shownEntry.topic, "    (repeated " + shownEntry.repeats + " more times)");
+        }
+    }
+
+    // The slot of the entry shown last can be reused once it has been handed back; the sequence tells us if it was
+    private boolean isShownEntryCurrent() {
+        return shownEntry != null && shownEntry.sequence == shownSequence;
+    }
+}
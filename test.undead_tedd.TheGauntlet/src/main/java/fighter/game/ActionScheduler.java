@@ -0,0 +1,117 @@
+package fighter.game;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.util.PriorityQueue;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Tick-aligned waiting and scheduling for the bot thread. Tasks wait for "the next tick" or "N ticks from now"
+ * rather than sleeping a random number of milliseconds, so each action is issued as soon as the tick it depends on
+ * has started. Actions can also be queued for a later tick; they run the next time the bot thread wakes on or after
+ * that tick. Every wait the bot makes goes through here, so a queued action is never held up by a task that is
+ * waiting, only by one that is busy acting. Queue entries are reused, so queueing allocates nothing once the queue
+ * has grown.
+ * <p>
+ * Only the bot thread may use this class.
+ */
+@Log4j2(topic = "ActionScheduler")
+public class ActionScheduler {
+    // Safety margin on top of the ticks being waited for, in case a tick event is late or missed
+    private static final int SLACK_TICKS = 2;
+
+    private final GamePort game;
+    private final TickClock clock;
+    private final PriorityQueue<ScheduledAction> pending = new PriorityQueue<>();
+    // Entries already run, kept for reuse since some actions are queued again every tick
+    private ScheduledAction free;
+    private long sequence;
+
+    public ActionScheduler(GamePort game) {
+        this.game = game;
+        this.clock = game.getTickClock();
+    }
+
+    public long currentTick() {
+        return clock.getTick();
+    }
+
+    // Queue an action for the start of the next tick
+    public void runNextTick(Runnable action) {
+        runInTicks(1, action);
+    }
+
+    // Queue an action for the start of the tick that is the given number of ticks away
+    public void runInTicks(int ticks, Runnable action) {
+        ScheduledAction scheduled = free;
+        if (scheduled != null) {
+            free = scheduled.nextFree;
+            scheduled.nextFree = null;
+        } else {
+            scheduled = new ScheduledAction();
+        }
+        scheduled.tick = clock.getTick() + Math.max(1, ticks);
+        scheduled.sequence = sequence++;
+        scheduled.action = action;
+        pending.add(scheduled);
+    }
+
+    // Run every queued action whose tick has started, in the order they were due
+    public void runDue() {
+        long now = clock.getTick();
+        while (!pending.isEmpty() && pending.peek().tick <= now) {
+            ScheduledAction due = pending.poll();
+            Runnable action = due.action;
+            due.action = null;
+            due.nextFree = free;
+            free = due;
+            action.run();
+        }
+    }
+
+    // Wait for the next tick boundary
+    public void nextTick() {
+        awaitTicks(1);
+    }
+
+    // Wait until the given number of tick boundaries have passed
+    public void awaitTicks(int ticks) {
+        awaitTick(clock.getTick() + ticks);
+    }
+
+    /**
+     * Waits tick by tick until the condition holds, checking it once at every tick boundary.
+     *
+     * @return true if the condition held within maxTicks ticks
+     */
+    public boolean awaitTicksUntil(BooleanSupplier condition, int maxTicks) {
+        long deadline = clock.getTick() + maxTicks;
+        while (!condition.getAsBoolean()) {
+            if (clock.getTick() >= deadline) {
+                return false;
+            }
+            awaitTick(clock.getTick() + 1);
+        }
+        return true;
+    }
+
+    private void awaitTick(long tick) {
+        if (!game.awaitTick(tick, SLACK_TICKS)) {
+            log.debug("Tick {} did not start in time, continuing at tick {}.", tick, clock.getTick());
+        }
+        runDue();
+    }
+
+    private static final class ScheduledAction implements Comparable<ScheduledAction> {
+        private long tick;
+        private long sequence;
+        private Runnable action;
+        private ScheduledAction nextFree;
+
+        @Override
+        public int compareTo(ScheduledAction other) {
+            int byTick = Long.compare(tick, other.tick);
+            return byTick != 0 ? byTick : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package fighter.game;
+
+import com.runemate.game.api.hybrid.entities.Npc;
+import com.runemate.game.api.hybrid.local.hud.interfaces.Equipment;
+import com.runemate.game.api.hybrid.location.Coordinate;
+import com.runemate.game.api.osrs.local.hud.interfaces.ControlPanelTab;
+import com.runemate.game.api.osrs.local.hud.interfaces.Prayer;
+import fighter.world.SceneCapture;
+import fighter.world.SceneEntity;
+
+/**
+ * Everything the bot reads from or does to the game, behind one interface. DungeonCrawler, DungeonUtils and the
+ * tasks only talk to the game through this port; RuneMateGamePort backs it with the client, and in the tests
+ * SimulatedGauntlet backs it with an in-process simulation. Interacting with scene entities goes through
+ * {@link SceneCapture#interact}.
+ */
+public interface GamePort extends SceneCapture {
+
+    // Player state
+    int getHealthPercent();
+
+    int getPrayerPoints();
+
+    boolean isPrayerActive(Prayer prayer);
+
+    boolean activatePrayer(Prayer prayer);
+
+    boolean deactivatePrayer(Prayer prayer);
+
+    // Name of the item worn in the equipment slot, or null if the slot is empty
+    String getEquippedItemName(Equipment.Slot slot);
+
+    // Number of hitsplats currently shown over the local player
+    int getPlayerHitsplatCount();
+
+    // Whether the given NPC is showing a hitsplat dealt by the local player
+    boolean hasPlayerHitsplat(SceneEntity<Npc> npc);
+
+    // Interface and input
+    boolean isTabOpen(ControlPanelTab tab);
+
+    boolean pressKey(int keyCode);
+
+    boolean releaseKey(int keyCode);
+
+    // Movement and camera
+    boolean stepTowards(Coordinate destination);
+
+    void setupCamera(int yaw, double pitch, int zoom);
+
+    void turnCameraTo(Coordinate target, int yawOffset);
+
+    // Timing
+    TickClock getTickClock();
+
+    // Blocks until the given tick has started, giving up slackTicks ticks after it was due. The only way the bot
+    // waits: tasks go through the ActionScheduler, which runs the actions that fell due at every tick it wakes on
+    boolean awaitTick(long tick, int slackTicks);
+}
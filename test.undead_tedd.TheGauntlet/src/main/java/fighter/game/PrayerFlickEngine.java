@@ -0,0 +1,205 @@
+package fighter.game;
+
+import com.runemate.game.api.osrs.local.hud.interfaces.Prayer;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Flicks a prayer once per game tick in the background, off the bot thread, while the tree goes on deciding and
+ * acting.
+ * <p>
+ * The engine's tick event calls {@link #onTickStart()}, which hands the tick's flick to the engine's own executor,
+ * so neither the event thread nor a bot thread busy acting ever holds a flick up. The flick switches the prayer on
+ * at the tick boundary and straight back off, so it counts for the tick that follows without ever being left on
+ * for a whole tick, which is what drains points. Whether to keep flicking depends on the scene, which only the bot
+ * thread reads: the condition the engine was started with is checked through the {@link ActionScheduler} once a
+ * tick, and flicking stops once it no longer holds.
+ * <p>
+ * A flick is late when the executor only got to it after the next tick had started, and a tick is missed when it
+ * started while the previous flick was still running, so it got none. Accuracy is the share of flicks that ran on
+ * their tick. Points saved compares the points actually used while flicking with what the prayer would have drained
+ * if left on. RunStats records the late flicks and missed ticks of every run. Start and stop from the bot thread;
+ * the counters can be read from any thread.
+ */
+@Log4j2(topic = "PrayerFlickEngine")
+public class PrayerFlickEngine {
+    // A protection prayer left on drains a point every 3 seconds at no prayer bonus
+    private static final int ALWAYS_ON_TICKS_PER_POINT = 5;
+
+    private final GamePort game;
+    private final ActionScheduler scheduler;
+    private final Executor executor;
+
+    // Bot thread
+    private BooleanSupplier condition;
+    private boolean checkQueued;
+    // Queued every tick, so made once rather than per tick
+    private final Runnable checkCondition = this::checkCondition;
+    private final Runnable flick = this::flick;
+    private final Runnable switchOff = this::switchOff;
+    private final Runnable resetPoints = this::resetPoints;
+
+    private volatile Prayer prayer;
+    @Getter
+    private volatile boolean running;
+    // Set by the tick event when it hands a flick over, cleared by the executor once the flick has run
+    private final AtomicBoolean flickPending = new AtomicBoolean();
+    private volatile long dueTick;
+    // Executor only
+    private int lastPrayerPoints = -1;
+
+    // Each written by one thread only: the executor, except missedTicks, which the tick event counts
+    @Getter
+    private volatile long onTimeFlicks;
+    @Getter
+    private volatile long lateFlicks;
+    @Getter
+    private volatile long missedTicks;
+    @Getter
+    private volatile long pointsUsed;
+
+    /**
+     * @param executor runs the flicks, in order; a simulator or replay that delivers ticks on the bot thread passes
+     *                 {@code Runnable::run} so the flicks stay in step with it
+     */
+    public PrayerFlickEngine(GamePort game, ActionScheduler scheduler, Executor executor) {
+        this.game = game;
+        this.scheduler = scheduler;
+        this.executor = executor;
+    }
+
+    // A single daemon thread of its own, so a slow prayer interface never delays the engine's event thread
+    public static ExecutorService newFlickExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PrayerFlickEngine");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Starts flicking from the next tick for as long as the condition holds; switching prayers keeps the rhythm
+    public void start(Prayer prayer, BooleanSupplier condition) {
+        this.prayer = prayer;
+        this.condition = condition;
+        if (!checkQueued) {
+            queueCheck();
+        }
+        if (running) {
+            return;
+        }
+        executor.execute(resetPoints);
+        running = true;
+        log.info("Flicking {}", prayer);
+    }
+
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        // After any flick still queued, so the prayer is not switched back on behind our back
+        executor.execute(switchOff);
+        log.info("Stopped flicking {}", prayer);
+    }
+
+    // Called from the engine's tick event, right after the tick clock has moved on
+    public void onTickStart() {
+        if (!running) {
+            return;
+        }
+        if (!flickPending.compareAndSet(false, true)) {
+            missedTicks++;
+            return;
+        }
+        dueTick = game.getTickClock().getTick();
+        executor.execute(flick);
+    }
+
+    public long getFlicks() {
+        return onTimeFlicks + lateFlicks;
+    }
+
+    // Share of flicks that ran on the tick they were meant for, 1 before any flick
+    public double getAccuracy() {
+        long flicks = getFlicks();
+        return flicks == 0 ? 1.0 : (double) onTimeFlicks / flicks;
+    }
+
+    // What leaving the prayer on for the same ticks would have drained, less what flicking actually used
+    public long getPointsSaved() {
+        return (getFlicks() + missedTicks) / ALWAYS_ON_TICKS_PER_POINT - pointsUsed;
+    }
+
+    public void logSummary() {
+        if (getFlicks() == 0) {
+            return;
+        }
+        log.info("Prayer flicks: {}, {}% on time, {} ticks missed, {} points used, about {} points saved.",
+                getFlicks(), String.format("%.1f", getAccuracy() * 100), missedTicks, pointsUsed, getPointsSaved());
+    }
+
+    private void queueCheck() {
+        checkQueued = true;
+        scheduler.runNextTick(checkCondition);
+    }
+
+    // Bot thread, once a tick while flicking
+    private void checkCondition() {
+        checkQueued = false;
+        if (!running) {
+            return;
+        }
+        if (!condition.getAsBoolean()) {
+            stop();
+            return;
+        }
+        queueCheck();
+    }
+
+    // Executor
+    private void flick() {
+        try {
+            if (!running) {
+                return;
+            }
+            if (game.getTickClock().getTick() == dueTick) {
+                onTimeFlicks++;
+            } else {
+                lateFlicks++;
+            }
+
+            // Only drops count as used; a potion dose in between is not the prayer's doing
+            int points = game.getPrayerPoints();
+            if (lastPrayerPoints >= 0 && points < lastPrayerPoints) {
+                pointsUsed += lastPrayerPoints - points;
+            }
+            lastPrayerPoints = points;
+
+            // On at the boundary and straight off again: it counts for this tick without draining through it
+            Prayer current = prayer;
+            game.activatePrayer(current);
+            game.deactivatePrayer(current);
+        } finally {
+            flickPending.set(false);
+        }
+    }
+
+    // Executor
+    private void switchOff() {
+        Prayer current = prayer;
+        if (!running && game.isPrayerActive(current)) {
+            game.deactivatePrayer(current);
+        }
+    }
+
+    // Executor
+    private void resetPoints() {
+        lastPrayerPoints = game.getPrayerPoints();
+    }
+}
@@ -0,0 +1,130 @@
+package fighter.game;
+
+import com.runemate.game.api.hybrid.entities.Npc;
+import com.runemate.game.api.hybrid.entities.Player;
+import com.runemate.game.api.hybrid.entities.status.Hitsplat;
+import com.runemate.game.api.hybrid.input.Keyboard;
+import com.runemate.game.api.hybrid.local.Camera;
+import com.runemate.game.api.hybrid.local.hud.interfaces.Equipment;
+import com.runemate.game.api.hybrid.local.hud.interfaces.Health;
+import com.runemate.game.api.hybrid.local.hud.interfaces.SpriteItem;
+import com.runemate.game.api.hybrid.entities.definitions.ItemDefinition;
+import com.runemate.game.api.hybrid.location.Coordinate;
+import com.runemate.game.api.hybrid.location.navigation.cognizant.ScenePath;
+import com.runemate.game.api.hybrid.region.Players;
+import com.runemate.game.api.osrs.local.hud.interfaces.ControlPanelTab;
+import com.runemate.game.api.osrs.local.hud.interfaces.Prayer;
+import com.runemate.pathfinder.api.MouseCamera;
+import fighter.world.RuneMateSceneCapture;
+import fighter.world.SceneEntity;
+import fighter.world.WorldSnapshot;
+
+import java.util.List;
+
+// GamePort backed by the RuneMate client statics
+public class RuneMateGamePort implements GamePort {
+    private final RuneMateSceneCapture sceneCapture = new RuneMateSceneCapture();
+    // Ticked from DungeonCrawler.onTickStart on the engine's event thread
+    private final TickClock tickClock = new TickClock();
+
+    @Override
+    public void capture(WorldSnapshot snapshot) {
+        sceneCapture.capture(snapshot);
+    }
+
+    @Override
+    public int getHealthPercent() {
+        return Health.getCurrentPercent();
+    }
+
+    @Override
+    public int getPrayerPoints() {
+        return Prayer.getPoints();
+    }
+
+    @Override
+    public boolean isPrayerActive(Prayer prayer) {
+        return prayer.isActivated();
+    }
+
+    @Override
+    public boolean activatePrayer(Prayer prayer) {
+        return prayer.activate();
+    }
+
+    @Override
+    public boolean deactivatePrayer(Prayer prayer) {
+        return prayer.deactivate();
+    }
+
+    @Override
+    public String getEquippedItemName(Equipment.Slot slot) {
+        SpriteItem equipped = Equipment.getItemIn(slot);
+        ItemDefinition definition = equipped != null ? equipped.getDefinition() : null;
+        return definition != null ? definition.getName() : null;
+    }
+
+    @Override
+    public int getPlayerHitsplatCount() {
+        Player player = Players.getLocal();
+        return player != null ? player.getHitsplats().size() : 0;
+    }
+
+    @Override
+    public boolean hasPlayerHitsplat(SceneEntity<Npc> npc) {
+        if (npc.getHandle() == null) {
+            return false;
+        }
+        List<Hitsplat> hitsplats = npc.getHandle().getHitsplats();
+        for (int i = 0; i < hitsplats.size(); i++) {
+            Hitsplat hitsplat = hitsplats.get(i);
+            if (hitsplat.isValid() && hitsplat.getClassification().isPlayers()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isTabOpen(ControlPanelTab tab) {
+        return tab.isOpen();
+    }
+
+    @Override
+    public boolean pressKey(int keyCode) {
+        return Keyboard.pressKey(keyCode);
+    }
+
+    @Override
+    public boolean releaseKey(int keyCode) {
+        return Keyboard.releaseKey(keyCode);
+    }
+
+    @Override
+    public boolean stepTowards(Coordinate destination) {
+        ScenePath path = ScenePath.buildTo(destination);
+        return path != null && path.step();
+    }
+
+    @Override
+    public void setupCamera(int yaw, double pitch, int zoom) {
+        MouseCamera.turnTo(yaw, pitch);
+        Camera.setZoomSetting(zoom, 5);
+    }
+
+    @Override
+    public void turnCameraTo(Coordinate target, int yawOffset) {
+        Camera.turnTo(target, yawOffset);
+    }
+
+    @Override
+    public TickClock getTickClock() {
+        return tickClock;
+    }
+
+    @Override
+    public boolean awaitTick(long tick, int slackTicks) {
+        long ticksAway = Math.max(0, tick - tickClock.getTick());
+        return tickClock.parkUntil(tick, (ticksAway + slackTicks) * TickClock.TICK_NANOS);
+    }
+}
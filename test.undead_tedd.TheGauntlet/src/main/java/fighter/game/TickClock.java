@@ -0,0 +1,57 @@
+package fighter.game;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Counts server ticks as they are reported by the port (the engine's tick event, or the simulator), and lets the
+ * bot thread sleep until a given tick has started instead of for a guessed number of milliseconds.
+ */
+public class TickClock {
+    public static final long TICK_NANOS = 600_000_000L;
+
+    private volatile long tick;
+    private volatile long tickStartNanos = System.nanoTime();
+    private volatile Thread waiter;
+
+    // Called once at the start of every tick, from whichever thread delivers tick events
+    public void onTick() {
+        tickStartNanos = System.nanoTime();
+        tick++;
+        Thread thread = waiter;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    // How far into the current tick we are, e.g. to skip an action that can no longer make this tick
+    public long getNanosIntoTick() {
+        return System.nanoTime() - tickStartNanos;
+    }
+
+    /**
+     * Parks the calling thread until the given tick has started. Gives up after timeoutNanos so a missed tick event
+     * only costs one tick's worth of time rather than hanging the bot.
+     *
+     * @return true if the tick was reached, false on timeout or interrupt
+     */
+    public boolean parkUntil(long target, long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        waiter = Thread.currentThread();
+        try {
+            while (tick < target) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+            return true;
+        } finally {
+            waiter = null;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package fighter.journal;
+
+import lombok.Getter;
+
+// The branch the root task chose on a loop; the ordinal is what the journal stores, so only ever append new values
+public enum Decision {
+    IDLE("Idle"),
+    STARTING_ROOM_CHECK("Starting room"),
+    CRAFTING("Crafting"),
+    COMBAT("Combat"),
+    GATHERING("Gathering"),
+    TELEPORT("Teleport"),
+    TRAVERSAL("Traversal"),
+    NO_VALID_TASK("Recovery"),
+    LOW_HEALTH("Recovery"),
+    BOSS_FIGHT("Boss");
+
+    private static final Decision[] VALUES = values();
+
+    // Debug console topic for the statuses published while this branch runs
+    @Getter
+    private final String topic;
+
+    Decision(String topic) {
+        this.topic = topic;
+    }
+
+    public static Decision fromOrdinal(int ordinal) {
+        return ordinal >= 0 && ordinal < VALUES.length ? VALUES[ordinal] : null;
+    }
+}
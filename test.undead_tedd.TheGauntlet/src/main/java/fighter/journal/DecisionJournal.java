@@ -0,0 +1,130 @@
+package fighter.journal;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Append-only binary journal of every decision the tree makes, written through a memory-mapped file so a record
+ * costs a handful of stores into the page cache instead of a formatted line and a write call.
+ * <p>
+ * The file is a 64-byte header followed by fixed-width {@link JournalRecord}s. The file is mapped one segment at a
+ * time and grows a segment at a time. The record count in the header is only bumped after a record is complete, so
+ * a run that dies mid-write still leaves a readable journal. Only the bot thread appends.
+ *
+ * <pre>
+ *  0 int  magic "DCJ1"    4 short version    6 short record size    8 long start epoch millis    16 long record count
+ * </pre>
+ */
+@Log4j2(topic = "DecisionJournal")
+public class DecisionJournal implements AutoCloseable {
+    public static final int MAGIC = 0x44434A31;
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+    static final int RECORDS_PER_SEGMENT = 16384; // 1 MiB per mapping
+    static final long SEGMENT_SIZE = (long) RECORDS_PER_SEGMENT * JournalRecord.SIZE;
+    static final int COUNT_OFFSET = 16;
+
+    private static final DateTimeFormatter FILE_NAME = DateTimeFormatter.ofPattern("'decisions-'yyyyMMdd-HHmmss'.bin'");
+
+    @Getter
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private MappedByteBuffer segment;
+    private int slot = RECORDS_PER_SEGMENT; // Forces the first segment to be mapped on the first append
+    @Getter
+    private long recordCount;
+    private boolean failed;
+
+    private DecisionJournal(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        boolean fresh = channel.size() < HEADER_SIZE;
+        this.header = map(0, HEADER_SIZE);
+        if (fresh) {
+            header.putInt(0, MAGIC);
+            header.putShort(4, VERSION);
+            header.putShort(6, (short) JournalRecord.SIZE);
+            header.putLong(8, System.currentTimeMillis());
+            header.putLong(COUNT_OFFSET, 0);
+        } else if (header.getInt(0) != MAGIC || header.getShort(6) != JournalRecord.SIZE) {
+            channel.close();
+            throw new IOException("Not a decision journal: " + path);
+        } else {
+            // Appending to an existing journal carries on after its last complete record
+            recordCount = header.getLong(COUNT_OFFSET);
+            long segmentIndex = recordCount / RECORDS_PER_SEGMENT;
+            segment = map(HEADER_SIZE + segmentIndex * SEGMENT_SIZE, SEGMENT_SIZE);
+            slot = (int) (recordCount % RECORDS_PER_SEGMENT);
+        }
+    }
+
+    public static DecisionJournal open(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return new DecisionJournal(path);
+    }
+
+    // A fresh journal per session, named after the time it was started
+    public static DecisionJournal openForSession(Path directory) throws IOException {
+        return open(directory.resolve(LocalDateTime.now().format(FILE_NAME)));
+    }
+
+    /**
+     * Appends a record. Never throws: if the file cannot be grown the journal stops recording and says so once,
+     * since losing the post-mortem is better than stopping the bot.
+     */
+    public void append(JournalRecord record) {
+        if (failed) {
+            return;
+        }
+        try {
+            if (slot == RECORDS_PER_SEGMENT) {
+                segment = map(HEADER_SIZE + (recordCount / RECORDS_PER_SEGMENT) * SEGMENT_SIZE, SEGMENT_SIZE);
+                slot = 0;
+            }
+        } catch (IOException e) {
+            failed = true;
+            log.warn("Decision journal {} could not grow; journaling stopped after {} records.", path, recordCount, e);
+            return;
+        }
+        record.writeTo(segment, slot * JournalRecord.SIZE);
+        slot++;
+        recordCount++;
+        header.putLong(COUNT_OFFSET, recordCount);
+    }
+
+    // Flushes the mapped pages to disk; only on close, so the bot thread never waits on the disk while running
+    @Override
+    public void close() {
+        try {
+            if (segment != null) {
+                segment.force();
+            }
+            header.force();
+            channel.close();
+            log.info("Decision journal {} closed with {} records.", path, recordCount);
+        } catch (IOException e) {
+            log.warn("Failed to close decision journal {}", path, e);
+        }
+    }
+
+    private MappedByteBuffer map(long position, long size) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+}
@@ -0,0 +1,47 @@
+package fighter.journal;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Prints a decision journal as CSV for post-mortems, e.g. {@code JournalDump journal/decisions-20240101-120000.bin}.
+ * An optional second and third argument limit the output to a range of records.
+ */
+public class JournalDump {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: JournalDump <journal> [from] [to]");
+            return;
+        }
+        Path path = Paths.get(args[0]);
+        try (JournalReader reader = new JournalReader(path);
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out))) {
+            long from = args.length > 1 ? Long.parseLong(args[1]) : 0;
+            long to = args.length > 2 ? Math.min(Long.parseLong(args[2]), reader.getRecordCount())
+                    : reader.getRecordCount();
+
+            out.write("index,tick,epochMillis,decision,decisionMicros,loopMicros,phase,hp,prayer,x,y,plane,"
+                    + "crystallineShards,corruptedShards,weaponFrames,paddlefish,crystalOre,phrenBark,linumTirinium,"
+                    + "grymLeaf,orbs,bowstrings");
+            out.newLine();
+
+            JournalRecord record = new JournalRecord();
+            reader.seek(from);
+            for (long index = from; index < to && reader.next(record); index++) {
+                out.write(index + "," + record.getTick() + "," + record.getEpochMillis() + "," + record.getDecision()
+                        + "," + record.getDecisionNanos() / 1000 + "," + record.getLoopNanos() / 1000 + ","
+                        + record.getCraftingPhase() + "," + record.getHealthPercent() + "," + record.getPrayerPoints()
+                        + "," + record.getX() + "," + record.getY() + "," + record.getPlane() + ","
+                        + record.getCrystallineShards() + "," + record.getCorruptedShards() + ","
+                        + record.getWeaponFrames() + "," + record.getPaddlefish() + "," + record.getCrystalOre() + ","
+                        + record.getPhrenBark() + "," + record.getLinumTirinium() + "," + record.getGrymLeaf() + ","
+                        + record.getOrbs() + "," + record.getBowstrings());
+                out.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package fighter.journal;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a decision journal back in order, one segment mapping at a time, decoding into a caller-owned record.
+ * Only records counted in the header are read, so a journal from a run that died mid-write is still safe to open.
+ */
+public class JournalReader implements AutoCloseable {
+    private final FileChannel channel;
+    @Getter
+    private final long startEpochMillis;
+    @Getter
+    private final long recordCount;
+    private ByteBuffer segment;
+    private long segmentIndex = -1;
+    private long next;
+
+    public JournalReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, DecisionJournal.HEADER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt(0) != DecisionJournal.MAGIC || header.getShort(6) != JournalRecord.SIZE) {
+            channel.close();
+            throw new IOException("Not a decision journal: " + path);
+        }
+        startEpochMillis = header.getLong(8);
+        // Never trust the count past what was actually written to the file
+        long stored = (channel.size() - DecisionJournal.HEADER_SIZE) / JournalRecord.SIZE;
+        recordCount = Math.min(header.getLong(DecisionJournal.COUNT_OFFSET), Math.max(0, stored));
+    }
+
+    // Decodes the next record into the given one; false once the journal is exhausted
+    public boolean next(JournalRecord record) throws IOException {
+        if (next >= recordCount) {
+            return false;
+        }
+        read(next++, record);
+        return true;
+    }
+
+    public void read(long index, JournalRecord record) throws IOException {
+        long wanted = index / DecisionJournal.RECORDS_PER_SEGMENT;
+        if (wanted != segmentIndex) {
+            long position = DecisionJournal.HEADER_SIZE + wanted * DecisionJournal.SEGMENT_SIZE;
+            long size = Math.min(DecisionJournal.SEGMENT_SIZE, channel.size() - position);
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+            segmentIndex = wanted;
+        }
+        record.readFrom(segment, (int) (index % DecisionJournal.RECORDS_PER_SEGMENT) * JournalRecord.SIZE);
+    }
+
+    // Moves the cursor used by next(), e.g. to replay from the middle of a run
+    public void seek(long index) {
+        next = index;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
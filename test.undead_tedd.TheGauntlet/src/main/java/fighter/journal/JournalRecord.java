@@ -0,0 +1,105 @@
+package fighter.journal;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One loop of the decision tree as it is stored in the journal: a fixed 64-byte little-endian record.
+ * <p>
+ * Instances are reusable holders; the writer fills one per loop and the reader decodes into one, so neither side
+ * allocates per record. Counters are stored as shorts, which is plenty for anything the Gauntlet hands out.
+ *
+ * <pre>
+ *  0 long  tick              32 byte  decision          42 short crystalline shards
+ *  8 long  epoch millis      33 byte  crafting phase    44 short corrupted shards
+ * 16 long  decision nanos    34 byte  health percent    46 short weapon frames
+ * 24 long  loop nanos        35 byte  plane             48 short paddlefish
+ *                            36 short prayer points     50 short crystal ore
+ *                            38 short x                 52 short phren bark
+ *                            40 short y                 54 short linum tirinium
+ *                                                       56 short grym leaf
+ *                                                       58 short orbs
+ *                                                       60 short bowstrings
+ *                                                       62 short reserved
+ * </pre>
+ * Position is -1, -1, -1 when the player could not be read.
+ */
+@Getter
+@Setter
+public class JournalRecord {
+    public static final int SIZE = 64;
+
+    private long tick;
+    private long epochMillis;
+    // Time spent choosing the branch, and the whole loop before it (the previous leaf's execution included)
+    private long decisionNanos;
+    private long loopNanos;
+    private Decision decision;
+    private int craftingPhase;
+    private int healthPercent;
+    private int prayerPoints;
+    private int x;
+    private int y;
+    private int plane;
+    private int crystallineShards;
+    private int corruptedShards;
+    private int weaponFrames;
+    private int paddlefish;
+    private int crystalOre;
+    private int phrenBark;
+    private int linumTirinium;
+    private int grymLeaf;
+    private int orbs;
+    private int bowstrings;
+
+    void writeTo(ByteBuffer buffer, int offset) {
+        buffer.putLong(offset, tick);
+        buffer.putLong(offset + 8, epochMillis);
+        buffer.putLong(offset + 16, decisionNanos);
+        buffer.putLong(offset + 24, loopNanos);
+        buffer.put(offset + 32, (byte) decision.ordinal());
+        buffer.put(offset + 33, (byte) craftingPhase);
+        buffer.put(offset + 34, (byte) healthPercent);
+        buffer.put(offset + 35, (byte) plane);
+        buffer.putShort(offset + 36, (short) prayerPoints);
+        buffer.putShort(offset + 38, (short) x);
+        buffer.putShort(offset + 40, (short) y);
+        buffer.putShort(offset + 42, (short) crystallineShards);
+        buffer.putShort(offset + 44, (short) corruptedShards);
+        buffer.putShort(offset + 46, (short) weaponFrames);
+        buffer.putShort(offset + 48, (short) paddlefish);
+        buffer.putShort(offset + 50, (short) crystalOre);
+        buffer.putShort(offset + 52, (short) phrenBark);
+        buffer.putShort(offset + 54, (short) linumTirinium);
+        buffer.putShort(offset + 56, (short) grymLeaf);
+        buffer.putShort(offset + 58, (short) orbs);
+        buffer.putShort(offset + 60, (short) bowstrings);
+        buffer.putShort(offset + 62, (short) 0);
+    }
+
+    void readFrom(ByteBuffer buffer, int offset) {
+        tick = buffer.getLong(offset);
+        epochMillis = buffer.getLong(offset + 8);
+        decisionNanos = buffer.getLong(offset + 16);
+        loopNanos = buffer.getLong(offset + 24);
+        decision = Decision.fromOrdinal(buffer.get(offset + 32));
+        craftingPhase = buffer.get(offset + 33);
+        healthPercent = buffer.get(offset + 34);
+        plane = buffer.get(offset + 35);
+        prayerPoints = buffer.getShort(offset + 36);
+        x = buffer.getShort(offset + 38);
+        y = buffer.getShort(offset + 40);
+        crystallineShards = buffer.getShort(offset + 42);
+        corruptedShards = buffer.getShort(offset + 44);
+        weaponFrames = buffer.getShort(offset + 46);
+        paddlefish = buffer.getShort(offset + 48);
+        crystalOre = buffer.getShort(offset + 50);
+        phrenBark = buffer.getShort(offset + 52);
+        linumTirinium = buffer.getShort(offset + 54);
+        grymLeaf = buffer.getShort(offset + 56);
+        orbs = buffer.getShort(offset + 58);
+        bowstrings = buffer.getShort(offset + 60);
+    }
+}
@@ -0,0 +1,217 @@
+package fighter.journal;
+
+import com.runemate.game.api.hybrid.location.Coordinate;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * The in-run state a restarted client needs to pick a Gauntlet attempt back up: crafting phase, crafted items,
+ * starting-room progress, and the rooms already scanned and visited. Saved to a small memory-mapped file, so a save
+ * is a few hundred bytes copied into the page cache, and reloaded when the bot starts.
+ * <p>
+ * The file holds two slots and each save goes to the one not holding the latest state, followed by a CRC. A save
+ * torn by a crash fails its CRC on load and the previous slot is used instead. Resource counts are not saved: they
+ * follow the inventory, and the first capture after a restart reports the whole inventory again.
+ *
+ * <pre>
+ *  header:  0 int magic "DCK1"    4 short version    6 short slot size
+ *  slot:    0 long sequence    8 long saved epoch millis    16 int payload length    20 payload    then int CRC32
+ * </pre>
+ */
+@Log4j2(topic = "RunCheckpoint")
+public class RunCheckpoint implements AutoCloseable {
+    public static final int MAGIC = 0x44434B31;
+    public static final short VERSION = 1;
+    // More rooms than a Gauntlet floor has, so a list never has to be cut short
+    public static final int MAX_ROOMS = 64;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 1024;
+    private static final int PAYLOAD_OFFSET = 20;
+    private static final int FILE_SIZE = HEADER_SIZE + 2 * SLOT_SIZE;
+
+    /**
+     * What is saved and restored; reused between saves so a save allocates nothing.
+     */
+    @Getter
+    @Setter
+    public static class State {
+        private int craftingPhase;
+        private int craftedItems; // ResourceTracker's crafted flags as bits
+        private boolean startingRoomChecked;
+        private int startingRoomProgress; // StartingRoomCheckTask's flags as bits
+        private final List<Coordinate> scannedRooms = new ArrayList<>();
+        private final List<Coordinate> visitedRooms = new ArrayList<>();
+        private long savedAtMillis;
+
+        public void clear() {
+            craftingPhase = 1;
+            craftedItems = 0;
+            startingRoomChecked = false;
+            startingRoomProgress = 0;
+            scannedRooms.clear();
+            visitedRooms.clear();
+            savedAtMillis = 0;
+        }
+    }
+
+    @Getter
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+    private long sequence;
+
+    private RunCheckpoint(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        boolean fresh = channel.size() < FILE_SIZE;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (fresh || buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+            // A new file, or one from an older layout: start over rather than misread it
+            for (int i = 0; i < FILE_SIZE; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.putInt(0, MAGIC);
+            buffer.putShort(4, VERSION);
+            buffer.putShort(6, (short) SLOT_SIZE);
+        }
+        sequence = Math.max(slotSequence(0), slotSequence(1));
+    }
+
+    public static RunCheckpoint open(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return new RunCheckpoint(path);
+    }
+
+    /**
+     * Reads the latest intact save into state. Returns false, leaving state cleared, if there is none or it is older
+     * than maxAgeMillis, since a checkpoint from an attempt that has long ended is worse than starting clean.
+     */
+    public boolean load(State state, long maxAgeMillis) {
+        state.clear();
+        int newest = -1;
+        for (int slot = 0; slot < 2; slot++) {
+            if (isIntact(slot) && (newest < 0 || slotSequence(slot) > slotSequence(newest))) {
+                newest = slot;
+            }
+        }
+        if (newest < 0) {
+            return false;
+        }
+        int base = HEADER_SIZE + newest * SLOT_SIZE;
+        long savedAt = buffer.getLong(base + 8);
+        if (System.currentTimeMillis() - savedAt > maxAgeMillis) {
+            log.info("Checkpoint {} is from an earlier attempt; starting clean.", path);
+            return false;
+        }
+
+        int position = base + PAYLOAD_OFFSET;
+        state.setCraftingPhase(buffer.get(position));
+        state.setStartingRoomChecked(buffer.get(position + 1) != 0);
+        state.setStartingRoomProgress(buffer.get(position + 2));
+        state.setCraftedItems(buffer.getInt(position + 4));
+        position = readRooms(position + 8, state.getScannedRooms());
+        readRooms(position, state.getVisitedRooms());
+        state.setSavedAtMillis(savedAt);
+        return true;
+    }
+
+    // Copies the state into the mapped file; nothing here waits on the disk
+    public void save(State state) {
+        long next = sequence + 1;
+        int base = HEADER_SIZE + (int) (next & 1) * SLOT_SIZE;
+        int position = base + PAYLOAD_OFFSET;
+        buffer.put(position, (byte) state.getCraftingPhase());
+        buffer.put(position + 1, (byte) (state.isStartingRoomChecked() ? 1 : 0));
+        buffer.put(position + 2, (byte) state.getStartingRoomProgress());
+        buffer.put(position + 3, (byte) 0);
+        buffer.putInt(position + 4, state.getCraftedItems());
+        position = writeRooms(position + 8, state.getScannedRooms());
+        position = writeRooms(position, state.getVisitedRooms());
+
+        int length = position - (base + PAYLOAD_OFFSET);
+        buffer.putLong(base, next);
+        buffer.putLong(base + 8, System.currentTimeMillis());
+        buffer.putInt(base + 16, length);
+        buffer.putInt(position, checksum(base, PAYLOAD_OFFSET + length));
+        sequence = next;
+    }
+
+    // Flushes to disk; only on close, a client crash leaves the mapped pages with the OS to write out
+    @Override
+    public void close() {
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close checkpoint {}", path, e);
+        }
+    }
+
+    private int writeRooms(int position, Collection<Coordinate> rooms) {
+        int count = Math.min(rooms.size(), MAX_ROOMS);
+        buffer.putShort(position, (short) count);
+        position += 2;
+        int written = 0;
+        for (Coordinate room : rooms) {
+            if (written++ == count) {
+                break;
+            }
+            buffer.putShort(position, (short) room.getX());
+            buffer.putShort(position + 2, (short) room.getY());
+            buffer.put(position + 4, (byte) room.getPlane());
+            position += 5;
+        }
+        return position;
+    }
+
+    private int readRooms(int position, List<Coordinate> into) {
+        int count = buffer.getShort(position);
+        position += 2;
+        for (int i = 0; i < count; i++) {
+            into.add(new Coordinate(buffer.getShort(position), buffer.getShort(position + 2), buffer.get(position + 4)));
+            position += 5;
+        }
+        return position;
+    }
+
+    private boolean isIntact(int slot) {
+        int base = HEADER_SIZE + slot * SLOT_SIZE;
+        int length = buffer.getInt(base + 16);
+        if (buffer.getLong(base) == 0 || length < 0 || PAYLOAD_OFFSET + length + 4 > SLOT_SIZE) {
+            return false;
+        }
+        return buffer.getInt(base + PAYLOAD_OFFSET + length) == checksum(base, PAYLOAD_OFFSET + length);
+    }
+
+    private long slotSequence(int slot) {
+        return isIntact(slot) ? buffer.getLong(HEADER_SIZE + slot * SLOT_SIZE) : 0;
+    }
+
+    private int checksum(int offset, int length) {
+        crc.reset();
+        for (int i = 0; i < length; i++) {
+            crc.update(buffer.get(offset + i));
+        }
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,332 @@
+package fighter.replay;
+
+import com.runemate.game.api.hybrid.entities.GameObject;
+import com.runemate.game.api.hybrid.entities.GroundItem;
+import com.runemate.game.api.hybrid.entities.Npc;
+import com.runemate.game.api.hybrid.local.hud.interfaces.Equipment;
+import com.runemate.game.api.hybrid.local.hud.interfaces.SpriteItem;
+import com.runemate.game.api.hybrid.location.Coordinate;
+import com.runemate.game.api.osrs.local.hud.interfaces.ControlPanelTab;
+import com.runemate.game.api.osrs.local.hud.interfaces.Prayer;
+import fighter.game.GamePort;
+import fighter.game.TickClock;
+import fighter.world.SceneEntity;
+import fighter.world.WorldSnapshot;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * GamePort decorator that passes every call through to the real game and writes what the bot observed to an
+ * observation trace, which ReplayGamePort in the test sources can feed back to the tree later.
+ * <p>
+ * Enabled with {@code -Ddungeoncrawler.record=<directory>}; the trace sits next to the session's decision journal
+ * and the two are replayed together. The trace is written through a large buffer and only flushed when the buffer
+ * fills or the bot stops. Only the bot thread calls the port, so the writer needs no locking.
+ */
+@Log4j2(topic = "RecordingGamePort")
+public class RecordingGamePort implements GamePort {
+    public static final String RECORD_PROPERTY = "dungeoncrawler.record";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final DateTimeFormatter FILE_NAME = DateTimeFormatter.ofPattern("'trace-'yyyyMMdd-HHmmss'.bin'");
+
+    private final GamePort delegate;
+    @Getter
+    private final Path path;
+    private final DataOutputStream out;
+    private long writtenTick = -1;
+    private boolean failed;
+
+    public RecordingGamePort(GamePort delegate, Path path) throws IOException {
+        this.delegate = delegate;
+        this.path = path;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE));
+        out.writeInt(TraceEvent.MAGIC);
+        out.writeInt(TraceEvent.VERSION);
+        log.info("Recording observations to {}", path);
+    }
+
+    // Wraps the port in a recorder when recording was asked for, otherwise returns it unchanged
+    public static GamePort wrapIfEnabled(GamePort port) {
+        String directory = System.getProperty(RECORD_PROPERTY);
+        if (directory == null || directory.isEmpty()) {
+            return port;
+        }
+        try {
+            return new RecordingGamePort(port, Paths.get(directory).resolve(LocalDateTime.now().format(FILE_NAME)));
+        } catch (IOException e) {
+            log.warn("Could not start recording to {}; running without a trace.", directory, e);
+            return port;
+        }
+    }
+
+    public void close() {
+        try {
+            out.close();
+            log.info("Observation trace {} closed.", path);
+        } catch (IOException e) {
+            log.warn("Failed to close observation trace {}", path, e);
+        }
+    }
+
+    @Override
+    public void capture(WorldSnapshot snapshot) {
+        delegate.capture(snapshot);
+        try {
+            begin(TraceEvent.CAPTURE);
+            writeScene(snapshot);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    // Entities are bound to this port by the snapshot, so interactions come back through here
+    @Override
+    public boolean interact(SceneEntity<?> entity, String action) {
+        boolean result = delegate.interact(entity, action);
+        try {
+            begin(TraceEvent.INTERACT);
+            out.writeUTF(String.valueOf(entity.getName()));
+            out.writeUTF(action);
+            out.writeBoolean(result);
+        } catch (IOException e) {
+            fail(e);
+        }
+        return result;
+    }
+
+    @Override
+    public int getHealthPercent() {
+        return recordInt(TraceEvent.HEALTH, delegate.getHealthPercent());
+    }
+
+    @Override
+    public int getPrayerPoints() {
+        return recordInt(TraceEvent.PRAYER_POINTS, delegate.getPrayerPoints());
+    }
+
+    @Override
+    public boolean isPrayerActive(Prayer prayer) {
+        return recordBoolean(TraceEvent.PRAYER_ACTIVE, delegate.isPrayerActive(prayer));
+    }
+
+    @Override
+    public boolean activatePrayer(Prayer prayer) {
+        return recordBoolean(TraceEvent.ACTIVATE_PRAYER, delegate.activatePrayer(prayer));
+    }
+
+    @Override
+    public boolean deactivatePrayer(Prayer prayer) {
+        return recordBoolean(TraceEvent.DEACTIVATE_PRAYER, delegate.deactivatePrayer(prayer));
+    }
+
+    @Override
+    public String getEquippedItemName(Equipment.Slot slot) {
+        String name = delegate.getEquippedItemName(slot);
+        try {
+            begin(TraceEvent.EQUIPPED_ITEM);
+            out.writeByte(slot.ordinal());
+            writeNullableString(name);
+        } catch (IOException e) {
+            fail(e);
+        }
+        return name;
+    }
+
+    @Override
+    public int getPlayerHitsplatCount() {
+        return recordInt(TraceEvent.HITSPLAT_COUNT, delegate.getPlayerHitsplatCount());
+    }
+
+    @Override
+    public boolean hasPlayerHitsplat(SceneEntity<Npc> npc) {
+        return recordBoolean(TraceEvent.HAS_HITSPLAT, delegate.hasPlayerHitsplat(npc));
+    }
+
+    @Override
+    public boolean isTabOpen(ControlPanelTab tab) {
+        return recordBoolean(TraceEvent.TAB_OPEN, delegate.isTabOpen(tab));
+    }
+
+    @Override
+    public boolean pressKey(int keyCode) {
+        return recordBoolean(TraceEvent.PRESS_KEY, delegate.pressKey(keyCode));
+    }
+
+    @Override
+    public boolean releaseKey(int keyCode) {
+        return recordBoolean(TraceEvent.RELEASE_KEY, delegate.releaseKey(keyCode));
+    }
+
+    @Override
+    public boolean stepTowards(Coordinate destination) {
+        return recordBoolean(TraceEvent.STEP_TOWARDS, delegate.stepTowards(destination));
+    }
+
+    @Override
+    public void setupCamera(int yaw, double pitch, int zoom) {
+        delegate.setupCamera(yaw, pitch, zoom);
+        record(TraceEvent.SETUP_CAMERA);
+    }
+
+    @Override
+    public void turnCameraTo(Coordinate target, int yawOffset) {
+        delegate.turnCameraTo(target, yawOffset);
+        record(TraceEvent.TURN_CAMERA);
+    }
+
+    @Override
+    public TickClock getTickClock() {
+        return delegate.getTickClock();
+    }
+
+    @Override
+    public boolean awaitTick(long tick, int slackTicks) {
+        return recordBoolean(TraceEvent.AWAIT_TICK, delegate.awaitTick(tick, slackTicks));
+    }
+
+    private void record(byte code) {
+        try {
+            begin(code);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private int recordInt(byte code, int value) {
+        try {
+            begin(code);
+            out.writeInt(value);
+        } catch (IOException e) {
+            fail(e);
+        }
+        return value;
+    }
+
+    private boolean recordBoolean(byte code, boolean value) {
+        try {
+            begin(code);
+            out.writeBoolean(value);
+        } catch (IOException e) {
+            fail(e);
+        }
+        return value;
+    }
+
+    // Starts an event, preceded by a TICK if the tick has moved on since the last event
+    private void begin(byte code) throws IOException {
+        if (failed) {
+            throw new IOException("Recording stopped");
+        }
+        long tick = delegate.getTickClock().getTick();
+        if (tick != writtenTick) {
+            out.writeByte(TraceEvent.TICK);
+            out.writeLong(tick);
+            writtenTick = tick;
+        }
+        out.writeByte(code);
+    }
+
+    private void fail(IOException e) {
+        if (!failed) {
+            failed = true;
+            log.warn("Observation trace {} could not be written; recording stopped.", path, e);
+        }
+    }
+
+    /**
+     * Scene layout: player position and moving flag, then counted lists of npcs (id, name, position, health percent
+     * as a byte, animation id), objects (id, name, position, actions), ground items (id, name, position, quantity),
+     * inventory items (id, name, quantity) and spot animation positions. Positions and names are nullable.
+     */
+    void writeScene(WorldSnapshot snapshot) throws IOException {
+        writePosition(snapshot.getPlayerPosition());
+        out.writeBoolean(snapshot.isPlayerMoving());
+
+        List<SceneEntity<Npc>> npcs = snapshot.getNpcs();
+        out.writeShort(npcs.size());
+        for (int i = 0; i < npcs.size(); i++) {
+            SceneEntity<Npc> npc = npcs.get(i);
+            out.writeInt(npc.getId());
+            writeNullableString(npc.getName());
+            writePosition(npc.getPosition());
+            out.writeByte(npc.getHealthPercent());
+            out.writeInt(npc.getAnimationId());
+        }
+
+        List<SceneEntity<GameObject>> objects = snapshot.getObjects();
+        out.writeShort(objects.size());
+        for (int i = 0; i < objects.size(); i++) {
+            SceneEntity<GameObject> object = objects.get(i);
+            out.writeInt(object.getId());
+            writeNullableString(object.getName());
+            writePosition(object.getPosition());
+            List<String> actions = object.getActions();
+            int actionCount = actions != null ? actions.size() : 0;
+            out.writeByte(actionCount);
+            for (int j = 0; j < actionCount; j++) {
+                writeNullableString(actions.get(j));
+            }
+        }
+
+        List<SceneEntity<GroundItem>> groundItems = snapshot.getGroundItems();
+        out.writeShort(groundItems.size());
+        for (int i = 0; i < groundItems.size(); i++) {
+            SceneEntity<GroundItem> item = groundItems.get(i);
+            out.writeInt(item.getId());
+            writeNullableString(item.getName());
+            writePosition(item.getPosition());
+            out.writeInt(item.getQuantity());
+        }
+
+        List<SceneEntity<SpriteItem>> inventory = snapshot.getInventory();
+        out.writeShort(inventory.size());
+        for (int i = 0; i < inventory.size(); i++) {
+            SceneEntity<SpriteItem> item = inventory.get(i);
+            out.writeInt(item.getId());
+            writeNullableString(item.getName());
+            out.writeInt(item.getQuantity());
+        }
+
+        List<Coordinate> spotAnimations = snapshot.getSpotAnimationPositions();
+        out.writeShort(spotAnimations.size());
+        for (int i = 0; i < spotAnimations.size(); i++) {
+            writePosition(spotAnimations.get(i));
+        }
+
+        out.writeShort(snapshot.getProjectileCount());
+        for (int i = 0; i < snapshot.getProjectileCount(); i++) {
+            out.writeInt(snapshot.getProjectileId(i));
+        }
+    }
+
+    private void writePosition(Coordinate position) throws IOException {
+        out.writeBoolean(position != null);
+        if (position != null) {
+            out.writeShort(position.getX());
+            out.writeShort(position.getY());
+            out.writeByte(position.getPlane());
+        }
+    }
+
+    private void writeNullableString(String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package fighter.replay;
+
+/**
+ * Event codes of an observation trace. A trace is a stream of events, each a code byte followed by its payload, in
+ * the order the bot thread observed them through the GamePort:
+ * <ul>
+ *     <li>TICK: long tick, written before the first event the bot observed on that tick</li>
+ *     <li>CAPTURE: the whole scene, see {@link RecordingGamePort#writeScene}</li>
+ *     <li>int results: health, prayer points, hitsplat count</li>
+ *     <li>boolean results: prayer state and actions, input, movement, tick waits; INTERACT also carries the entity
+ *     name and action so a replay can tell when it interacts with something else</li>
+ *     <li>EQUIPPED_ITEM: the slot's ordinal as a byte, then a nullable string</li>
+ *     <li>camera moves: no payload</li>
+ * </ul>
+ */
+final class TraceEvent {
+    static final int MAGIC = 0x44435452; // "DCTR"
+    // 2: npc health and animation in captures; 3: millisecond delays gone, every wait is an AWAIT_TICK;
+    // 4: equipped items replace selected; 5: projectiles in captures
+    static final int VERSION = 5;
+
+    static final byte TICK = 0;
+    static final byte CAPTURE = 1;
+    static final byte HEALTH = 2;
+    static final byte PRAYER_POINTS = 3;
+    static final byte HITSPLAT_COUNT = 4;
+    static final byte PRAYER_ACTIVE = 5;
+    static final byte ACTIVATE_PRAYER = 6;
+    static final byte DEACTIVATE_PRAYER = 7;
+    static final byte EQUIPPED_ITEM = 8;
+    static final byte HAS_HITSPLAT = 9;
+    static final byte TAB_OPEN = 10;
+    static final byte PRESS_KEY = 11;
+    static final byte RELEASE_KEY = 12;
+    static final byte STEP_TOWARDS = 13;
+    static final byte SETUP_CAMERA = 14;
+    static final byte TURN_CAMERA = 15;
+    static final byte AWAIT_TICK = 16;
+    // 17 to 20 were the millisecond delays, retired in version 3
+    static final byte INTERACT = 21;
+
+    private static final String[] NAMES = {"TICK", "CAPTURE", "HEALTH", "PRAYER_POINTS", "HITSPLAT_COUNT",
+            "PRAYER_ACTIVE", "ACTIVATE_PRAYER", "DEACTIVATE_PRAYER", "EQUIPPED_ITEM", "HAS_HITSPLAT", "TAB_OPEN",
+            "PRESS_KEY", "RELEASE_KEY", "STEP_TOWARDS", "SETUP_CAMERA", "TURN_CAMERA", "AWAIT_TICK", null, null,
+            null, null, "INTERACT"};
+
+    private TraceEvent() {
+    }
+
+    static String name(int code) {
+        return code >= 0 && code < NAMES.length && NAMES[code] != null ? NAMES[code] : "UNKNOWN(" + code + ")";
+    }
+}
@@ -0,0 +1,98 @@
+package fighter.stats;
+
+import lombok.Getter;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Histogram of non-negative values with HDR-style log-linear buckets: exact below 32, then 16 buckets per power of
+ * two, so any recorded value is reported within about 6% whatever its magnitude. Recording is a shift and an
+ * increment, and the whole range of a long fits in under a thousand buckets.
+ */
+public class LogHistogram {
+    private static final int EXACT = 32;
+    private static final int SUB_BUCKETS = 16;
+    private static final int BUCKETS = EXACT + 58 * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    @Getter
+    private long totalCount;
+    @Getter
+    private long max;
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[bucketOf(value)]++;
+        totalCount++;
+        max = Math.max(max, value);
+    }
+
+    // The smallest bucket value with at least the given fraction of recordings at or below it
+    public long percentile(double fraction) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long wanted = Math.max(1, (long) Math.ceil(fraction * totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= wanted) {
+                return Math.min(highestValueIn(i), max);
+            }
+        }
+        return max;
+    }
+
+    // Written as (bucket, count) pairs for the buckets in use, which for run statistics is a few dozen
+    void writeTo(DataOutputStream out) throws IOException {
+        int used = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] != 0) {
+                used++;
+            }
+        }
+        out.writeLong(max);
+        out.writeShort(used);
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] != 0) {
+                out.writeShort(i);
+                out.writeLong(counts[i]);
+            }
+        }
+    }
+
+    void readFrom(DataInputStream in) throws IOException {
+        max = Math.max(max, in.readLong());
+        int used = in.readUnsignedShort();
+        for (int i = 0; i < used; i++) {
+            int bucket = in.readUnsignedShort();
+            long count = in.readLong();
+            if (bucket < BUCKETS) {
+                counts[bucket] += count;
+                totalCount += count;
+            }
+        }
+    }
+
+    static int bucketOf(long value) {
+        if (value < EXACT) {
+            return (int) value;
+        }
+        // Shift the value down until it is in [16, 32); the shift picks the power of two, the rest the sub-bucket
+        int shift = 63 - Long.numberOfLeadingZeros(value) - 4;
+        return EXACT + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    static long highestValueIn(int bucket) {
+        if (bucket < EXACT) {
+            return bucket;
+        }
+        int shift = (bucket - EXACT) / SUB_BUCKETS + 1;
+        long sub = (bucket - EXACT) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,27 @@
+package fighter.stats;
+
+import lombok.Getter;
+
+// What RunStats keeps a histogram of across runs. Times are milliseconds of game time, rates are per game hour and
+// counts are per run; the divisor turns a recorded value into the unit it is reported in. Persisted by name, so order does not matter.
+public enum RunMetric {
+    RUN_DURATION("s", 1000.0),
+    PHASE_1_READY("s", 1000.0),
+    PHASE_2_READY("s", 1000.0),
+    CRAFTING_TIME("s", 1000.0),
+    BOSS_FIGHT_TIME("s", 1000.0),
+    KILLS_PER_MINUTE("/min", 60.0),
+    RESOURCES_PER_MINUTE("/min", 60.0),
+    LATE_FLICKS(" flicks", 1.0),
+    MISSED_FLICK_TICKS(" ticks", 1.0);
+
+    @Getter
+    private final String unit;
+    @Getter
+    private final double divisor;
+
+    RunMetric(String unit, double divisor) {
+        this.unit = unit;
+        this.divisor = divisor;
+    }
+}
@@ -0,0 +1,265 @@
+package fighter.stats;
+
+import fighter.DungeonUtils;
+import fighter.game.PrayerFlickEngine;
+import fighter.game.TickClock;
+import fighter.tasks.KillListener;
+import fighter.tasks.NpcCategory;
+import fighter.tasks.tracking.CraftingPhaseListener;
+import fighter.tasks.tracking.GauntletResource;
+import fighter.world.InventoryChangeListener;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-run timings and rates, folded into a {@link LogHistogram} per {@link RunMetric} when a run ends, so the
+ * distribution over hundreds of runs shows which stage of a run is the bottleneck.
+ * <p>
+ * Everything is measured in game ticks from the port's tick clock and reported as game time, so live runs, simulated
+ * runs at any time scale and replays all measure the same thing. A run starts when the bot enters the Gauntlet and
+ * ends when the reward chest is looted; a run that never finishes is not recorded. Time to kill is kept per NPC
+ * name, one histogram each, from every confirmed kill whether or not a run is in progress. Prayer flicks that ran a
+ * tick late, and ticks that got no flick, are taken from the PrayerFlickEngine's counters over the run. The
+ * histograms are saved after every run and loaded again on start. Bot thread only.
+ */
+@Log4j2(topic = "RunStats")
+public class RunStats implements InventoryChangeListener, CraftingPhaseListener, KillListener {
+    private static final int MAGIC = 0x44435253; // "DCRS"
+    private static final int VERSION = 2; // 2: time to kill per NPC
+    private static final long TICK_MILLIS = TickClock.TICK_NANOS / 1_000_000L;
+    private static final RunMetric[] METRICS = RunMetric.values();
+
+    private final LogHistogram[] histograms = new LogHistogram[METRICS.length];
+    // Milliseconds of game time from attack to death, by NPC name; sorted so the summary reads the same every time
+    private final Map<String, LogHistogram> timeToKill = new TreeMap<>();
+    private final Path path;
+    @Getter
+    private long completedRuns;
+
+    // The run in progress; runStartTick is -1 between runs
+    private long runStartTick = -1;
+    private final long[] phaseReadyTick = new long[3];
+    private long craftingTicks;
+    private long bossFightTicks;
+    private int kills;
+    private int resourcesGathered;
+    // The flick engine's counters when the run started
+    private long lateFlicksAtStart;
+    private long missedFlickTicksAtStart;
+
+    public RunStats(Path path) {
+        this.path = path;
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LogHistogram();
+        }
+    }
+
+    public LogHistogram getHistogram(RunMetric metric) {
+        return histograms[metric.ordinal()];
+    }
+
+    // Null until an NPC of that name has been killed
+    public LogHistogram getTimeToKill(String npcName) {
+        return timeToKill.get(npcName);
+    }
+
+    public boolean isRunInProgress() {
+        return runStartTick >= 0;
+    }
+
+    public void startRun() {
+        runStartTick = tick();
+        for (int i = 0; i < phaseReadyTick.length; i++) {
+            phaseReadyTick[i] = -1;
+        }
+        craftingTicks = 0;
+        bossFightTicks = 0;
+        kills = 0;
+        resourcesGathered = 0;
+        lateFlicksAtStart = DungeonUtils.getPrayerFlicker().getLateFlicks();
+        missedFlickTicksAtStart = DungeonUtils.getPrayerFlicker().getMissedTicks();
+        log.info("Run {} started at tick {}.", completedRuns + 1, runStartTick);
+    }
+
+    @Override
+    public void onPhaseRequirementsMet(int phase) {
+        // Only the first time per run; requirements can be met again after items are used
+        if (isRunInProgress() && phase < phaseReadyTick.length && phaseReadyTick[phase] < 0) {
+            phaseReadyTick[phase] = tick();
+        }
+    }
+
+    @Override
+    public void onInventoryChanged(String itemName, int quantityDelta) {
+        if (isRunInProgress() && quantityDelta > 0 && GauntletResource.fromName(itemName) != null) {
+            resourcesGathered += quantityDelta;
+        }
+    }
+
+    @Override
+    public void onKill(String npcName, NpcCategory category, long ticksToKill) {
+        if (isRunInProgress()) {
+            kills++;
+        }
+        if (npcName != null) {
+            timeToKill.computeIfAbsent(npcName, name -> new LogHistogram()).record(ticksToKill * TICK_MILLIS);
+        }
+    }
+
+    // For timing a stage: take the tick before it starts, and hand it back once it is done
+    public long tick() {
+        return DungeonUtils.getGamePort().getTickClock().getTick();
+    }
+
+    public void addCraftingTime(long sinceTick) {
+        if (isRunInProgress()) {
+            craftingTicks += tick() - sinceTick;
+        }
+    }
+
+    public void addBossFightTime(long sinceTick) {
+        if (isRunInProgress()) {
+            bossFightTicks += tick() - sinceTick;
+        }
+    }
+
+    // Folds the run into the histograms, logs where this run's time went, and saves
+    public void endRun() {
+        if (!isRunInProgress()) {
+            return;
+        }
+        long runTicks = Math.max(1, tick() - runStartTick);
+        record(RunMetric.RUN_DURATION, runTicks * TICK_MILLIS);
+        for (int phase = 1; phase < phaseReadyTick.length; phase++) {
+            if (phaseReadyTick[phase] >= 0) {
+                record(phase == 1 ? RunMetric.PHASE_1_READY : RunMetric.PHASE_2_READY,
+                        (phaseReadyTick[phase] - runStartTick) * TICK_MILLIS);
+            }
+        }
+        record(RunMetric.CRAFTING_TIME, craftingTicks * TICK_MILLIS);
+        record(RunMetric.BOSS_FIGHT_TIME, bossFightTicks * TICK_MILLIS);
+        // Per game hour, so the rate keeps its precision as an integer
+        long runMillis = runTicks * TICK_MILLIS;
+        record(RunMetric.KILLS_PER_MINUTE, kills * 3_600_000L / runMillis);
+        record(RunMetric.RESOURCES_PER_MINUTE, resourcesGathered * 3_600_000L / runMillis);
+        PrayerFlickEngine flicker = DungeonUtils.getPrayerFlicker();
+        long lateFlicks = flicker.getLateFlicks() - lateFlicksAtStart;
+        long missedFlickTicks = flicker.getMissedTicks() - missedFlickTicksAtStart;
+        record(RunMetric.LATE_FLICKS, lateFlicks);
+        record(RunMetric.MISSED_FLICK_TICKS, missedFlickTicks);
+        completedRuns++;
+        runStartTick = -1;
+
+        log.info("Run {} finished in {} s: {} kills, {} resources, {} s crafting, {} s fighting the boss, {} late "
+                        + "flicks, {} ticks without a flick.", completedRuns, runMillis / 1000, kills, resourcesGathered,
+                craftingTicks * TICK_MILLIS / 1000, bossFightTicks * TICK_MILLIS / 1000, lateFlicks, missedFlickTicks);
+        logSummary();
+        save();
+    }
+
+    public void logSummary() {
+        for (int i = 0; i < METRICS.length; i++) {
+            RunMetric metric = METRICS[i];
+            LogHistogram histogram = histograms[i];
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            log.info("{} over {} runs: p50 {}{}, p90 {}{}, max {}{}", metric, histogram.getTotalCount(),
+                    format(histogram.percentile(0.50), metric), metric.getUnit(),
+                    format(histogram.percentile(0.90), metric), metric.getUnit(),
+                    format(histogram.getMax(), metric), metric.getUnit());
+        }
+        for (Map.Entry<String, LogHistogram> entry : timeToKill.entrySet()) {
+            LogHistogram histogram = entry.getValue();
+            log.info("Time to kill {} over {} kills: p50 {}s, p90 {}s, max {}s", entry.getKey(),
+                    histogram.getTotalCount(), String.format("%.1f", histogram.percentile(0.50) / 1000.0),
+                    String.format("%.1f", histogram.percentile(0.90) / 1000.0),
+                    String.format("%.1f", histogram.getMax() / 1000.0));
+        }
+    }
+
+    // Adds the histograms saved by earlier sessions; a missing or unreadable file just means starting from nothing
+    public void load() {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int version = in.readInt() == MAGIC ? in.readInt() : -1;
+            if (version < 1 || version > VERSION) {
+                log.warn("{} is not a run statistics file; starting from empty histograms.", path);
+                return;
+            }
+            completedRuns += in.readLong();
+            int metrics = in.readUnsignedByte();
+            LogHistogram unknown = new LogHistogram();
+            for (int i = 0; i < metrics; i++) {
+                RunMetric metric = metricNamed(in.readUTF());
+                (metric != null ? histograms[metric.ordinal()] : unknown).readFrom(in);
+            }
+            int npcs = version >= 2 ? in.readUnsignedShort() : 0;
+            for (int i = 0; i < npcs; i++) {
+                timeToKill.computeIfAbsent(in.readUTF(), name -> new LogHistogram()).readFrom(in);
+            }
+            log.info("Loaded statistics for {} runs from {}", completedRuns, path);
+        } catch (IOException e) {
+            log.warn("Could not read run statistics from {}; starting from empty histograms.", path, e);
+        }
+    }
+
+    // Written to a temporary file first, so a crash mid-save never costs the statistics already collected
+    public void save() {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(completedRuns);
+                out.writeByte(METRICS.length);
+                for (int i = 0; i < METRICS.length; i++) {
+                    out.writeUTF(METRICS[i].name());
+                    histograms[i].writeTo(out);
+                }
+                out.writeShort(timeToKill.size());
+                for (Map.Entry<String, LogHistogram> entry : timeToKill.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    entry.getValue().writeTo(out);
+                }
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not save run statistics to {}", path, e);
+        }
+    }
+
+    private void record(RunMetric metric, long value) {
+        histograms[metric.ordinal()].record(value);
+    }
+
+    private static String format(long value, RunMetric metric) {
+        return String.format("%.1f", value / metric.getDivisor());
+    }
+
+    private static RunMetric metricNamed(String name) {
+        for (int i = 0; i < METRICS.length; i++) {
+            if (METRICS[i].name().equals(name)) {
+                return METRICS[i];
+            }
+        }
+        return null;
+    }
+}
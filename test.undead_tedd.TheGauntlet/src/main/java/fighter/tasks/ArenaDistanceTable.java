@@ -0,0 +1,166 @@
+package fighter.tasks;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Walking distances between every pair of tiles of a Hunllef room, in {@link BossType#tileIndex} order, worked out
+ * once with a breadth-first search from every tile. Both rooms share the same shape, so one table serves either.
+ * <p>
+ * Nobody walks through the boss, so there is a layer of distances for every place its footprint can stand, with the
+ * footprint blocked, and an open layer for when the boss is not in view. Steps go to all eight neighbours, a
+ * diagonal only when neither tile beside it is blocked, as the game walks. Next to the step counts, each layer keeps
+ * per source tile the tiles within one tick's run of it as a 144-bit mask. The searches are independent, so they are
+ * split across the common fork-join pool. Read-only once built and safe to share.
+ */
+@Log4j2(topic = "ArenaDistanceTable")
+public class ArenaDistanceTable {
+    public static final int WORDS = (BossType.ROOM_TILES + 63) / 64;
+    // Bits past the last tile in the last word are never set
+    public static final long LAST_WORD_MASK = -1L >>> (WORDS * 64 - BossType.ROOM_TILES);
+    public static final int RUN_TILES_PER_TICK = 2;
+    public static final int UNREACHABLE = -1;
+
+    // Southwest tiles the boss can stand on per row and column, with its whole footprint in the room
+    private static final int FOOTPRINT_SPAN = BossType.ROOM_SIZE - BossType.BOSS_SIZE + 1;
+    // The layer with only the room's own blocked tiles, after one per footprint position
+    public static final int OPEN = FOOTPRINT_SPAN * FOOTPRINT_SPAN;
+    private static final int LAYERS = OPEN + 1;
+    private static final int SEARCHES_PER_TASK = 256;
+
+    // Per layer, the room's own blocked tiles and the footprint: WORDS longs per layer
+    private final long[] blocked = new long[LAYERS * WORDS];
+    // Per layer, the steps from every tile to every other
+    private final byte[][] steps = new byte[LAYERS][BossType.ROOM_TILES * BossType.ROOM_TILES];
+    // Per layer and source tile, the tiles one tick's run away or nearer: WORDS longs per source
+    private final long[] reach = new long[LAYERS * BossType.ROOM_TILES * WORDS];
+
+    /**
+     * @param blocked the tiles nobody can stand on, as WORDS longs in tile index order
+     */
+    public ArenaDistanceTable(long[] blocked) {
+        long start = System.nanoTime();
+        for (int layer = 0; layer < LAYERS; layer++) {
+            for (int word = 0; word < WORDS; word++) {
+                this.blocked[layer * WORDS + word] = blocked[word];
+            }
+            if (layer != OPEN) {
+                blockFootprint(layer);
+            }
+        }
+        ForkJoinPool.commonPool().invoke(new BuildTask(0, LAYERS * BossType.ROOM_TILES));
+        log.info("Arena distances built for {} boss positions in {} us.", OPEN, (System.nanoTime() - start) / 1000);
+    }
+
+    // The layer for the boss standing on the given tile index, OPEN if it is not in view or would not fit
+    public int layer(int bossIndex) {
+        if (bossIndex < 0) {
+            return OPEN;
+        }
+        int x = bossIndex % BossType.ROOM_SIZE;
+        int y = bossIndex / BossType.ROOM_SIZE;
+        return x < FOOTPRINT_SPAN && y < FOOTPRINT_SPAN ? y * FOOTPRINT_SPAN + x : OPEN;
+    }
+
+    // Walking steps between two tiles around the layer's boss, UNREACHABLE if there is no way through
+    public int steps(int layer, int from, int to) {
+        return steps[layer][from * BossType.ROOM_TILES + to];
+    }
+
+    // Game ticks to run between two tiles, Integer.MAX_VALUE if there is no way through
+    public int ticks(int layer, int from, int to) {
+        int walk = steps(layer, from, to);
+        return walk == UNREACHABLE ? Integer.MAX_VALUE : (walk + RUN_TILES_PER_TICK - 1) / RUN_TILES_PER_TICK;
+    }
+
+    // One word of the tiles the player can run to from the source within a tick, the source included
+    public long reach(int layer, int source, int word) {
+        return reach[(layer * BossType.ROOM_TILES + source) * WORDS + word];
+    }
+
+    public boolean isBlocked(int layer, int index) {
+        return (blocked[layer * WORDS + (index >>> 6)] & 1L << index) != 0;
+    }
+
+    private void blockFootprint(int layer) {
+        int left = layer % FOOTPRINT_SPAN;
+        int bottom = layer / FOOTPRINT_SPAN;
+        for (int y = bottom; y < bottom + BossType.BOSS_SIZE; y++) {
+            for (int x = left; x < left + BossType.BOSS_SIZE; x++) {
+                int index = y * BossType.ROOM_SIZE + x;
+                blocked[layer * WORDS + (index >>> 6)] |= 1L << index;
+            }
+        }
+    }
+
+    // The source itself is never treated as blocked, so a player caught under the boss still finds a way out
+    private void search(int layer, int source, int[] queue) {
+        byte[] distances = steps[layer];
+        int base = source * BossType.ROOM_TILES;
+        for (int i = 0; i < BossType.ROOM_TILES; i++) {
+            distances[base + i] = UNREACHABLE;
+        }
+        distances[base + source] = 0;
+        queue[0] = source;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int tile = queue[head++];
+            int x = tile % BossType.ROOM_SIZE;
+            int y = tile / BossType.ROOM_SIZE;
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int nx = x + dx;
+                    int ny = y + dy;
+                    if ((dx == 0 && dy == 0) || nx < 0 || ny < 0 || nx >= BossType.ROOM_SIZE || ny >= BossType.ROOM_SIZE) {
+                        continue;
+                    }
+                    int next = ny * BossType.ROOM_SIZE + nx;
+                    if (distances[base + next] != UNREACHABLE || isBlocked(layer, next)) {
+                        continue;
+                    }
+                    // No cutting corners past a blocked tile
+                    if (dx != 0 && dy != 0
+                            && (isBlocked(layer, y * BossType.ROOM_SIZE + nx) || isBlocked(layer, ny * BossType.ROOM_SIZE + x))) {
+                        continue;
+                    }
+                    distances[base + next] = (byte) (distances[base + tile] + 1);
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        // Breadth-first, so the tiles within a tick's run are the first ones queued
+        int reachBase = (layer * BossType.ROOM_TILES + source) * WORDS;
+        for (int i = 0; i < tail && distances[base + queue[i]] <= RUN_TILES_PER_TICK; i++) {
+            int tile = queue[i];
+            reach[reachBase + (tile >>> 6)] |= 1L << tile;
+        }
+    }
+
+    // Runs a range of (layer, source) searches, halving it until it is small enough to do in one go
+    private final class BuildTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        private BuildTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEARCHES_PER_TASK) {
+                int[] queue = new int[BossType.ROOM_TILES];
+                for (int search = from; search < to; search++) {
+                    search(search / BossType.ROOM_TILES, search % BossType.ROOM_TILES, queue);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BuildTask(from, middle), new BuildTask(middle, to));
+        }
+    }
+}
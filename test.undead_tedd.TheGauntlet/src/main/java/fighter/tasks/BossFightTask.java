@@ -1,222 +1,171 @@
 package fighter.tasks;
 
 import com.runemate.game.api.hybrid.entities.Npc;
-import com.runemate.game.api.hybrid.entities.status.Hitsplat;
-import com.runemate.game.api.hybrid.input.Keyboard;
-import com.runemate.game.api.hybrid.local.hud.interfaces.Health;
-import com.runemate.game.api.hybrid.local.hud.interfaces.Inventory;
+import com.runemate.game.api.hybrid.local.hud.interfaces.SpriteItem;
 import com.runemate.game.api.hybrid.location.Coordinate;
-import com.runemate.game.api.hybrid.location.navigation.cognizant.ScenePath;
-import com.runemate.game.api.hybrid.region.Players;
-import com.runemate.game.api.hybrid.region.SpotAnimations;
 import com.runemate.game.api.osrs.local.hud.interfaces.ControlPanelTab;
-import com.runemate.game.api.osrs.local.hud.interfaces.Prayer;
-import com.runemate.game.api.script.Execution;
 import com.runemate.game.api.script.framework.tree.LeafTask;
 import fighter.DungeonCrawler;
 import fighter.DungeonUtils;
+import fighter.game.ActionScheduler;
+import fighter.game.GamePort;
+import fighter.stats.RunStats;
+import fighter.world.ItemCategory;
+import fighter.world.SceneEntity;
 import lombok.extern.log4j.Log4j2;
+import org.apache.logging.log4j.Level;
 
 import java.awt.event.KeyEvent;
-import java.util.*;
+import java.util.function.BooleanSupplier;
 
 @Log4j2(topic = "BossFightTask")
 public class BossFightTask extends LeafTask {
+    private static final int MIN_BOSS_DISTANCE = 1; // Tiles this close to the boss are never safe, unless in melee
 
     private final DungeonCrawler bot;
+    private final GamePort game = DungeonUtils.getGamePort();
+    private final ActionScheduler scheduler = DungeonUtils.getScheduler();
+    private final RunStats runStats = DungeonUtils.getRunStats();
+    private final Loadout loadout = DungeonUtils.getLoadout();
     private final BossType bossType;
-    private int bossAttackCycle = 0;
-    private boolean isMagicPhase = false;
-    private boolean prayerDisabled = false;
-    private final Map<Coordinate, Integer> initialTileColors = new HashMap<>();
-    private List<Hitsplat> playerHitsplats = new ArrayList<>();
-    private List<Hitsplat> bossHitsplats = new ArrayList<>();
+    private final HunllefAttackTracker attackTracker = DungeonUtils.getHunllefAttackTracker();
+    private Boolean shownStyle; // Magic phase as last shown in the status, null before the first
+    private final HazardGrid hazardGrid;
+    private int attackRange = 1; // Of the wielded weapon, read once per fight iteration
+    private int playerHitsplatCount = 0;
+    private boolean bossHitsplatShown = false;
+    // Wait conditions, made once rather than on every wait
+    private final BooleanSupplier inventoryOpen = () -> game.isTabOpen(ControlPanelTab.INVENTORY);
+    private final BooleanSupplier prayerOpen = () -> game.isTabOpen(ControlPanelTab.PRAYER);
+    private final BooleanSupplier bossHit;
 
     public BossFightTask(DungeonCrawler bot, BossType bossType) {
         this.bot = bot;
         this.bossType = bossType;
-        scanInitialSafeTiles();
+        this.hazardGrid = DungeonUtils.getHazardGrid(bossType);
+        this.bossHit = () -> {
+            // The pooled entity is rewritten on recapture, so look the boss up again on every tick
+            SceneEntity<Npc> current = DungeonUtils.getBoss(bossType);
+            return current != null && game.hasPlayerHitsplat(current);
+        };
     }
 
     @Override
     public void execute() {
-        Npc boss = DungeonUtils.getBoss(bossType); // Fetch boss based on variant
+        SceneEntity<Npc> boss = DungeonUtils.getBoss(bossType); // Fetch boss based on variant
 
         if (boss == null) {
             log.error("Unable to find the boss after multiple attempts.");
-            bot.updateTaskStatus("Unable to find the boss, stopping task...");
+            bot.updateTaskStatus(Level.WARN, "Unable to find the boss, stopping task...");
             return;
         }
 
+        long startTick = runStats.tick();
+        attackRange = loadout.getAttackRange();
+        attackTracker.watch();
         managePrayer();
         manageHealth();
         ensureInventoryIsOpenUsingHotkey();
-        handleAttackCycle(boss);
+        showAttackStyle();
 
         monitorHitsplats(boss);
         avoidHazardsAndAttackBoss(boss);
+        runStats.addBossFightTime(startTick);
     }
 
     private void ensureInventoryIsOpenUsingHotkey() {
-        if (!ControlPanelTab.INVENTORY.isOpen()) {
+        if (!game.isTabOpen(ControlPanelTab.INVENTORY)) {
             log.info("Opening Inventory tab using hotkey F3...");
-            Keyboard.pressKey(KeyEvent.VK_F3);
-            Execution.delayUntil(ControlPanelTab.INVENTORY::isOpen, 1200, 1800);
+            game.pressKey(KeyEvent.VK_F3);
+            scheduler.awaitTicksUntil(inventoryOpen, 3);
         }
     }
 
     private void managePrayer() {
-        if (!ControlPanelTab.PRAYER.isOpen()) {
+        if (!game.isTabOpen(ControlPanelTab.PRAYER)) {
             log.info("Opening Prayer tab using hotkey F5...");
-            Keyboard.pressKey(KeyEvent.VK_F5);
-            Execution.delayUntil(ControlPanelTab.PRAYER::isOpen, 1200, 1800);
+            game.pressKey(KeyEvent.VK_F5);
+            scheduler.awaitTicksUntil(prayerOpen, 3);
         }
 
-        if (Prayer.getPoints() < 20 && Inventory.contains("Egniol potion")) {
+        SceneEntity<SpriteItem> potion = DungeonUtils.getWorld().inventoryItem(ItemCategory.POTION);
+        if (game.getPrayerPoints() < 20 && potion != null) {
             log.info("Restoring prayer points with Egniol potion.");
-            Objects.requireNonNull(Inventory.getItems("Egniol potion").first()).interact("Drink");
-        }
-
-        if (prayerDisabled && !Prayer.PROTECT_FROM_MISSILES.isActivated() && !Prayer.PROTECT_FROM_MAGIC.isActivated()) {
-            log.info("Re-enabling prayers after being disabled.");
-            if (isMagicPhase) {
-                Prayer.PROTECT_FROM_MAGIC.activate();
-            } else {
-                Prayer.PROTECT_FROM_MISSILES.activate();
-            }
-            prayerDisabled = false;
+            potion.interact("Drink");
         }
     }
 
     private void manageHealth() {
         ensureInventoryIsOpenUsingHotkey();
-        if (Health.getCurrentPercent() < 20 && Inventory.contains("Egniol potion")) {
+        SceneEntity<SpriteItem> potion = DungeonUtils.getWorld().inventoryItem(ItemCategory.POTION);
+        if (game.getHealthPercent() < 20 && potion != null) {
             log.info("Restoring health with Egniol potion.");
-            Objects.requireNonNull(Inventory.getItems("Egniol potion").first()).interact("Drink");
+            potion.interact("Drink");
         }
     }
 
-    private void handleAttackCycle(Npc boss) {
-        if (bossAttackCycle == 4) {
-            isMagicPhase = !isMagicPhase;
-            bossAttackCycle = 0;
+    // The tracker switches the prayer on its own tick action; this only keeps the status in step with it
+    private void showAttackStyle() {
+        boolean magicPhase = attackTracker.isMagicPhase();
+        if (shownStyle == null || shownStyle != magicPhase) {
+            bot.updateTaskStatus(magicPhase ? "Protecting from Magic." : "Protecting from Missiles.");
+            shownStyle = magicPhase;
         }
-        if (isMagicPhase) {
-            Prayer.PROTECT_FROM_MAGIC.activate();
-            log.info("Switched to Protect from Magic.");
-            bot.updateTaskStatus("Switched to Protect from Magic.");
-        } else {
-            Prayer.PROTECT_FROM_MISSILES.activate();
-            log.info("Switched to Protect from Missiles.");
-            bot.updateTaskStatus("Switched to Protect from Missiles.");
-        }
-        bossAttackCycle++;
     }
 
-    private void monitorHitsplats(Npc boss) {
-        List<Hitsplat> currentPlayerHitsplats = Objects.requireNonNull(Players.getLocal()).getHitsplats();
-        List<Hitsplat> currentBossHitsplats = boss.getHitsplats();
+    // Hitsplats are compared by count rather than by instance so the check works the same against any GamePort
+    private void monitorHitsplats(SceneEntity<Npc> boss) {
+        int currentPlayerHitsplatCount = game.getPlayerHitsplatCount();
+        boolean currentBossHitsplatShown = game.hasPlayerHitsplat(boss);
 
-        if (hasNewHitsplat(currentPlayerHitsplats, playerHitsplats)) {
+        if (currentPlayerHitsplatCount > playerHitsplatCount) {
             log.info("Player took damage! Re-evaluating conditions...");
             avoidHazardsAndAttackBoss(boss);
         }
 
-        if (hasNewHitsplat(currentBossHitsplats, bossHitsplats)) {
+        if (currentBossHitsplatShown && !bossHitsplatShown) {
             log.info("Boss took damage from our attack.");
             attackBossIfInRange(boss);
         }
 
-        playerHitsplats = currentPlayerHitsplats;
-        bossHitsplats = currentBossHitsplats;
+        playerHitsplatCount = currentPlayerHitsplatCount;
+        bossHitsplatShown = currentBossHitsplatShown;
     }
 
-    private boolean hasNewHitsplat(List<Hitsplat> currentHitsplats, List<Hitsplat> previousHitsplats) {
-        for (Hitsplat hitsplat : currentHitsplats) {
-            if (!previousHitsplats.contains(hitsplat)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private void avoidHazardsAndAttackBoss(Npc boss) {
+    private void avoidHazardsAndAttackBoss(SceneEntity<Npc> boss) {
         Coordinate safeCoordinate = findNearestSafeCoordinate();
-        if (safeCoordinate != null && safeCoordinate.distanceTo(boss) > 1) {
-            moveToCoordinate(safeCoordinate);
-            Execution.delay(100, 300);  // Delay before attacking the boss
+        if (safeCoordinate != null) {
+            Coordinate playerPosition = DungeonUtils.getWorld().getPlayerPosition();
+            if (!safeCoordinate.equals(playerPosition)) {
+                moveToCoordinate(safeCoordinate,
+                        hazardGrid.ticksBetween(playerPosition, safeCoordinate, boss.getPosition()));
+                scheduler.nextTick();  // Let the step register before attacking the boss
+            }
             attackBossIfInRange(boss);
         } else {
             log.warn("No safe tile found or tile is too close to boss.");
         }
-        Execution.delay(300);  // Maintain a steady loop interval
-    }
-
-    private void scanInitialSafeTiles() {
-        for (Coordinate coord : getRoomCoordinates()) {
-            int initialColor = getTileColor(coord);
-            initialTileColors.put(coord, initialColor);
-        }
+        scheduler.nextTick();  // One fight iteration per tick
     }
 
-    private Iterable<Coordinate> getRoomCoordinates() {
-        return bossType.getRoomCoordinates();  // Get room coordinates based on boss type
+    // The tile free of hazards, off the boss and within attack range of it that takes the fewest steps to reach
+    Coordinate findNearestSafeCoordinate() {
+        Coordinate playerPosition = DungeonUtils.getWorld().getPlayerPosition();
+        SceneEntity<Npc> boss = DungeonUtils.getBoss(bossType);
+        // A melee weapon has to stand next to the boss, so only its footprint is kept clear then
+        int keepOff = Math.min(MIN_BOSS_DISTANCE, attackRange - 1);
+        return hazardGrid.bestTile(playerPosition, boss != null ? boss.getPosition() : null, keepOff, attackRange);
     }
 
-    private Coordinate findNearestSafeCoordinate() {
-        Coordinate nearestSafeCoordinate = null;
-        double nearestDistance = Double.MAX_VALUE;
-        Coordinate playerPosition = Objects.requireNonNull(Players.getLocal()).getPosition();
-
-        for (Coordinate coord : getRoomCoordinates()) {
-            if (isCoordinateSafe(coord)) {
-                assert playerPosition != null;
-                double distance = playerPosition.distanceTo(coord);
-                if (distance < nearestDistance) {
-                    nearestSafeCoordinate = coord;
-                    nearestDistance = distance;
-                }
-            }
-        }
-        return nearestSafeCoordinate;
-    }
-
-    private boolean isCoordinateSafe(Coordinate coord) {
-        int initialColor = initialTileColors.getOrDefault(coord, -1);
-        int currentColor = getTileColor(coord);
-        return initialColor == currentColor && !isHazardousSpotAnimation(coord);
+    private void moveToCoordinate(Coordinate coord, int ticks) {
+        log.info("Moving to safe coordinate: {} ({} ticks away)", coord, ticks);
+        game.stepTowards(coord);
     }
 
-    private int getTileColor(Coordinate coord) {
-        // Placeholder - Replace with actual logic to retrieve tile color
-        return -1;
-    }
-
-    private boolean isHazardousSpotAnimation(Coordinate coord) {
-        return SpotAnimations.newQuery()
-                .results()
-                .stream()
-                .anyMatch(animation -> Objects.equals(animation.getPosition(), coord));
-    }
-
-    private void moveToCoordinate(Coordinate coord) {
-        ScenePath path = ScenePath.buildTo(coord);
-        if (path != null) {
-            log.info("Moving to safe coordinate: " + coord);
-            path.step();
-        }
-    }
-
-    private void attackBossIfInRange(Npc boss) {
-        if (boss.isVisible() && !hasRecentHitsplat(boss) && boss.interact("Attack")) {
+    private void attackBossIfInRange(SceneEntity<Npc> boss) {
+        if (!game.hasPlayerHitsplat(boss) && boss.interact("Attack")) {
             log.info("Attacking the boss from a safe distance.");
-            Execution.delayUntil(() -> hasRecentHitsplat(boss), 300, 500);
+            scheduler.awaitTicksUntil(bossHit, 2);
         }
     }
-
-    // Checks if the boss has any recent hitsplats
-    private boolean hasRecentHitsplat(Npc boss) {
-        return boss.getHitsplats().stream()
-                .anyMatch(hitsplat -> hitsplat.isValid() && hitsplat.getClassification().isPlayers());
-    }
 }
@@ -1,9 +1,11 @@
 package fighter.tasks;
 
 import com.runemate.game.api.hybrid.location.Coordinate;
+import lombok.AccessLevel;
 import lombok.Getter;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 @Getter
@@ -11,12 +13,28 @@ public enum BossType {
     CRYSTALLINE_HUNLLEF(new Coordinate(1906, 5693, 1), new Coordinate(1917, 5682, 1)),
     CORRUPTED_HUNLLEF(new Coordinate(1970, 5693, 1), new Coordinate(1981, 5682, 1));
 
+    // Tiles per side of the square boss room
+    public static final int ROOM_SIZE = 12;
+    public static final int ROOM_TILES = ROOM_SIZE * ROOM_SIZE;
+    // The Hunllef stands on a square of tiles this wide, its position being the southwest one
+    public static final int BOSS_SIZE = 5;
+
     private final Coordinate northwest;
     private final Coordinate southeast;
+    // Every tile of the room, indexed by tileIndex, built once
+    @Getter(AccessLevel.NONE)
+    private final Coordinate[] tiles = new Coordinate[ROOM_TILES];
+    @Getter(AccessLevel.NONE)
+    private final List<Coordinate> roomCoordinates;
 
     BossType(Coordinate northwest, Coordinate southeast) {
         this.northwest = northwest;
         this.southeast = southeast;
+        for (int index = 0; index < ROOM_TILES; index++) {
+            tiles[index] = new Coordinate(northwest.getX() + index % ROOM_SIZE,
+                    southeast.getY() + index / ROOM_SIZE, northwest.getPlane());
+        }
+        this.roomCoordinates = Collections.unmodifiableList(Arrays.asList(tiles));
     }
 
     // Checks if a given coordinate is within the boss room's boundaries
@@ -26,14 +44,20 @@ public enum BossType {
                 coordinate.getPlane() == northwest.getPlane();
     }
 
-    // Generates a grid of coordinates for the entire boss room area
-    public Iterable<Coordinate> getRoomCoordinates() {
-        List<Coordinate> coordinates = new ArrayList<>();
-        for (int x = northwest.getX(); x <= southeast.getX(); x++) {
-            for (int y = southeast.getY(); y <= northwest.getY(); y++) {
-                coordinates.add(new Coordinate(x, y, northwest.getPlane()));
-            }
+    // Row-major index of a room tile, counted from the southwest corner; -1 outside the room
+    public int tileIndex(Coordinate coordinate) {
+        if (coordinate == null || !isWithinBossRoom(coordinate)) {
+            return -1;
         }
-        return coordinates;
+        return (coordinate.getY() - southeast.getY()) * ROOM_SIZE + coordinate.getX() - northwest.getX();
+    }
+
+    public Coordinate tile(int index) {
+        return tiles[index];
+    }
+
+    // Every tile of the boss room, built once; read-only
+    public List<Coordinate> getRoomCoordinates() {
+        return roomCoordinates;
     }
 }
@@ -1,15 +1,17 @@
 package fighter.tasks;
 
-import com.runemate.game.api.hybrid.input.Keyboard;
-import com.runemate.game.api.hybrid.local.hud.interfaces.Inventory;
-import com.runemate.game.api.hybrid.region.GameObjects;
-import com.runemate.game.api.script.Execution;
 import com.runemate.game.api.hybrid.entities.GameObject;
 import com.runemate.game.api.script.framework.tree.LeafTask;
 import fighter.DungeonCrawler;
+import fighter.DungeonUtils;
+import fighter.game.ActionScheduler;
+import fighter.game.GamePort;
+import fighter.stats.RunStats;
+import fighter.world.InventoryIndex;
+import fighter.world.ItemCategory;
+import fighter.world.SceneEntity;
 import lombok.extern.log4j.Log4j2;
-
-import java.util.Objects;
+import org.apache.logging.log4j.Level;
 
 @Log4j2(topic = "CraftingTask")
 public class CraftingTask extends LeafTask {
@@ -24,6 +26,9 @@ public class CraftingTask extends LeafTask {
     private static final String UNF_POTION = "Grym potion(unf)";
     private static final int REQUIRED_VIALS = 3;
     private final DungeonCrawler bot;
+    private final GamePort game = DungeonUtils.getGamePort();
+    private final ActionScheduler scheduler = DungeonUtils.getScheduler();
+    private final RunStats runStats = DungeonUtils.getRunStats();
 
     public CraftingTask(DungeonCrawler bot) {
         this.bot = bot;
@@ -31,14 +36,16 @@ public class CraftingTask extends LeafTask {
 
     @Override
     public void execute() {
+        long startTick = runStats.tick();
         int phase = bot.getCraftingPhase();
         if (phase == 1) {
             executePhase1();
         } else if (phase == 2) {
             executePhase2();
         } else {
-            bot.updateTaskStatus("Unknown crafting phase.");
+            bot.updateTaskStatus(Level.WARN, "Unknown crafting phase.");
         }
+        runStats.addCraftingTime(startTick);
     }
 
     // Phase 1 Logic
@@ -50,7 +57,7 @@ public class CraftingTask extends LeafTask {
             craftVials();  // 3 vials
             equipCraftedItems();
             fillVials();
-        if (!Inventory.contains("Teleport Crystal")) {
+        if (!DungeonUtils.getWorld().inventoryContains(ItemCategory.TELEPORT)) {
             craftTeleportCrystal();
         }
             dropRawPaddlefish();
@@ -59,7 +66,7 @@ public class CraftingTask extends LeafTask {
             bot.updateTaskStatus("Phase 1 crafting complete. Advancing to Phase 2...");
             bot.advanceCraftingPhase();
         } else {
-            bot.updateTaskStatus("Failed to open Singing Bowl for crafting.");
+            bot.updateTaskStatus(Level.WARN, "Failed to open Singing Bowl for crafting.");
         }
     }
 
@@ -75,16 +82,16 @@ public class CraftingTask extends LeafTask {
             collectAndCookPaddlefish();
             bot.updateTaskStatus("Phase 2 crafting and inventory cleanup complete.");
         } else {
-            bot.updateTaskStatus("Failed to open Singing Bowl for Phase 2 crafting.");
+            bot.updateTaskStatus(Level.WARN, "Failed to open Singing Bowl for Phase 2 crafting.");
         }
     }
 
     // Open Singing Bowl
     private boolean openSingingBowl() {
-        GameObject singingBowl = GameObjects.newQuery().names(SINGING_BOWL_NAME).results().first();
+        SceneEntity<GameObject> singingBowl = DungeonUtils.getWorld().firstObject(SINGING_BOWL_NAME);
         if (singingBowl != null && singingBowl.interact("Sing-crystal")) {
             log.info("Opened Singing Bowl interface.");
-            Execution.delay(300, 500);
+            scheduler.nextTick(); // The crafting menu opens on the following tick
             return true;
         } else {
             log.warn("Failed to interact with Singing Bowl.");
@@ -94,8 +101,8 @@ public class CraftingTask extends LeafTask {
 
     private void craftTeleportCrystal() {
         log.info("Crafting a Teleport Crystal.");
-        if (Keyboard.pressKey('1')) {  // Assuming '1' is the key to craft the teleport crystal
-            Execution.delay(300, 600); // Wait for the crafting action to complete
+        if (game.pressKey('1')) {  // Assuming '1' is the key to craft the teleport crystal
+            scheduler.nextTick(); // Wait for the crafting action to complete
             log.info("Teleport Crystal crafted successfully.");
         } else {
             log.warn("Failed to initiate Teleport Crystal crafting.");
@@ -115,30 +122,30 @@ public class CraftingTask extends LeafTask {
     //  Armor for Phase 1
     private void craftArmor() {
         log.info("Crafting available armor.");
-        Keyboard.pressKey('3'); // Helm
-        Execution.delay(300, 600);
-        Keyboard.pressKey('4'); // Body
-        Execution.delay(300, 600);
-        Keyboard.pressKey('5'); // Legs
+        game.pressKey('3'); // Helm
+        scheduler.nextTick();
+        game.pressKey('4'); // Body
+        scheduler.nextTick();
+        game.pressKey('5'); // Legs
     }
 
     // Craft Perfected Weapons for Phase 2
     private void craftPerfectedWeapons() {
         log.info("Crafting perfected weapons.");
-        Keyboard.pressKey('8'); // Perfected Bow
-        Execution.delay(300, 600);
-        Keyboard.pressKey('7'); // Perfected Staff
-        Execution.delay(300, 600);
+        game.pressKey('8'); // Perfected Bow
+        scheduler.nextTick();
+        game.pressKey('7'); // Perfected Staff
+        scheduler.nextTick();
     }
 
     // Craft missing armor for Phase 2 if not done in Phase 1
     private void craftMissingArmor() {
         log.info("Crafting advanced armor pieces if not crafted.");
-        Keyboard.pressKey('3'); // Helm
-        Execution.delay(300, 600);
-        Keyboard.pressKey('4'); // Body
-        Execution.delay(300, 600);
-        Keyboard.pressKey('5'); // Legs
+        game.pressKey('3'); // Helm
+        scheduler.nextTick();
+        game.pressKey('4'); // Body
+        scheduler.nextTick();
+        game.pressKey('5'); // Legs
     }
 
     // Craft Vials for Phase 1
@@ -150,49 +157,46 @@ public class CraftingTask extends LeafTask {
     // Equip Crafted Items
     private void equipCraftedItems() {
         log.info("Equipping crafted armor and staff.");
-        Inventory.getItems(item -> item.getDefinition() != null &&
-                        (item.getDefinition().getName().contains("Bow") ||
-                                item.getDefinition().getName().contains("Helm") ||
-                                item.getDefinition().getName().contains("Body") ||
-                                item.getDefinition().getName().contains("Legs") ||
-                                item.getDefinition().getName().contains("Staff")))
-                .forEach(item -> {
-                    String action = Objects.requireNonNull(item.getDefinition()).getName().contains("Bow") || item.getDefinition().getName().contains("Staff") ? "Wield" : "Wear";
-                    item.interact(action);
-                    Execution.delay(200, 400);
-                });
+        // Everything that beats what is worn goes on within one tick
+        DungeonUtils.getLoadout().apply();
     }
 
     // Utility methods for pressing keys
     private void pressKeyTwice(char key) {
         for (int i = 0; i < 2; i++) {
-            Keyboard.pressKey(key);
-            Execution.delay(300, 600);
+            game.pressKey(key);
+            scheduler.nextTick();
         }
     }
 
     private void pressKeyThrice() {
         for (int i = 0; i < 3; i++) {
-            Keyboard.pressKey('6');
-            Execution.delay(300, 600);
+            game.pressKey('6');
+            scheduler.nextTick();
         }
     }
 
     // Other supporting methods
     private void dropRawPaddlefish() {
         log.info("Dropping raw paddlefish.");
-        Inventory.getItems(RAW_PADDLEFISH).forEach(item -> item.interact("Drop"));
-        Execution.delay(200, 400);
+        InventoryIndex inventory = DungeonUtils.getWorld().getInventoryIndex();
+        for (int slots = inventory.slotMask(RAW_PADDLEFISH); slots != 0; slots &= slots - 1) {
+            inventory.item(Integer.numberOfTrailingZeros(slots)).interact("Drop");
+        }
+        scheduler.nextTick();
     }
 
     private void dropUnwantedItems() {
         log.info("Dropping unwanted items.");
-        Inventory.getItems(item -> !Objects.requireNonNull(item.getDefinition()).getName().contains("Bow") &&
-                        !item.getDefinition().getName().contains("Staff") &&
-                        !item.getDefinition().getName().contains("Potion") &&
-                        !item.getDefinition().getName().equals("Raw paddlefish"))
-                .forEach(item -> item.interact("Drop"));
-        Execution.delay(200, 400);
+        InventoryIndex inventory = DungeonUtils.getWorld().getInventoryIndex();
+        int keep = inventory.slotMask(ItemCategory.WEAPON) | inventory.slotMask(ItemCategory.POTION)
+                | inventory.slotMask(RAW_PADDLEFISH);
+        for (int slot = 0; slot < inventory.getUsedSlots(); slot++) {
+            if ((keep & (1 << slot)) == 0) {
+                inventory.item(slot).interact("Drop");
+            }
+        }
+        scheduler.nextTick();
     }
 
     private void makeDust() {
@@ -212,10 +216,10 @@ public class CraftingTask extends LeafTask {
 
     private void fillVials() {
         log.info("Filling vials at the water pump.");
-        GameObject waterPump = GameObjects.newQuery().names(WATER_PUMP_NAME).results().first();
+        SceneEntity<GameObject> waterPump = DungeonUtils.getWorld().firstObject(WATER_PUMP_NAME);
         if (waterPump != null) {
             waterPump.interact("Fill");
-            Execution.delay(3000);
+            scheduler.awaitTicksUntil(() -> !DungeonUtils.getWorld().inventoryContains("Vial"), 5);
         }
     }
 }
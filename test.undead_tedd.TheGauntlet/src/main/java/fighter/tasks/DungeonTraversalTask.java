@@ -1,28 +1,48 @@
 package fighter.tasks;
 
 import com.runemate.game.api.hybrid.entities.GameObject;
-import com.runemate.game.api.hybrid.local.hud.interfaces.Inventory;
+import com.runemate.game.api.hybrid.local.hud.interfaces.SpriteItem;
 import com.runemate.game.api.hybrid.location.Coordinate;
-import com.runemate.game.api.hybrid.region.GameObjects;
-import com.runemate.game.api.script.Execution;
 import com.runemate.game.api.script.framework.tree.LeafTask;
 import fighter.DungeonCrawler;
 import fighter.DungeonUtils;
+import fighter.game.ActionScheduler;
+import fighter.world.ItemCategory;
+import fighter.world.SceneEntity;
+import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
 
 import java.util.HashSet;
-import java.util.Objects;
 import java.util.Set;
+import java.util.function.BooleanSupplier;
 
 @Log4j2(topic = "DungeonTraversalTask")
 public class DungeonTraversalTask extends LeafTask {
     private final DungeonCrawler bot;
+    private final ActionScheduler scheduler = DungeonUtils.getScheduler();
+    private final BooleanSupplier inCraftingArea;
     private final BossType bossType;
+    @Getter
     private final Set<Coordinate> visitedRooms = new HashSet<>(); // Tracks visited rooms
+    // Phase whose requirements were just met and that we have not teleported for yet; 0 when none
+    private int teleportPendingForPhase;
 
     public DungeonTraversalTask(DungeonCrawler bot, BossType bossType) {
         this.bot = bot;
         this.bossType = bossType;
+        this.inCraftingArea = () -> DungeonUtils.isInCraftingArea(bot.getBossType());
+        // The tracker says when a phase becomes craftable, so there is nothing to poll until it does
+        bot.getResourceTracker().addPhaseListener(phase -> {
+            log.info("Ready for Phase {} crafting, teleport pending.", phase);
+            teleportPendingForPhase = phase;
+        });
+    }
+
+    // There is somewhere to go while this room still has a doorway node to light; the root only asks once crafting,
+    // combat and gathering have nothing to do here
+    @Override
+    public boolean validate() {
+        return DungeonUtils.getWorld().nearestObject("Node", "Light") != null;
     }
 
     @Override
@@ -31,7 +51,7 @@ public class DungeonTraversalTask extends LeafTask {
 
         // Step 1: Track visited rooms
         if (currentLocation != null && !visitedRooms.contains(currentLocation)) {
-            log.info("Entered a new room at " + currentLocation);
+            log.info("Entered a new room at {}", currentLocation);
             visitedRooms.add(currentLocation);
         } else if (currentLocation == null) {
             log.warn("Could not retrieve current location. Skipping room check.");
@@ -58,29 +78,27 @@ public class DungeonTraversalTask extends LeafTask {
      * Determines if teleporting is required based on crafting readiness.
      */
     public boolean shouldTeleport() {
-        if (!Inventory.contains("Teleport crystal")) {
+        // Only the phase being worked on counts; a reset for a new run makes the tracker unready again
+        if (teleportPendingForPhase == 0 || teleportPendingForPhase != bot.getResourceTracker().getCraftingPhase()
+                || !bot.getResourceTracker().isReadyToCraft()) {
             return false;
         }
-
-        // Check crafting phase readiness for teleport decision
-        if (bot.getCraftingPhase() == 1 && bot.getResourceTracker().isReadyToCraft()) {
-            log.info("Ready for Phase 1 crafting, initiating teleport.");
-            return true;
-        } else if (bot.getCraftingPhase() == 2 && bot.getResourceTracker().isReadyToCraft()) {
-            log.info("Ready for Phase 2 crafting, initiating teleport.");
-            return true;
+        if (!DungeonUtils.getWorld().inventoryContains(ItemCategory.TELEPORT)) {
+            return false;
         }
-        return false;
+        log.info("Ready for Phase {} crafting, initiating teleport.", teleportPendingForPhase);
+        return true;
     }
 
     /**
      * Teleports to the crafting area using the teleport crystal.
      */
     public void teleportToCraftingArea() {
-        if (Inventory.getItems("Teleport crystal").first() != null
-                && Objects.requireNonNull(Inventory.getItems("Teleport crystal").first()).interact("Activate")) {
+        SceneEntity<SpriteItem> teleportCrystal = DungeonUtils.getWorld().inventoryItem(ItemCategory.TELEPORT);
+        if (teleportCrystal != null && teleportCrystal.interact("Activate")) {
             log.info("Teleporting back to the crafting area.");
-            Execution.delayUntil(() -> DungeonUtils.isInCraftingArea(bot.getBossType()), 2000, 3000);
+            scheduler.awaitTicksUntil(inCraftingArea, 5);
+            teleportPendingForPhase = 0;
             bot.updateTaskStatus("Teleported to crafting area.");
         } else {
             log.warn("Failed to activate teleport crystal.");
@@ -96,7 +114,7 @@ public class DungeonTraversalTask extends LeafTask {
         // Check if there are needed resources to gather
         if (bot.hasNeededResource()) {
             bot.updateTaskStatus("Gathering resources...");
-            new ResourceGatheringTask(bot).execute();
+            bot.getResourceGatheringTask().execute();
             return true;
         }
 
@@ -115,11 +133,11 @@ public class DungeonTraversalTask extends LeafTask {
      * @return true if a node was successfully lit, false otherwise.
      */
     private boolean lightUnlitNode() {
-        GameObject unlitNode = GameObjects.newQuery().names("Node").actions("Light").results().nearest();
+        SceneEntity<GameObject> unlitNode = DungeonUtils.getWorld().nearestObject("Node", "Light");
 
         if (unlitNode != null && unlitNode.interact("Light")) {
-            log.info("Lighting node at " + unlitNode.getPosition());
-            Execution.delay(3000, 5000);
+            log.info("Lighting node at {}", unlitNode.getPosition());
+            scheduler.awaitTicks(7);
             return true;
         }
         return false;
@@ -0,0 +1,201 @@
+package fighter.tasks;
+
+import com.runemate.game.api.hybrid.entities.Npc;
+import com.runemate.game.api.hybrid.location.Coordinate;
+import fighter.DungeonUtils;
+import fighter.world.SceneEntity;
+import fighter.world.SceneListener;
+import fighter.world.WorldSnapshot;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Follows the NPC the bot attacked through the captures that follow, so a fight is over when the scene says so
+ * rather than after a fixed delay.
+ * <p>
+ * On every capture the target is found again by id, nearest to where it was last seen. Its health gauge reaching 0,
+ * or it starting its death animation, is the death tick: the kill is reported to the kill listeners there, with its
+ * time to kill. Death animations are learnt per NPC name from the animation playing when a gauge first reads 0, so
+ * later kills of that NPC are confirmed even by a capture that misses the gauge. The NPC leaving the scene after
+ * that is when its drop appears, and ends the engagement with the loot position set for that same tick. An NPC that
+ * leaves the scene after being damaged is a kill as well. One that leaves undamaged, or whose health has not moved
+ * for a while, is given up on. Bot thread only.
+ */
+@Log4j2(topic = "EngagementTracker")
+public class EngagementTracker implements SceneListener {
+    // NPCs move at most a tile or two per tick; any further and it is another NPC of the same kind
+    private static final int MAX_STEP_TILES = 3;
+    // Long enough to walk across a room to the target before the first hit lands
+    private static final int STALL_TICKS = 30;
+    // A death animation takes a few ticks; the NPC is treated as gone if it somehow outlasts this
+    private static final int MAX_DEATH_TICKS = 10;
+    // About a room; a drop further away than this was left behind, e.g. by a teleport or a death
+    private static final int LOOT_REACH_TILES = 16;
+
+    private final NpcClassifier classifier;
+    private final List<KillListener> killListeners = new ArrayList<>();
+    // Death animation by NPC name, as seen on the tick a gauge read 0
+    private final Map<String, Integer> deathAnimations = new HashMap<>();
+
+    // The engagement in progress; targetId is -1 when there is none
+    private int targetId = -1;
+    @Getter
+    private String targetName;
+    private NpcCategory targetCategory;
+    private Coordinate lastPosition;
+    private long lastSeenTick;
+    private long engagedTick;
+    private int lastHealth;
+    private long lastProgressTick;
+    private long deathTick = -1;
+
+    // Where the last kill's drop appeared, until taken
+    private Coordinate lootPosition;
+
+    public EngagementTracker(NpcClassifier classifier) {
+        this.classifier = classifier;
+    }
+
+    public void addKillListener(KillListener listener) {
+        killListeners.add(listener);
+    }
+
+    // Starts following the target; called right after the attack was sent
+    public void engage(SceneEntity<Npc> target) {
+        if (target == null || target.getPosition() == null) {
+            return;
+        }
+        if (targetId != -1 && (target.getId() != targetId || !target.getPosition().equals(lastPosition))) {
+            log.debug("Switching from {} to {} before it died.", targetName, target.getName());
+        }
+        long tick = tick();
+        targetId = target.getId();
+        targetName = target.getName();
+        targetCategory = classifier.classify(target);
+        lastPosition = target.getPosition();
+        lastSeenTick = tick;
+        lastHealth = target.getHealthPercent();
+        lastProgressTick = tick;
+        engagedTick = tick;
+        deathTick = -1;
+    }
+
+    // Whether a fight is still under way, dying target included; reads the world first, so this reflects the
+    // current tick's capture
+    public boolean isEngaged() {
+        DungeonUtils.getWorld();
+        return targetId != -1;
+    }
+
+    // Whether a kill's drop is waiting to be picked up nearby; reads the world first, like isEngaged
+    public boolean hasLoot() {
+        Coordinate player = DungeonUtils.getWorld().getPlayerPosition();
+        if (lootPosition != null && (player == null || player.getPlane() != lootPosition.getPlane()
+                || Math.max(Math.abs(player.getX() - lootPosition.getX()),
+                Math.abs(player.getY() - lootPosition.getY())) > LOOT_REACH_TILES)) {
+            lootPosition = null;
+        }
+        return lootPosition != null;
+    }
+
+    // The position of a kill's drop, once per kill; null if no drop is waiting to be picked up
+    public Coordinate takeLootPosition() {
+        Coordinate position = lootPosition;
+        lootPosition = null;
+        return position;
+    }
+
+    @Override
+    public void onSceneCaptured(WorldSnapshot world) {
+        if (targetId == -1) {
+            return;
+        }
+        long tick = tick();
+        SceneEntity<Npc> target = find(world, tick);
+        if (target == null) {
+            // Gone from the scene: dead if it had been hurt, otherwise out of reach
+            if (deathTick >= 0 || (lastHealth >= 0 && lastHealth < 100)) {
+                confirmKill(tick);
+                finish(lastPosition);
+            } else {
+                log.info("Lost track of {} before it was damaged.", targetName);
+                finish(null);
+            }
+            return;
+        }
+
+        lastPosition = target.getPosition();
+        lastSeenTick = tick;
+        int health = target.getHealthPercent();
+        if (health != lastHealth && health >= 0) {
+            lastHealth = health;
+            lastProgressTick = tick;
+        }
+        int animation = target.getAnimationId();
+        if (health == 0 && animation != -1) {
+            deathAnimations.putIfAbsent(targetName, animation);
+        }
+        if (deathTick < 0 && (health == 0 || isDeathAnimation(animation))) {
+            confirmKill(tick);
+        } else if (deathTick >= 0 && tick - deathTick > MAX_DEATH_TICKS) {
+            finish(lastPosition);
+        } else if (deathTick < 0 && tick - lastProgressTick > STALL_TICKS) {
+            log.info("No progress on {} for {} ticks; disengaging.", targetName, tick - lastProgressTick);
+            finish(null);
+        }
+    }
+
+    // The target in this capture: same id, nearest to where it was last seen and close enough to be the same NPC
+    private SceneEntity<Npc> find(WorldSnapshot world, long tick) {
+        long reach = MAX_STEP_TILES * Math.max(1, tick - lastSeenTick);
+        List<SceneEntity<Npc>> npcs = world.getNpcs();
+        SceneEntity<Npc> found = null;
+        long foundDistance = Long.MAX_VALUE;
+        for (int i = 0; i < npcs.size(); i++) {
+            SceneEntity<Npc> npc = npcs.get(i);
+            Coordinate position = npc.getPosition();
+            if (npc.getId() != targetId || position == null || position.getPlane() != lastPosition.getPlane()) {
+                continue;
+            }
+            long distance = Math.max(Math.abs(position.getX() - lastPosition.getX()),
+                    Math.abs(position.getY() - lastPosition.getY()));
+            if (distance <= reach && distance < foundDistance) {
+                found = npc;
+                foundDistance = distance;
+            }
+        }
+        return found;
+    }
+
+    private boolean isDeathAnimation(int animation) {
+        Integer death = deathAnimations.get(targetName);
+        return death != null && death == animation;
+    }
+
+    private void confirmKill(long tick) {
+        if (deathTick >= 0) {
+            return;
+        }
+        deathTick = tick;
+        long ticksToKill = tick - engagedTick;
+        log.info("Killed {} in {} ticks.", targetName, ticksToKill);
+        for (int i = 0; i < killListeners.size(); i++) {
+            killListeners.get(i).onKill(targetName, targetCategory, ticksToKill);
+        }
+    }
+
+    private void finish(Coordinate loot) {
+        lootPosition = loot;
+        targetId = -1;
+        deathTick = -1;
+    }
+
+    private static long tick() {
+        return DungeonUtils.getGamePort().getTickClock().getTick();
+    }
+}
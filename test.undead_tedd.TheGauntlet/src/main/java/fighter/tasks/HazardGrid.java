@@ -0,0 +1,153 @@
+package fighter.tasks;
+
+import com.runemate.game.api.hybrid.location.Coordinate;
+import fighter.world.SceneListener;
+import fighter.world.WorldSnapshot;
+
+import java.util.List;
+
+/**
+ * The hazardous tiles of one Hunllef room as a 144-bit set, one bit per tile in {@link BossType#tileIndex} order.
+ * <p>
+ * The set is rebuilt from every capture's spot animations in one pass over them, so asking whether a tile is safe is
+ * a shift and a mask. Choosing where to stand combines it with masks around the boss's footprint and the
+ * {@link ArenaDistanceTable} layer for where the boss stands, so the tile chosen is the nearest by walking around
+ * the boss rather than in a straight line. Bot thread only.
+ */
+public class HazardGrid implements SceneListener {
+    private static final int WORDS = ArenaDistanceTable.WORDS;
+
+    private final BossType bossType;
+    private final ArenaDistanceTable distances;
+    private final long[] hazards = new long[WORDS];
+    // Scratch masks for bestTile
+    private final long[] safe = new long[WORDS];
+    private final long[] inRange = new long[WORDS];
+
+    public HazardGrid(BossType bossType, ArenaDistanceTable distances) {
+        this.bossType = bossType;
+        this.distances = distances;
+    }
+
+    @Override
+    public void onSceneCaptured(WorldSnapshot world) {
+        for (int i = 0; i < WORDS; i++) {
+            hazards[i] = 0;
+        }
+        List<Coordinate> spotAnimations = world.getSpotAnimationPositions();
+        for (int i = 0; i < spotAnimations.size(); i++) {
+            int index = bossType.tileIndex(spotAnimations.get(i));
+            if (index >= 0) {
+                hazards[index >>> 6] |= 1L << index;
+            }
+        }
+    }
+
+    public boolean isHazard(Coordinate coordinate) {
+        int index = bossType.tileIndex(coordinate);
+        return index >= 0 && (hazards[index >>> 6] & 1L << index) != 0;
+    }
+
+    public int getHazardCount() {
+        int count = 0;
+        for (int i = 0; i < WORDS; i++) {
+            count += Long.bitCount(hazards[i]);
+        }
+        return count;
+    }
+
+    /**
+     * The safe tile the player can walk to in the fewest steps from from: off every hazard, clear of the boss by more
+     * than keepOff tiles and within attackRange of it, so the fight goes on from there. A tile the player can reach
+     * within this tick comes first, range being given up before that; only when nothing within a tick's run is safe
+     * does it look further out, again range before safety. Hazards only hurt on the tile a tick ends on, so running
+     * over one on the way is harmless.
+     *
+     * @param boss the southwest tile of the boss's footprint, or null if the boss is not in view
+     * @return null if from is outside the room or nothing safe can be reached
+     */
+    public Coordinate bestTile(Coordinate from, Coordinate boss, int keepOff, int attackRange) {
+        int fromIndex = bossType.tileIndex(from);
+        if (fromIndex < 0) {
+            return null;
+        }
+        int bossIndex = bossType.tileIndex(boss);
+        int layer = distances.layer(bossIndex);
+        for (int word = 0; word < WORDS; word++) {
+            safe[word] = ~hazards[word] & (word == WORDS - 1 ? ArenaDistanceTable.LAST_WORD_MASK : -1L);
+            inRange[word] = 0;
+        }
+        if (bossIndex >= 0) {
+            int bossX = bossIndex % BossType.ROOM_SIZE;
+            int bossY = bossIndex / BossType.ROOM_SIZE;
+            // Tiles within keepOff of the footprint are never safe; the range mask doubles as scratch for them
+            fillAround(inRange, bossX, bossY, keepOff);
+            for (int word = 0; word < WORDS; word++) {
+                safe[word] &= ~inRange[word];
+                inRange[word] = 0;
+            }
+            fillAround(inRange, bossX, bossY, attackRange);
+            for (int word = 0; word < WORDS; word++) {
+                inRange[word] &= safe[word];
+            }
+        }
+        int index = nearest(layer, fromIndex, inRange, true);
+        if (index < 0) {
+            index = nearest(layer, fromIndex, safe, true);
+        }
+        if (index < 0) {
+            index = nearest(layer, fromIndex, inRange, false);
+        }
+        if (index < 0) {
+            index = nearest(layer, fromIndex, safe, false);
+        }
+        return index >= 0 ? bossType.tile(index) : null;
+    }
+
+    // Walking ticks between two room tiles around the boss, Integer.MAX_VALUE if either is outside the room or there
+    // is no way through
+    public int ticksBetween(Coordinate from, Coordinate to, Coordinate boss) {
+        int fromIndex = bossType.tileIndex(from);
+        int toIndex = bossType.tileIndex(to);
+        return fromIndex < 0 || toIndex < 0 ? Integer.MAX_VALUE
+                : distances.ticks(distances.layer(bossType.tileIndex(boss)), fromIndex, toIndex);
+    }
+
+    // The tile of the mask the fewest steps from the source, only among those within a tick's run if withinTick; -1 if
+    // none can be reached
+    private int nearest(int layer, int source, long[] mask, boolean withinTick) {
+        int best = -1;
+        int bestSteps = Integer.MAX_VALUE;
+        for (int word = 0; word < WORDS; word++) {
+            long candidates = withinTick ? mask[word] & distances.reach(layer, source, word) : mask[word];
+            for (; candidates != 0; candidates &= candidates - 1) {
+                int index = word * 64 + Long.numberOfTrailingZeros(candidates);
+                int walk = distances.steps(layer, source, index);
+                if (walk != ArenaDistanceTable.UNREACHABLE && walk < bestSteps) {
+                    best = index;
+                    bestSteps = walk;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Sets every room tile within radius of the boss footprint standing on (x, y), one run of bits per row
+    private static void fillAround(long[] mask, int x, int y, int radius) {
+        int left = Math.max(0, x - radius);
+        int right = Math.min(BossType.ROOM_SIZE - 1, x + BossType.BOSS_SIZE - 1 + radius);
+        int bottom = Math.max(0, y - radius);
+        int top = Math.min(BossType.ROOM_SIZE - 1, y + BossType.BOSS_SIZE - 1 + radius);
+        for (int row = bottom; row <= top && left <= right; row++) {
+            int start = row * BossType.ROOM_SIZE + left;
+            int length = right - left + 1;
+            while (length > 0) {
+                int bit = start & 63;
+                int run = Math.min(length, 64 - bit);
+                mask[start >>> 6] |= (run == 64 ? -1L : (1L << run) - 1) << bit;
+                start += run;
+                length -= run;
+            }
+        }
+    }
+}
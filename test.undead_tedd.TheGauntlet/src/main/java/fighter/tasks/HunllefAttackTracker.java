@@ -0,0 +1,183 @@
+package fighter.tasks;
+
+import com.runemate.game.api.hybrid.entities.Npc;
+import com.runemate.game.api.osrs.local.hud.interfaces.Prayer;
+import fighter.DungeonUtils;
+import fighter.game.GamePort;
+import fighter.world.SceneEntity;
+import fighter.world.SceneListener;
+import fighter.world.WorldSnapshot;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Counts the Hunllef's attacks from its projectiles and keeps the matching protection prayer up.
+ * <p>
+ * The Hunllef opens with ranged and changes between ranged and magic after every fourth attack, the prayer-disable
+ * attack counting as a magic one. A projectile that was not in flight at the previous capture is a new attack, so
+ * the count follows the boss rather than how often the tree runs. The fourth attack of a style moves the protection
+ * over straight away, a whole attack ahead of the style change. An attack of the other style than expected, or the
+ * boss's style-switch animation, puts the count back in step.
+ * <p>
+ * Captures only update the count; nothing is done to the game from inside one. Once the fight task calls
+ * {@link #watch()}, an action queued on the scheduler for the start of every tick captures the scene, so no attack
+ * goes uncounted however busy the tree is, and switches to the protection the count calls for. That also turns the
+ * prayer back on the tick after a prayer-disable attack lands. It stops once the boss is out of sight. Bot thread only.
+ */
+@Log4j2(topic = "HunllefAttackTracker")
+public class HunllefAttackTracker implements SceneListener {
+    private static final int ATTACKS_PER_STYLE = 4;
+
+    // Projectile kinds, indexing the per-kind counts
+    private static final int MAGIC = 0;
+    private static final int RANGED = 1;
+    private static final int PRAYER_DISABLE = 2;
+    private static final int KINDS = 3;
+
+    // Boss animations on changing style, ahead of the first attack in the new one
+    private static final int SWITCH_TO_MAGIC_ANIMATION = 8754;
+    private static final int SWITCH_TO_RANGED_ANIMATION = 8755;
+
+    private final NpcClassifier classifier;
+
+    // Projectiles of each kind in flight at the previous capture, and at this one
+    private final int[] inFlight = new int[KINDS];
+    private final int[] counted = new int[KINDS];
+    private int lastAnimation = -1;
+    private boolean fighting;
+    private boolean watching;
+    // Queued for the start of every tick of the fight, so made once
+    private final Runnable keepProtected = this::keepProtected;
+
+    @Getter
+    private boolean magicPhase;
+    @Getter
+    private int attacksThisStyle;
+    @Getter
+    private long attacks;
+    @Getter
+    private long prayerDisables;
+    @Getter
+    private long resyncs;
+
+    public HunllefAttackTracker(NpcClassifier classifier) {
+        this.classifier = classifier;
+    }
+
+    // The protection prayer for the boss's current style
+    public Prayer getProtection() {
+        return magicPhase ? Prayer.PROTECT_FROM_MAGIC : Prayer.PROTECT_FROM_MISSILES;
+    }
+
+    // Puts the protection up now and keeps it in step at the start of every tick until the boss is out of sight
+    public void watch() {
+        if (!watching) {
+            watching = true;
+            keepProtected();
+        }
+    }
+
+    // Reading the world captures this tick's scene if nobody has yet, which counts any new attacks
+    private void keepProtected() {
+        DungeonUtils.getWorld();
+        if (!fighting) {
+            watching = false;
+            return;
+        }
+        GamePort game = DungeonUtils.getGamePort();
+        Prayer protection = getProtection();
+        if (!game.isPrayerActive(protection) && game.activatePrayer(protection)) {
+            log.info("Switched to {}.", protection);
+        }
+        DungeonUtils.getScheduler().runNextTick(keepProtected);
+    }
+
+    @Override
+    public void onSceneCaptured(WorldSnapshot world) {
+        SceneEntity<Npc> boss = classifier.nearest(world, NpcCategory.BOSS);
+        if (boss == null) {
+            if (fighting) {
+                log.info("Hunllef out of sight after {} attacks, {} prayer disables, {} resyncs.", attacks,
+                        prayerDisables, resyncs);
+                reset();
+            }
+            return;
+        }
+        fighting = true;
+
+        for (int kind = 0; kind < KINDS; kind++) {
+            counted[kind] = 0;
+        }
+        for (int i = 0; i < world.getProjectileCount(); i++) {
+            int kind = kindOf(world.getProjectileId(i));
+            if (kind >= 0) {
+                counted[kind]++;
+            }
+        }
+        for (int kind = 0; kind < KINDS; kind++) {
+            for (int launched = counted[kind] - inFlight[kind]; launched > 0; launched--) {
+                onAttack(kind);
+            }
+            inFlight[kind] = counted[kind];
+        }
+
+        int animation = boss.getAnimationId();
+        if (animation != lastAnimation) {
+            if (animation == SWITCH_TO_MAGIC_ANIMATION && !magicPhase) {
+                resync(true);
+            } else if (animation == SWITCH_TO_RANGED_ANIMATION && magicPhase) {
+                resync(false);
+            }
+            lastAnimation = animation;
+        }
+    }
+
+    private void onAttack(int kind) {
+        boolean magic = kind != RANGED;
+        if (kind == PRAYER_DISABLE) {
+            prayerDisables++;
+            log.info("Prayer-disable attack; prayer goes back on once it lands.");
+        }
+        if (magic != magicPhase) {
+            resync(magic);
+        }
+        attacks++;
+        attacksThisStyle++;
+        if (attacksThisStyle == ATTACKS_PER_STYLE) {
+            magicPhase = !magicPhase;
+            attacksThisStyle = 0;
+            log.info("Fourth attack seen; the Hunllef goes {} next.", magicPhase ? "magic" : "ranged");
+        }
+    }
+
+    // The boss is in a style other than counted: start counting that style from nothing
+    private void resync(boolean magic) {
+        log.debug("Attack count out of step; the Hunllef is on {}.", magic ? "magic" : "ranged");
+        magicPhase = magic;
+        attacksThisStyle = 0;
+        resyncs++;
+    }
+
+    private void reset() {
+        fighting = false;
+        magicPhase = false;
+        attacksThisStyle = 0;
+        attacks = 0;
+        prayerDisables = 0;
+        resyncs = 0;
+        lastAnimation = -1;
+        for (int kind = 0; kind < KINDS; kind++) {
+            inFlight[kind] = 0;
+        }
+    }
+
+    // Crystalline and corrupted projectiles alike
+    private static int kindOf(int spotAnimationId) {
+        return switch (spotAnimationId) {
+            case 1707, 1708 -> MAGIC;
+            case 1711, 1712 -> RANGED;
+            case 1713, 1714 -> PRAYER_DISABLE;
+            default -> -1;
+        };
+    }
+}
@@ -3,7 +3,7 @@ package fighter.tasks;
 import com.runemate.game.api.script.framework.tree.LeafTask;
 import lombok.extern.log4j.Log4j2;
 
-@Log4j2
+@Log4j2(topic = "IdleTask")
 public class IdleTask extends LeafTask {
 
     @Override
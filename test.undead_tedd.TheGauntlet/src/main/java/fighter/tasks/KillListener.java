@@ -0,0 +1,8 @@
+package fighter.tasks;
+
+// Told on the tick an engaged NPC is confirmed dead, with how many ticks it took from the attack; called on the bot
+// thread while a capture is being processed, so keep it short
+@FunctionalInterface
+public interface KillListener {
+    void onKill(String npcName, NpcCategory category, long ticksToKill);
+}
@@ -0,0 +1,193 @@
+package fighter.tasks;
+
+import com.runemate.game.api.hybrid.local.hud.interfaces.Equipment;
+import com.runemate.game.api.hybrid.local.hud.interfaces.SpriteItem;
+import fighter.DungeonUtils;
+import fighter.world.InventoryChangeListener;
+import fighter.world.SceneEntity;
+import fighter.world.WorldSnapshot;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * What the player is wearing, and the best gear the inventory could put on instead.
+ * <p>
+ * Each slot is read from the game once, the first time it matters, and after that is only updated from equipment
+ * changes as the inventory events report them: an item the bot wielded or wore is in its slot once it leaves the
+ * inventory, and an equipped item that comes back into the inventory has been taken off. The best gear per slot comes
+ * from a table ranking every Gauntlet weapon and armour piece by tier, built once; it is looked up again only after
+ * the inventory has changed. {@link #apply()} puts on everything that beats what is worn in one burst and waits a
+ * single tick for it to take. Bot thread only.
+ */
+@Log4j2(topic = "Loadout")
+public class Loadout implements InventoryChangeListener {
+    private static final Equipment.Slot[] SLOTS = {Equipment.Slot.WEAPON, Equipment.Slot.HEAD, Equipment.Slot.BODY,
+            Equipment.Slot.LEGS};
+    private static final int WEAPON = 0;
+    private static final int HEAD = 1;
+    private static final int BODY = 2;
+    private static final int LEGS = 3;
+    private static final int MELEE_RANGE = 1;
+    private static final int HALBERD_RANGE = 2;
+    private static final int RANGED_RANGE = 10; // Bows and staves alike
+
+    private static final class Gear {
+        private final int slot;
+        private final int rank; // Higher is better; 0 is reserved for unranked or nothing
+        private final int range; // Attack range in tiles, weapons only
+        private final String action;
+
+        private Gear(int slot, int rank, int range) {
+            this.slot = slot;
+            this.rank = rank;
+            this.range = range;
+            this.action = slot == WEAPON ? "Wield" : "Wear";
+        }
+    }
+
+    // Every ranked item by lower-case name; names without a tier are the basic tier
+    private static final Map<String, Gear> GEAR = new HashMap<>();
+
+    static {
+        String[] tierSuffixes = {"", " (basic)", " (attuned)", " (perfected)"};
+        int[] tiers = {1, 1, 2, 3};
+        for (String variant : new String[]{"Crystal", "Crystalline", "Corrupted"}) {
+            rank(variant + " Sceptre", WEAPON, 1, MELEE_RANGE);
+            for (int i = 0; i < tierSuffixes.length; i++) {
+                // Within a tier the staff comes first, then the bow, as the weapons were always chosen
+                int weaponRank = tiers[i] * 10;
+                rank(variant + " Halberd" + tierSuffixes[i], WEAPON, weaponRank + 1, HALBERD_RANGE);
+                rank(variant + " Bow" + tierSuffixes[i], WEAPON, weaponRank + 2, RANGED_RANGE);
+                rank(variant + " Staff" + tierSuffixes[i], WEAPON, weaponRank + 3, RANGED_RANGE);
+                rank(variant + " Helm" + tierSuffixes[i], HEAD, tiers[i], 0);
+                rank(variant + " Body" + tierSuffixes[i], BODY, tiers[i], 0);
+                rank(variant + " Legs" + tierSuffixes[i], LEGS, tiers[i], 0);
+            }
+        }
+    }
+
+    private static void rank(String name, int slot, int rank, int range) {
+        GEAR.put(name.toLowerCase(Locale.ROOT), new Gear(slot, rank, range));
+    }
+
+    // What is worn per slot, valid for the slots in knownSlots; null for an empty slot
+    private final String[] equipped = new String[SLOTS.length];
+    private int knownSlots;
+    // Items sent to a slot whose arrival the inventory has not confirmed yet
+    private final String[] pending = new String[SLOTS.length];
+
+    // The best ranked item per slot in the inventory, worked out again only after the inventory changed
+    private final String[] best = new String[SLOTS.length];
+    private final int[] bestRank = new int[SLOTS.length];
+    private boolean inventoryChanged = true;
+
+    public String getEquipped(Equipment.Slot slot) {
+        for (int i = 0; i < SLOTS.length; i++) {
+            if (SLOTS[i] == slot) {
+                return equippedIn(i);
+            }
+        }
+        return DungeonUtils.getGamePort().getEquippedItemName(slot);
+    }
+
+    // How far the wielded weapon reaches; melee range for anything unranked or bare hands
+    public int getAttackRange() {
+        Gear weapon = gearOf(equippedIn(WEAPON));
+        return weapon != null ? weapon.range : MELEE_RANGE;
+    }
+
+    /**
+     * Wields and wears every item in the inventory that beats what is worn in its slot, clicking them all within one
+     * tick, then waits for that tick to pass.
+     *
+     * @return how many items were put on
+     */
+    public int apply() {
+        WorldSnapshot world = DungeonUtils.getWorld();
+        rankInventory(world);
+        int changed = 0;
+        for (int slot = 0; slot < SLOTS.length; slot++) {
+            String worn = equippedIn(slot);
+            if (best[slot] == null || bestRank[slot] <= rankOf(worn)) {
+                continue;
+            }
+            SceneEntity<SpriteItem> item = world.inventoryItem(best[slot]);
+            if (item != null && item.interact(gearOf(best[slot]).action)) {
+                log.info("Equipping {} in place of {}", best[slot], worn != null ? worn : "nothing");
+                pending[slot] = best[slot];
+                changed++;
+            }
+        }
+        if (changed > 0) {
+            DungeonUtils.getScheduler().nextTick();
+        }
+        return changed;
+    }
+
+    // Forgets what is worn, e.g. when a new run starts with fresh gear; each slot is read from the game again
+    public void forget() {
+        knownSlots = 0;
+        for (int i = 0; i < SLOTS.length; i++) {
+            pending[i] = null;
+        }
+        inventoryChanged = true;
+    }
+
+    @Override
+    public void onInventoryChanged(String itemName, int quantityDelta) {
+        inventoryChanged = true;
+        Gear gear = gearOf(itemName);
+        if (gear == null) {
+            return;
+        }
+        int slot = gear.slot;
+        if (quantityDelta < 0 && itemName.equals(pending[slot])) {
+            equipped[slot] = itemName;
+            knownSlots |= 1 << slot;
+            pending[slot] = null;
+        } else if (quantityDelta > 0 && (knownSlots & 1 << slot) != 0 && itemName.equals(equipped[slot])) {
+            equipped[slot] = null;
+        }
+    }
+
+    private String equippedIn(int slot) {
+        if ((knownSlots & 1 << slot) == 0) {
+            equipped[slot] = DungeonUtils.getGamePort().getEquippedItemName(SLOTS[slot]);
+            knownSlots |= 1 << slot;
+        }
+        return equipped[slot];
+    }
+
+    private void rankInventory(WorldSnapshot world) {
+        if (!inventoryChanged) {
+            return;
+        }
+        for (int slot = 0; slot < SLOTS.length; slot++) {
+            best[slot] = null;
+            bestRank[slot] = 0;
+        }
+        List<SceneEntity<SpriteItem>> inventory = world.getInventory();
+        for (int i = 0; i < inventory.size(); i++) {
+            String name = inventory.get(i).getName();
+            Gear gear = gearOf(name);
+            if (gear != null && gear.rank > bestRank[gear.slot]) {
+                best[gear.slot] = name;
+                bestRank[gear.slot] = gear.rank;
+            }
+        }
+        inventoryChanged = false;
+    }
+
+    private static int rankOf(String name) {
+        Gear gear = gearOf(name);
+        return gear != null ? gear.rank : 0;
+    }
+
+    private static Gear gearOf(String name) {
+        return name != null ? GEAR.get(name.toLowerCase(Locale.ROOT)) : null;
+    }
+}
@@ -0,0 +1,213 @@
+package fighter.tasks;
+
+import com.runemate.game.api.hybrid.entities.GroundItem;
+import com.runemate.game.api.hybrid.location.Coordinate;
+import fighter.DungeonUtils;
+import fighter.game.ActionScheduler;
+import fighter.tasks.tracking.GauntletResource;
+import fighter.tasks.tracking.ResourceTracker;
+import fighter.world.InventoryIndex;
+import fighter.world.SceneEntity;
+import fighter.world.WorldSnapshot;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Picks up the ground items the run still needs as one batch: filtered by need, fitted to the free inventory slots,
+ * and visited along a nearest-neighbour path from the player.
+ * <p>
+ * The plan is made from a single capture. A pile is kept while the tracker still needs its resource, counting what
+ * the piles already planned will add, and high-priority loot (frames, orbs, bowstrings) is chosen before the rest
+ * while slots last; a stackable resource already in the inventory takes no slot. If high-priority loot still does
+ * not fit, raw paddlefish are dropped for it. Each pickup is sent as soon as the previous pile has left the ground,
+ * waiting on ticks rather than fixed delays. Piles are kept as name and position, since entities are rewritten by
+ * every capture. Bot thread only.
+ */
+@Log4j2(topic = "LootPlanner")
+public class LootPlanner {
+    private static final int MAX_PILES = WorldSnapshot.INVENTORY_SIZE;
+    // On top of the walk there at two tiles per tick
+    private static final int PICKUP_SLACK_TICKS = 2;
+    private static final String RAW_PADDLEFISH = "Raw Paddlefish";
+
+    private final ResourceTracker tracker;
+    private final ActionScheduler scheduler;
+
+    // The plan, in pickup order
+    private final String[] names = new String[MAX_PILES];
+    private final Coordinate[] positions = new Coordinate[MAX_PILES];
+    private int piles;
+    private int paddlefishToDrop;
+
+    // Scratch space reused between plans: quantities planned per resource, and ground item indexes
+    private final int[] planned = new int[GauntletResource.count()];
+    private int[] candidates = new int[32];
+    private final boolean[] visited = new boolean[MAX_PILES];
+    private final String[] chosenNames = new String[MAX_PILES];
+    private final Coordinate[] chosenPositions = new Coordinate[MAX_PILES];
+
+    // The pile being picked up and how many were on its tile, read by a wait condition made once
+    private int taking;
+    private int pilesThere;
+    private final BooleanSupplier pileTaken =
+            () -> countAt(DungeonUtils.getWorld(), names[taking], positions[taking]) < pilesThere;
+
+    public LootPlanner(ResourceTracker tracker, ActionScheduler scheduler) {
+        this.tracker = tracker;
+        this.scheduler = scheduler;
+    }
+
+    // Plans from the current capture and picks everything up; returns how many piles were taken
+    public int collect() {
+        WorldSnapshot world = DungeonUtils.getWorld();
+        plan(world);
+        if (piles == 0) {
+            return 0;
+        }
+        log.info("Looting {} piles.", piles);
+        if (paddlefishToDrop > 0) {
+            log.info("Dropping {} raw paddlefish to make space for high-priority loot.", paddlefishToDrop);
+            dropPaddlefish(world);
+        }
+
+        int taken = 0;
+        for (int i = 0; i < piles; i++) {
+            String name = names[i];
+            Coordinate position = positions[i];
+            world = DungeonUtils.getWorld();
+            SceneEntity<GroundItem> pile = groundItemAt(world, name, position);
+            if (pile == null) {
+                continue; // Already gone
+            }
+            // Several piles of one item can share a tile, so wait for one fewer rather than for none
+            taking = i;
+            pilesThere = countAt(world, name, position);
+            int walkTicks = (int) Math.ceil(world.distanceTo(pile) / 2);
+            if (pile.interact("Take") && scheduler.awaitTicksUntil(pileTaken, walkTicks + PICKUP_SLACK_TICKS)) {
+                taken++;
+            } else {
+                log.debug("Could not take {} at {}", name, position);
+            }
+        }
+        return taken;
+    }
+
+    private void plan(WorldSnapshot world) {
+        piles = 0;
+        paddlefishToDrop = 0;
+        Arrays.fill(planned, 0);
+        InventoryIndex inventory = world.getInventoryIndex();
+        int freeSlots = inventory.getFreeSlots();
+        int spareFish = inventory.quantity(RAW_PADDLEFISH);
+
+        // Everything worth picking up at all
+        List<SceneEntity<GroundItem>> groundItems = world.getGroundItems();
+        int count = 0;
+        for (int i = 0; i < groundItems.size(); i++) {
+            String name = groundItems.get(i).getName();
+            if (name != null && GauntletResource.fromName(name) != null) {
+                if (count == candidates.length) {
+                    candidates = Arrays.copyOf(candidates, count * 2);
+                }
+                candidates[count++] = i;
+            }
+        }
+
+        // High-priority loot first, so it gets the slots when they run short
+        int chosen = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            boolean highPriority = pass == 0;
+            for (int c = 0; c < count && chosen < MAX_PILES; c++) {
+                SceneEntity<GroundItem> item = groundItems.get(candidates[c]);
+                String name = item.getName();
+                if (DungeonUtils.isHighPriorityLoot(name) != highPriority) {
+                    continue;
+                }
+                GauntletResource resource = GauntletResource.fromName(name);
+                if (resource == null || tracker.getRemaining(resource) <= planned[resource.ordinal()]) {
+                    continue; // Enough of it already held or planned
+                }
+                boolean needsSlot = !resource.isStackable()
+                        || (planned[resource.ordinal()] == 0 && !inventory.contains(name));
+                if (needsSlot) {
+                    if (freeSlots > 0) {
+                        freeSlots--;
+                    } else if (highPriority && spareFish > 0) {
+                        spareFish--;
+                        paddlefishToDrop++;
+                    } else {
+                        log.debug("No slot left for {}", name);
+                        continue;
+                    }
+                }
+                planned[resource.ordinal()] += item.getQuantity();
+                chosenNames[chosen] = name;
+                chosenPositions[chosen] = item.getPosition();
+                chosen++;
+            }
+        }
+
+        // Nearest neighbour from the player: each pile is followed by the closest one not yet visited
+        Arrays.fill(visited, 0, chosen, false);
+        Coordinate from = world.getPlayerPosition();
+        for (int step = 0; step < chosen; step++) {
+            int next = -1;
+            double nextDistance = Double.MAX_VALUE;
+            for (int i = 0; i < chosen; i++) {
+                if (visited[i]) {
+                    continue;
+                }
+                double distance = from != null && chosenPositions[i] != null ? from.distanceTo(chosenPositions[i]) : 0;
+                if (distance < nextDistance) {
+                    next = i;
+                    nextDistance = distance;
+                }
+            }
+            visited[next] = true;
+            names[piles] = chosenNames[next];
+            positions[piles] = chosenPositions[next];
+            piles++;
+            if (chosenPositions[next] != null) {
+                from = chosenPositions[next];
+            }
+        }
+    }
+
+    private void dropPaddlefish(WorldSnapshot world) {
+        InventoryIndex inventory = world.getInventoryIndex();
+        int dropped = 0;
+        for (int slots = inventory.slotMask(RAW_PADDLEFISH); slots != 0 && dropped < paddlefishToDrop; slots &= slots - 1) {
+            if (inventory.item(Integer.numberOfTrailingZeros(slots)).interact("Drop")) {
+                dropped++;
+            }
+        }
+        // The slots are free once the drops have gone through
+        scheduler.nextTick();
+    }
+
+    private static int countAt(WorldSnapshot world, String name, Coordinate position) {
+        List<SceneEntity<GroundItem>> groundItems = world.getGroundItems();
+        int count = 0;
+        for (int i = 0; i < groundItems.size(); i++) {
+            SceneEntity<GroundItem> item = groundItems.get(i);
+            if (name.equals(item.getName()) && (position == null || position.equals(item.getPosition()))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static SceneEntity<GroundItem> groundItemAt(WorldSnapshot world, String name, Coordinate position) {
+        List<SceneEntity<GroundItem>> groundItems = world.getGroundItems();
+        for (int i = 0; i < groundItems.size(); i++) {
+            SceneEntity<GroundItem> item = groundItems.get(i);
+            if (name.equals(item.getName()) && (position == null || position.equals(item.getPosition()))) {
+                return item;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,13 @@
+package fighter.tasks;
+
+// What an NPC in the Gauntlet is to the bot; the bit is for passing a set of categories as one int
+public enum NpcCategory {
+    WEAK_MONSTER,
+    DEMI_BOSS,
+    BOSS,
+    OTHER;
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+}
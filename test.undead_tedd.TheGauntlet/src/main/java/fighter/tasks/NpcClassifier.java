@@ -0,0 +1,174 @@
+package fighter.tasks;
+
+import com.runemate.game.api.hybrid.entities.Npc;
+import fighter.tasks.tracking.GauntletResource;
+import fighter.tasks.tracking.ResourceTracker;
+import fighter.world.SceneEntity;
+import fighter.world.WorldSnapshot;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classifies the NPCs of a world snapshot from one table of every Gauntlet NPC the bot cares about, and picks the
+ * best target in a single pass over them.
+ * <p>
+ * Each name maps to a profile: the NPC's category, the shards a kill is expected to give and, for demi-bosses, the
+ * unique drop they are killed for. The profile an NPC id resolved to is remembered, so after the first sighting an
+ * NPC is classified by an array probe rather than a string hash. A candidate's score is what a kill would still
+ * contribute to the current phase's deficits, divided by how far away it is. Bot thread only.
+ */
+public class NpcClassifier {
+    // Rough averages; only their size relative to each other and to the unique drop matters for ranking
+    private static final int WEAK_MONSTER_SHARDS = 10;
+    private static final int DEMI_BOSS_SHARDS = 20;
+    // A needed unique drop outweighs any number of shards, since only a demi-boss can provide it
+    private static final int UNIQUE_DROP_VALUE = 1000;
+    private static final int BOSS_VALUE = 10_000;
+    private static final int ID_TABLE_SIZE = 128; // Power of two
+
+    private static final class Profile {
+        private final NpcCategory category;
+        private final int shardYield;
+        private final GauntletResource uniqueDrop;
+
+        private Profile(NpcCategory category, int shardYield, GauntletResource uniqueDrop) {
+            this.category = category;
+            this.shardYield = shardYield;
+            this.uniqueDrop = uniqueDrop;
+        }
+    }
+
+    private static final Profile OTHER = new Profile(NpcCategory.OTHER, 0, null);
+    private static final Map<String, Profile> BY_NAME = new HashMap<>();
+
+    static {
+        for (String variant : new String[]{"Crystalline", "Corrupted"}) {
+            Profile weak = new Profile(NpcCategory.WEAK_MONSTER, WEAK_MONSTER_SHARDS, null);
+            BY_NAME.put(variant + " Rat", weak);
+            BY_NAME.put(variant + " Spider", weak);
+            BY_NAME.put(variant + " Bat", weak);
+        }
+        BY_NAME.put("Crystalline Dragon", new Profile(NpcCategory.DEMI_BOSS, DEMI_BOSS_SHARDS,
+                GauntletResource.CRYSTALLINE_ORB));
+        BY_NAME.put("Corrupted Dragon", new Profile(NpcCategory.DEMI_BOSS, DEMI_BOSS_SHARDS,
+                GauntletResource.CORRUPTED_ORB));
+        BY_NAME.put("Crystalline Dark Beast", new Profile(NpcCategory.DEMI_BOSS, DEMI_BOSS_SHARDS,
+                GauntletResource.CRYSTALLINE_BOWSTRING));
+        BY_NAME.put("Corrupted Dark Beast", new Profile(NpcCategory.DEMI_BOSS, DEMI_BOSS_SHARDS,
+                GauntletResource.CORRUPTED_BOWSTRING));
+        Profile boss = new Profile(NpcCategory.BOSS, 0, null);
+        BY_NAME.put("Crystalline Hunllef", boss);
+        BY_NAME.put("Crystal Hunllef", boss);
+        BY_NAME.put("Corrupted Hunllef", boss);
+    }
+
+    // Profiles already resolved, by NPC id; linear probing, and a full table just falls back to the name
+    private final int[] idKeys = new int[ID_TABLE_SIZE];
+    private final Profile[] idProfiles = new Profile[ID_TABLE_SIZE];
+    private int idsKnown;
+
+    public NpcCategory classify(SceneEntity<Npc> npc) {
+        return npc != null ? profileOf(npc).category : NpcCategory.OTHER;
+    }
+
+    // Whether killing the NPC still helps the run: shards or weapon frames while the phase is short on them, a
+    // demi-boss only while its unique drop is, or the boss once everything is crafted
+    public boolean isNeeded(SceneEntity<Npc> npc, ResourceTracker tracker) {
+        return npc != null && tracker != null && valueOf(profileOf(npc), tracker) > 0;
+    }
+
+    // The nearest NPC of the category, whether or not it is needed
+    public SceneEntity<Npc> nearest(WorldSnapshot world, NpcCategory category) {
+        List<SceneEntity<Npc>> npcs = world.getNpcs();
+        SceneEntity<Npc> nearest = null;
+        double nearestDistance = Double.MAX_VALUE;
+        for (int i = 0; i < npcs.size(); i++) {
+            SceneEntity<Npc> npc = npcs.get(i);
+            if (profileOf(npc).category == category) {
+                double distance = world.distanceTo(npc);
+                if (distance < nearestDistance) {
+                    nearest = npc;
+                    nearestDistance = distance;
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * The needed NPC, among the categories in categoryMask (see {@link NpcCategory#bit()}), whose kill is worth the
+     * most for the distance to it; null if none is needed.
+     */
+    public SceneEntity<Npc> bestTarget(WorldSnapshot world, ResourceTracker tracker, int categoryMask) {
+        List<SceneEntity<Npc>> npcs = world.getNpcs();
+        SceneEntity<Npc> best = null;
+        double bestScore = 0;
+        for (int i = 0; i < npcs.size(); i++) {
+            SceneEntity<Npc> npc = npcs.get(i);
+            Profile profile = profileOf(npc);
+            // Skip other categories, and NPCs already dying: the health gauge shows 0 until they leave the scene
+            if ((categoryMask & profile.category.bit()) == 0 || npc.getHealthPercent() == 0) {
+                continue;
+            }
+            int value = valueOf(profile, tracker);
+            if (value == 0) {
+                continue;
+            }
+            double score = value / (1.0 + world.distanceTo(npc));
+            if (score > bestScore) {
+                best = npc;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private int valueOf(Profile profile, ResourceTracker tracker) {
+        switch (profile.category) {
+            case WEAK_MONSTER:
+                // Weapon frames drop from weak monsters, so they stay worth a kill while the phase is short of one
+                return tracker.isShortFor(GauntletResource.WEAPON_FRAME) ? profile.shardYield
+                        : shardValue(profile, tracker);
+            case DEMI_BOSS:
+                // Too dangerous to farm for shards; a demi-boss is only fought in the phase that needs its drop
+                return tracker.isShortFor(profile.uniqueDrop) ? shardValue(profile, tracker) + UNIQUE_DROP_VALUE : 0;
+            case BOSS:
+                return tracker.isReadyToCraft() && tracker.isPhaseTwoCraftingComplete() ? BOSS_VALUE : 0;
+            default:
+                return 0;
+        }
+    }
+
+    private static int shardValue(Profile profile, ResourceTracker tracker) {
+        int shortfall = Math.max(tracker.getShortfall(GauntletResource.CRYSTALLINE_SHARDS),
+                tracker.getShortfall(GauntletResource.CORRUPTED_SHARDS));
+        return Math.min(profile.shardYield, shortfall);
+    }
+
+    private Profile profileOf(SceneEntity<Npc> npc) {
+        int id = npc.getId();
+        int bucket = (id * 0x9E3779B9) >>> 25;
+        for (int probe = 0; probe < ID_TABLE_SIZE; probe++) {
+            Profile known = idProfiles[bucket];
+            if (known == null) {
+                break;
+            }
+            if (idKeys[bucket] == id) {
+                return known;
+            }
+            bucket = (bucket + 1) & (ID_TABLE_SIZE - 1);
+        }
+
+        String name = npc.getName();
+        Profile profile = name != null ? BY_NAME.getOrDefault(name, OTHER) : OTHER;
+        // Remember it unless the id says nothing (e.g. a stand-in scene) or the table is getting full
+        if (id > 0 && name != null && idsKnown < ID_TABLE_SIZE / 2 && idProfiles[bucket] == null) {
+            idKeys[bucket] = id;
+            idProfiles[bucket] = profile;
+            idsKnown++;
+        }
+        return profile;
+    }
+}
@@ -1,16 +1,17 @@
 package fighter.tasks;
 
-import com.runemate.game.api.hybrid.local.hud.interfaces.Inventory;
-import com.runemate.game.api.hybrid.region.GameObjects;
-import com.runemate.game.api.script.Execution;
 import com.runemate.game.api.script.framework.tree.LeafTask;
 import fighter.DungeonCrawler;
+import fighter.DungeonUtils;
+import fighter.game.ActionScheduler;
 import lombok.extern.log4j.Log4j2;
+import org.apache.logging.log4j.Level;
 
 @Log4j2(topic = "PostBossManagementTask")
 public class PostBossManagementTask extends LeafTask {
 
     private final DungeonCrawler bot;
+    private final ActionScheduler scheduler = DungeonUtils.getScheduler();
     private static final String REWARD_CHEST = "Reward Chest";
     private static final String BANK_DEPOSIT_BOX = "Bank Deposit Box";
     private static final int MAX_INVENTORY_THRESHOLD = 20; // Number of free spaces needed to avoid depositing
@@ -26,12 +27,15 @@ public class PostBossManagementTask extends LeafTask {
 
         // Step 1: Loot the reward chest
         if (lootRewardChest()) {
+            // The chest is the end of the run
+            DungeonUtils.getRunStats().endRun();
+
             // Reset resource tracking after looting the chest
             log.info("Resetting resource tracker for the new run...");
             bot.getResourceTracker().resetForNewRun(); // Reset the resources for the new run
 
             // Step 2: Check if there are more than 20 free spaces after looting
-            int freeSpaces = 28 - Inventory.getQuantity();
+            int freeSpaces = DungeonUtils.getWorld().getInventoryIndex().getFreeSlots();
             if (freeSpaces < MAX_INVENTORY_THRESHOLD) {
                 // Not enough free spaces, deposit items
                 log.info("Not enough inventory space after looting, depositing items.");
@@ -46,15 +50,15 @@ public class PostBossManagementTask extends LeafTask {
             }
         } else {
             log.warn("No reward chest found or unable to loot.");
-            bot.updateTaskStatus("No reward chest found or unable to loot.");
+            bot.updateTaskStatus(Level.WARN, "No reward chest found or unable to loot.");
         }
     }
 
     private boolean lootRewardChest() {
-        var rewardChest = GameObjects.newQuery().names(REWARD_CHEST).results().first();
+        var rewardChest = DungeonUtils.getWorld().firstObject(REWARD_CHEST);
         if (rewardChest != null && rewardChest.interact("Loot")) {
             log.info("Looting reward chest...");
-            Execution.delay(1000); // Adjust delay based on looting speed
+            scheduler.awaitTicks(2); // Adjust based on looting speed
             return true;
         }
         log.warn("Reward chest not found.");
@@ -62,10 +66,10 @@ public class PostBossManagementTask extends LeafTask {
     }
 
     private void depositItems() {
-        var depositBox = GameObjects.newQuery().names(BANK_DEPOSIT_BOX).results().first();
+        var depositBox = DungeonUtils.getWorld().firstObject(BANK_DEPOSIT_BOX);
         if (depositBox != null && depositBox.interact("Deposit")) {
             log.info("Depositing items into the bank deposit box...");
-            Execution.delayUntil(Inventory::isEmpty, 5000, 10000); // Wait until items are deposited
+            scheduler.awaitTicksUntil(() -> DungeonUtils.getWorld().getInventoryIndex().getUsedSlots() == 0, 17); // Wait until items are deposited
             log.info("Items deposited successfully.");
         } else {
             log.warn("Bank deposit box not found.");
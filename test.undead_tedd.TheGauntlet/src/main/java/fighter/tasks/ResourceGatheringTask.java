@@ -1,26 +1,30 @@
 package fighter.tasks;
 
 import com.runemate.game.api.hybrid.local.hud.interfaces.SpriteItem;
-import com.runemate.game.api.script.Execution;
 import com.runemate.game.api.script.framework.tree.LeafTask;
 import com.runemate.game.api.hybrid.entities.GameObject;
-import com.runemate.game.api.hybrid.local.hud.interfaces.Inventory;
-import com.runemate.game.api.hybrid.region.GroundItems;
 import fighter.DungeonCrawler;
 import fighter.DungeonUtils;
+import fighter.game.ActionScheduler;
+import fighter.tasks.tracking.GauntletResource;
 import fighter.tasks.tracking.ResourceTracker;
+import fighter.world.InventoryIndex;
+import fighter.world.SceneEntity;
+import fighter.world.WorldSnapshot;
 import lombok.extern.log4j.Log4j2;
-
-import java.util.Objects;
+import org.apache.logging.log4j.Level;
 
 @Log4j2(topic = "ResourceGatheringTask")
 public class ResourceGatheringTask extends LeafTask {
     private final DungeonCrawler bot;
+    private final ActionScheduler scheduler = DungeonUtils.getScheduler();
     private final ResourceTracker tracker;
+    private final LootPlanner lootPlanner;
 
     public ResourceGatheringTask(DungeonCrawler bot) {
         this.bot = bot;
         this.tracker = bot.getResourceTracker();
+        this.lootPlanner = new LootPlanner(tracker, DungeonUtils.getScheduler());
     }
 
     @Override
@@ -29,15 +33,14 @@ public class ResourceGatheringTask extends LeafTask {
         log.info("Starting resource gathering task...");
 
         // Find a resource node based on needed resources
-        GameObject resourceNode = DungeonUtils.getNeededResourceNode();
+        SceneEntity<GameObject> resourceNode = DungeonUtils.getNeededResourceNode();
         if (resourceNode != null) {
-            String resourceName = Objects.requireNonNull(resourceNode.getDefinition()).getName();
-            log.info("Found needed resource node: " + resourceName);
-            bot.updateTaskStatus("Gathering resource: " + resourceName);
+            String resourceName = resourceNode.getName();
+            log.info("Found needed resource node: {}", resourceName);
+            bot.updateTaskStatus("Gathering resource: ", resourceName);
             if (resourceNode.interact("Gather")) {
-                Execution.delay(1000, 2000); // Wait for gathering action to complete
-                tracker.incrementResourceCount(resourceName); // Increment the gathered resource count
-                Execution.delay(500); // Small delay between actions
+                scheduler.awaitTicks(3); // Wait for gathering action to complete; the tracker counts what arrives
+                scheduler.nextTick(); // Small delay between actions
             }
         } else {
             log.info("No needed resource nodes found in this room.");
@@ -45,7 +48,7 @@ public class ResourceGatheringTask extends LeafTask {
         }
 
         // Handle inventory full case
-        if (Inventory.isFull()) {
+        if (DungeonUtils.getWorld().isInventoryFull()) {
             log.info("Inventory is full, handling resources.");
             handleFullInventory();
         }
@@ -54,24 +57,28 @@ public class ResourceGatheringTask extends LeafTask {
         manageTools();
 
         // Collect any loot that is still needed from the ground
-        collectNeededLoot();
+        lootPlanner.collect();
     }
 
     /**
      * Manage tools by dropping unnecessary ones once all resources are gathered.
      */
     private void manageTools() {
-        if (tracker.isResourceFullyGathered("Crystal Ore") && Inventory.contains("Pickaxe")) {
+        WorldSnapshot world = DungeonUtils.getWorld();
+        SceneEntity<SpriteItem> pickaxe = world.inventoryItem("Pickaxe");
+        if (tracker.isResourceFullyGathered("Crystal Ore") && pickaxe != null) {
             log.info("Dropping Pickaxe as all ores have been gathered.");
-            Objects.requireNonNull(Inventory.getItems("Pickaxe").first()).interact("Drop");
+            pickaxe.interact("Drop");
         }
-        if (tracker.isResourceFullyGathered("Phren Bark") && Inventory.contains("Hatchet")) {
+        SceneEntity<SpriteItem> hatchet = world.inventoryItem("Hatchet");
+        if (tracker.isResourceFullyGathered("Phren Bark") && hatchet != null) {
             log.info("Dropping Hatchet as all wood resources have been gathered.");
-            Objects.requireNonNull(Inventory.getItems("Hatchet").first()).interact("Drop");
+            hatchet.interact("Drop");
         }
-        if (tracker.isResourceFullyGathered("Linum Tirinium") && Inventory.contains("Hammer")) {
+        SceneEntity<SpriteItem> hammer = world.inventoryItem("Hammer");
+        if (tracker.isResourceFullyGathered("Linum Tirinium") && hammer != null) {
             log.info("Dropping Hammer as all crafting bars have been used.");
-            Objects.requireNonNull(Inventory.getItems("Hammer").first()).interact("Drop");
+            hammer.interact("Drop");
         }
     }
 
@@ -79,45 +86,33 @@ public class ResourceGatheringTask extends LeafTask {
      * Handle full inventory by dropping unneeded items or teleporting back to the spawn.
      */
     private void handleFullInventory() {
-        int paddlefishToDrop = Math.min(3, Inventory.getQuantity("Raw Paddlefish"));
+        WorldSnapshot world = DungeonUtils.getWorld();
+        int paddlefishToDrop = Math.min(3, tracker.getCount(GauntletResource.RAW_PADDLEFISH));
         int itemsDropped = 0;
 
-        // Drop 1–3 raw paddlefish if available and needed for gathering space
-        for (SpriteItem paddlefish : Inventory.getItems("Raw Paddlefish")) {
+        // Drop 1–3 raw paddlefish if available and needed for gathering space. The slots come from this tick's
+        // capture, so every drop is issued before waiting; after a tick the items may have moved
+        InventoryIndex inventory = world.getInventoryIndex();
+        for (int slots = inventory.slotMask("Raw Paddlefish"); slots != 0; slots &= slots - 1) {
             if (itemsDropped >= paddlefishToDrop) break; // Limit drops to 1–3
             log.info("Dropping raw paddlefish to make space for gathering.");
-            paddlefish.interact("Drop");
-            Execution.delay(300, 500); // Small delay between drops
-            itemsDropped++;
+            if (inventory.item(Integer.numberOfTrailingZeros(slots)).interact("Drop")) {
+                itemsDropped++;
+            }
+        }
+        if (itemsDropped > 0) {
+            scheduler.nextTick(); // The slots are free once the drops have gone through
         }
 
         // After dropping paddlefish, check if inventory is still full
-        if (Inventory.isFull()) {
+        if (DungeonUtils.getWorld().isInventoryFull()) {
             if (DungeonUtils.hasTeleportCrystal()) {
                 log.info("Teleporting back to spawn using Teleport Crystal due to full inventory.");
                 DungeonUtils.teleportBackToSpawn();
             } else {
                 log.warn("Inventory is full and no Teleport Crystal is available.");
-                bot.updateTaskStatus("Inventory full, no teleport crystal. Stopping task.");
+                bot.updateTaskStatus(Level.WARN, "Inventory full, no teleport crystal. Stopping task.");
             }
         }
     }
-
-    /**
-     * Collect loot that is still needed from the ground.
-     */
-    private void collectNeededLoot() {
-        GroundItems.newQuery().results().forEach(item -> {
-            String itemName = Objects.requireNonNull(item.getDefinition()).getName();
-            if (ResourceTracker.isNeededResource(itemName) || DungeonUtils.isHighPriorityLoot(itemName)) {
-                log.info("Looting needed item: " + itemName);
-                if (item.interact("Take")) {
-                    Execution.delay(500, 1000); // Delay for looting action
-                    tracker.incrementResourceCount(itemName); // Update tracker
-                }
-            } else {
-                log.info("Skipping unnecessary loot: " + itemName);
-            }
-        });
-    }
 }
@@ -1,29 +1,26 @@
 package fighter.tasks;
 
 import com.runemate.game.api.hybrid.entities.GameObject;
-import com.runemate.game.api.hybrid.entities.Npc;
 import com.runemate.game.api.hybrid.location.Coordinate;
-import com.runemate.game.api.hybrid.region.GameObjects;
-import com.runemate.game.api.hybrid.region.Npcs;
-import com.runemate.game.api.hybrid.region.Players;
-import com.runemate.game.api.script.Execution;
 import com.runemate.game.api.script.framework.tree.LeafTask;
-import com.runemate.pathfinder.api.MouseCamera;
 import fighter.DungeonCrawler;
 import fighter.DungeonUtils;
+import fighter.game.ActionScheduler;
+import fighter.game.GamePort;
+import fighter.world.SceneEntity;
+import fighter.world.WorldSnapshot;
 import lombok.extern.log4j.Log4j2;
-import com.runemate.game.api.hybrid.local.Camera;
-
-import java.util.Comparator;
-import java.util.Objects;
+import org.apache.logging.log4j.Level;
 
 import static fighter.DungeonUtils.newAreaIsAccessible;
 
 @Log4j2(topic = "StartingRoomCheckTask")
 public class StartingRoomCheckTask extends LeafTask {
     private final DungeonCrawler bot;
-    private static final int MAX_WAIT_TIME = 180000; // 3 minutes
-    private static final int CHECK_INTERVAL = 10000; // 10 seconds
+    private final GamePort game = DungeonUtils.getGamePort();
+    private final ActionScheduler scheduler = DungeonUtils.getScheduler();
+    private static final int MAX_WAIT_TICKS = 300; // 3 minutes
+    private static final int CHECK_INTERVAL_TICKS = 17; // About 10 seconds
 
     public StartingRoomCheckTask(DungeonCrawler bot, BossType bossType) {
         this.bot = bot;
@@ -33,10 +30,11 @@ public class StartingRoomCheckTask extends LeafTask {
     public void execute() {
         bot.updateTaskStatus("Checking for Bryn...");
         log.info("Checking for Bryn...");
-        long startTime = System.currentTimeMillis();
+        int waited = 0;
         boolean roomFound = false;
 
-        while (System.currentTimeMillis() - startTime < MAX_WAIT_TIME && !roomFound) {
+        // Count the ticks spent waiting rather than reading the wall clock, so the timeout follows the port's ticks
+        while (waited < MAX_WAIT_TICKS && !roomFound) {
             if (checkForStartingRoomElements()) {
                 bot.updateTaskStatus("Found Bryn, proceeding...");
                 setCameraSettings();
@@ -48,17 +46,21 @@ public class StartingRoomCheckTask extends LeafTask {
                         bot.updateTaskStatus("First node lit, entering normal operations...");
                         roomFound = true; // Mark room as found only after successful node lighting
                         bot.setStartingRoomChecked(true);
+                        DungeonUtils.getRunStats().startRun();
+                        DungeonUtils.getLoadout().forget(); // A new run starts with fresh gear
                     } else {
-                        bot.updateTaskStatus("Failed to light the first node.");
+                        bot.updateTaskStatus(Level.WARN, "Failed to light the first node.");
                         break;
                     }
                 } else {
                     log.warn("Failed to enter the Gauntlet. Retrying...");
-                    Execution.delay(CHECK_INTERVAL);
+                    scheduler.awaitTicks(CHECK_INTERVAL_TICKS);
+                    waited += CHECK_INTERVAL_TICKS;
                 }
             } else {
                 log.warn("Bryn or Reward Chest not found. Rechecking in 10 seconds...");
-                Execution.delay(CHECK_INTERVAL);
+                scheduler.awaitTicks(CHECK_INTERVAL_TICKS);
+                waited += CHECK_INTERVAL_TICKS;
             }
         }
 
@@ -78,10 +80,8 @@ public class StartingRoomCheckTask extends LeafTask {
             return true; // If already checked, return true
         }
 
-        Npc bryn = Npcs.newQuery().names("Bryn").results().first();
-        GameObject rewardChest = GameObjects.newQuery().names("Reward Chest").results().first();
-
-        if (bryn != null && rewardChest != null) {
+        WorldSnapshot world = DungeonUtils.getWorld();
+        if (world.firstNpc("Bryn") != null && world.firstObject("Reward Chest") != null) {
             startingRoomElementsChecked = true; // Set the flag to true
             return true;
         }
@@ -97,7 +97,7 @@ public class StartingRoomCheckTask extends LeafTask {
 
         boolean entered = DungeonUtils.enterGauntlet(bot.isEnterCorrupted());
         if (entered) {
-            Execution.delay(3000, 5000); // Additional delay to ensure successful entry
+            scheduler.awaitTicksUntil(() -> !DungeonUtils.isInStartingRoom(), 8); // Wait for the instance to load
             if (!DungeonUtils.isInStartingRoom()) {
                 log.info("Successfully entered the Gauntlet.");
                 gauntletEntered = true; // Set the flag to true
@@ -115,6 +115,17 @@ public class StartingRoomCheckTask extends LeafTask {
 
     private boolean cameraSettingsApplied = false;
 
+    // The once-only steps already done, as bits, for checkpoints
+    public int getProgress() {
+        return (startingRoomElementsChecked ? 1 : 0) | (gauntletEntered ? 2 : 0) | (cameraSettingsApplied ? 4 : 0);
+    }
+
+    public void restoreProgress(int progress) {
+        startingRoomElementsChecked = (progress & 1) != 0;
+        gauntletEntered = (progress & 2) != 0;
+        cameraSettingsApplied = (progress & 4) != 0;
+    }
+
 
     private void setCameraSettings() {
         if (cameraSettingsApplied) {
@@ -122,9 +133,8 @@ public class StartingRoomCheckTask extends LeafTask {
         }
         log.info("Setting camera to overhead view and max zoom out.");
         bot.updateTaskStatus("Adjusting camera...");
-        MouseCamera.turnTo(90, 1.0);
-        Camera.setZoomSetting(128, 5);
-        Execution.delay(2000, 3000);
+        game.setupCamera(90, 1.0, 128);
+        scheduler.awaitTicks(4);
         log.info("Camera settings adjusted.");
         bot.updateTaskStatus("Camera settings applied, proceeding...");
         log.info("Proceeding to look for blocked paths...");
@@ -133,44 +143,51 @@ public class StartingRoomCheckTask extends LeafTask {
     }
 
     private void adjustCameraAwayFromBarrier() {
-        GameObject barrier = GameObjects.newQuery().names("Barrier").results().first();
+        SceneEntity<GameObject> barrier = DungeonUtils.getWorld().firstObject("Barrier");
         if (barrier != null) {
             Coordinate barrierLocation = barrier.getPosition();
-            Camera.turnTo(barrierLocation, 180); // Turn away from the barrier
-            Execution.delay(500); // Add half-second delay for smooth adjustment
-            log.info("Adjusted camera away from barrier at " + barrierLocation);
+            game.turnCameraTo(barrierLocation, 180); // Turn away from the barrier
+            scheduler.nextTick(); // Let the camera settle before looking around
+            log.info("Adjusted camera away from barrier at {}", barrierLocation);
         } else {
             log.warn("Barrier not found; camera adjustment skipped.");
         }
     }
 
-    public static boolean lightNodeAtFirstDoorway() {
+    public boolean lightNodeAtFirstDoorway() {
         log.info("Querying for barrier...");
-        GameObject barrierObject = GameObjects.newQuery().names("Barrier").results().first();
-        if (barrierObject != null) {
+        WorldSnapshot world = DungeonUtils.getWorld();
+        SceneEntity<GameObject> barrierObject = world.firstObject("Barrier");
+        if (barrierObject != null && barrierObject.getPosition() != null) {
             Coordinate barrierPosition = barrierObject.getPosition();
 
             // Find the farthest node from the barrier
-            GameObject farthestNode = GameObjects.newQuery()
-                    .names("Node")
-                    .actions("Light")
-                    .results().stream()
-                    .max(Comparator.comparingDouble(node -> Objects.requireNonNull(node.getPosition()).distanceTo(barrierPosition)))
-                    .orElse(null);
+            SceneEntity<GameObject> farthestNode = null;
+            double farthestDistance = -1;
+            for (SceneEntity<GameObject> node : world.getObjects()) {
+                if ("Node".equals(node.getName()) && node.hasAction("Light") && node.getPosition() != null) {
+                    double distance = node.getPosition().distanceTo(barrierPosition);
+                    if (distance > farthestDistance) {
+                        farthestNode = node;
+                        farthestDistance = distance;
+                    }
+                }
+            }
 
             // Interact with the farthest node and check if it activates a new room
             if (farthestNode != null && farthestNode.interact("Light")) {
-                Execution.delay(3000, 8000);
+                // Lighting finishes once the player reaches the node; stop waiting on the tick the symbol shows
+                scheduler.awaitTicksUntil(() -> DungeonUtils.getWorld().firstObject("Illuminated Symbol") != null, 13);
                 log.info("Node successfully lit.");
 
                 for (int i = 0; i < 3; i++) {
-                    Coordinate roomLocation = Objects.requireNonNull(Players.getLocal()).getPosition();
+                    Coordinate roomLocation = DungeonUtils.getWorld().getPlayerPosition();
                     if (newAreaIsAccessible(roomLocation)) {
                         log.info("New area is accessible.");
                         return true;
                     } else {
                         log.warn("New area is not accessible, retrying...");
-                        Execution.delay(2000, 3000);
+                        scheduler.awaitTicks(4);
                     }
                 }
             } else {
@@ -1,38 +1,40 @@
 package fighter.tasks;
 
 import com.runemate.game.api.hybrid.entities.GameObject;
-import com.runemate.game.api.hybrid.entities.Npc;
-import com.runemate.game.api.hybrid.entities.Player;
-import com.runemate.game.api.hybrid.local.hud.interfaces.Health;
-import com.runemate.game.api.hybrid.region.GameObjects;
-import com.runemate.game.api.hybrid.region.Npcs;
-import com.runemate.game.api.hybrid.region.Players;
-import com.runemate.game.api.script.Execution;
 import com.runemate.game.api.script.framework.tree.BranchTask;
 import com.runemate.game.api.script.framework.tree.TreeTask;
 import fighter.DungeonCrawler;
 import fighter.DungeonUtils;
+import fighter.game.ActionScheduler;
+import fighter.game.GamePort;
+import fighter.world.SceneEntity;
+import fighter.world.WorldSnapshot;
 import lombok.extern.log4j.Log4j2;
+import org.apache.logging.log4j.Level;
 
 @Log4j2(topic = "UnexpectedScenarioHandler")
 public class UnexpectedScenarioHandlerTask extends BranchTask {
 
     private final DungeonCrawler bot;
+    private final GamePort game = DungeonUtils.getGamePort();
+    private final ActionScheduler scheduler = DungeonUtils.getScheduler();
+    private final TreeTask postBossManagementTask;
 
     public UnexpectedScenarioHandlerTask(DungeonCrawler bot) {
         this.bot = bot;
+        this.postBossManagementTask = new PostBossManagementTask(bot);
     }
 
     @Override
     public boolean validate() {
-        Player player = Players.getLocal();
+        boolean playerPresent = DungeonUtils.getWorld().getPlayerPosition() != null;
 
-        boolean isPlayerLowHealth = player != null && Health.getCurrentPercent() <= 30;
-        boolean isPlayerDead = player != null && Health.getCurrentPercent() == 0;
+        boolean isPlayerLowHealth = playerPresent && game.getHealthPercent() <= 30;
+        boolean isPlayerDead = playerPresent && game.getHealthPercent() == 0;
         boolean isInStartingRoom = isPlayerInStartingRoom();
         boolean isInventoryFull = DungeonUtils.isInventoryFull() && DungeonUtils.shouldDropPaddlefishForLoot();
 
-        log.info("Validating Unexpected Scenario - Player is dead: {}, Low health: {}, In Starting Room: {}, Inventory Full: {}",
+        log.debug("Validating Unexpected Scenario - Player is dead: {}, Low health: {}, In Starting Room: {}, Inventory Full: {}",
                 isPlayerDead, isPlayerLowHealth, isInStartingRoom, isInventoryFull);
 
         return isPlayerDead || isPlayerLowHealth || isInStartingRoom || isInventoryFull;
@@ -47,7 +49,7 @@ public class UnexpectedScenarioHandlerTask extends BranchTask {
         }
 
         bot.updateTaskStatus("Handling post-boss or recovery actions...");
-        return new PostBossManagementTask(bot);
+        return postBossManagementTask;
     }
 
     @Override
@@ -58,9 +60,9 @@ public class UnexpectedScenarioHandlerTask extends BranchTask {
     // New method to drop paddlefish
     private void dropPaddlefish() {
         log.info("Dropping one raw paddlefish to make space for high-priority loot.");
-        var paddlefish = com.runemate.game.api.hybrid.local.hud.interfaces.Inventory.getItems("Raw Paddlefish").first();
+        var paddlefish = DungeonUtils.getWorld().inventoryItem("Raw Paddlefish");
         if (paddlefish != null && paddlefish.interact("Drop")) {
-            Execution.delay(300, 600);
+            scheduler.nextTick();
             log.info("Successfully dropped a raw paddlefish.");
         } else {
             log.warn("Failed to drop paddlefish or none found.");
@@ -69,15 +71,14 @@ public class UnexpectedScenarioHandlerTask extends BranchTask {
 
     // Check if the player is in the starting room (Bryn or Reward Chest nearby)
     private boolean isPlayerInStartingRoom() {
-        Npc bryn = Npcs.newQuery().names("Bryn").results().first();
-        if (bryn != null) {
+        WorldSnapshot world = DungeonUtils.getWorld();
+        if (world.firstNpc("Bryn") != null) {
             log.info("Bryn detected in the room.");
             bot.updateTaskStatus("Bryn detected in the starting room.");
             return true;
         }
 
-        GameObject rewardChest = GameObjects.newQuery().names("Reward Chest").results().first();
-        if (rewardChest != null) {
+        if (world.firstObject("Reward Chest") != null) {
             log.info("Reward Chest detected in the room.");
             bot.updateTaskStatus("Reward Chest detected in the starting room.");
             return true;
@@ -96,22 +97,22 @@ public class UnexpectedScenarioHandlerTask extends BranchTask {
     }
 
     private void handleDeathScenario() {
-        GameObject rewardChest = GameObjects.newQuery().names("Reward Chest").results().first();
+        SceneEntity<GameObject> rewardChest = DungeonUtils.getWorld().firstObject("Reward Chest");
         if (rewardChest != null) {
             log.info("Looting reward chest after death.");
             bot.updateTaskStatus("Looting reward chest after death...");
 
             if (rewardChest.interact("Take")) {
-                Execution.delay(2000);
+                scheduler.awaitTicks(4);
                 log.info("Looting successful. Preparing to restart the run.");
                 bot.updateTaskStatus("Looting complete. Preparing to re-enter the Gauntlet...");
             } else {
                 log.warn("Failed to loot reward chest.");
-                bot.updateTaskStatus("Failed to loot reward chest.");
+                bot.updateTaskStatus(Level.WARN, "Failed to loot reward chest.");
             }
         } else {
             log.warn("No reward chest available to loot after death.");
-            bot.updateTaskStatus("No reward chest available after death.");
+            bot.updateTaskStatus(Level.WARN, "No reward chest available after death.");
         }
 
         restartGauntletRun();
@@ -123,7 +124,7 @@ public class UnexpectedScenarioHandlerTask extends BranchTask {
             bot.updateTaskStatus("Re-entering the Gauntlet...");
         } else {
             log.warn("Failed to re-enter the Gauntlet.");
-            bot.updateTaskStatus("Failed to re-enter the Gauntlet.");
+            bot.updateTaskStatus(Level.WARN, "Failed to re-enter the Gauntlet.");
         }
     }
 }
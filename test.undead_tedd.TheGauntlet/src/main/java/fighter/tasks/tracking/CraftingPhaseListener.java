@@ -0,0 +1,8 @@
+package fighter.tasks.tracking;
+
+// Told the moment the last requirement of a crafting phase is met; called on the bot thread, from inside the update
+// that met it, so keep it short
+@FunctionalInterface
+public interface CraftingPhaseListener {
+    void onPhaseRequirementsMet(int phase);
+}
@@ -0,0 +1,69 @@
+package fighter.tasks.tracking;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Every resource ResourceTracker counts. The ordinal indexes the tracker's count and target arrays, and each
+// constant lists every spelling of its item name used in the game and in this code, so a lookup by name is one
+// hash lookup instead of a string switch. How many of each a run needs is in the RecipeTable.
+public enum GauntletResource {
+    RAW_PADDLEFISH("Raw Paddlefish", "Raw paddlefish"),
+    GRYM_LEAF("Grym Leaf", "Grym leaf"),
+    CRYSTAL_ORE("Crystal Ore", "Crystal ore"),
+    CORRUPTED_ORE("Corrupted Ore", "Corrupted ore"),
+    PHREN_BARK("Phren Bark", "Phren bark"),
+    LINUM_TIRINIUM("Linum Tirinium", "Linum tirinium"),
+    CRYSTALLINE_SHARDS("Crystalline Shards", "Crystal shards"),
+    CORRUPTED_SHARDS("Corrupted Shards", "Corrupted shards"),
+    CRYSTALLINE_ORB("Crystalline Orb"),
+    CORRUPTED_ORB("Corrupted Orb"),
+    CRYSTALLINE_BOWSTRING("Crystalline Bowstring"),
+    CORRUPTED_BOWSTRING("Corrupted Bowstring"),
+    WEAPON_FRAME("Weapon Frame", "Weapon frame"),
+    CRYSTALLINE_DUST("Crystalline Dust"),
+    CORRUPTED_DUST("Corrupted Dust"),
+    VIAL("Vial"),
+    WATER_FILLED_VIAL("Water-Filled Vial", "Water-filled vial"),
+    EGNIOL_POTION("Egniol Potion (3)");
+
+    private static final GauntletResource[] VALUES = values();
+    private static final Map<String, GauntletResource> BY_NAME = new HashMap<>();
+
+    static {
+        for (GauntletResource resource : VALUES) {
+            for (String name : resource.names) {
+                BY_NAME.put(name, resource);
+            }
+        }
+    }
+
+    @Getter
+    private final String displayName;
+    private final String[] names;
+
+    GauntletResource(String... names) {
+        this.displayName = names[0];
+        this.names = names;
+    }
+
+    // Shards and dust stack in one inventory slot; everything else takes a slot per item
+    public boolean isStackable() {
+        return this == CRYSTALLINE_SHARDS || this == CORRUPTED_SHARDS || this == CRYSTALLINE_DUST
+                || this == CORRUPTED_DUST;
+    }
+
+    public static int count() {
+        return VALUES.length;
+    }
+
+    public static GauntletResource byOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    // The resource an item name refers to, or null if it is not one we track
+    public static GauntletResource fromName(String name) {
+        return name != null ? BY_NAME.get(name) : null;
+    }
+}
@@ -0,0 +1,190 @@
+package fighter.tasks.tracking;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Gathering targets and crafting phase requirements, read from {@code recipes.properties} and compiled into the
+ * arrays ResourceTracker checks against: a target per resource, a quantity per requirement, and bitmasks saying
+ * which requirements belong to each phase and which requirements each resource counts towards.
+ * <p>
+ * The bundled table is used unless {@code -Ddungeoncrawler.recipes=<file>} names another one, so strategies can be
+ * tuned without a rebuild. A table that does not compile is rejected as a whole; an override that fails falls back
+ * to the bundled table rather than leaving the bot without one.
+ */
+@Log4j2(topic = "RecipeTable")
+public class RecipeTable {
+    public static final String RECIPES_PROPERTY = "dungeoncrawler.recipes";
+    // Requirements are bits in an int mask
+    public static final int MAX_REQUIREMENTS = 32;
+
+    private static final String BUNDLED = "recipes.properties";
+    private static final String TARGET_PREFIX = "target.";
+    private static final String PHASE_PREFIX = "phase.";
+
+    private static RecipeTable defaultTable;
+
+    private final int[] targets = new int[GauntletResource.count()];
+    private final int[] requiredQuantity = new int[MAX_REQUIREMENTS];
+    private final int[] requirementsOf = new int[GauntletResource.count()];
+    private final int[] phaseRequirements;
+    @Getter
+    private final int requirementCount;
+    @Getter
+    private final int phaseCount;
+
+    // Compiles a table; throws IllegalArgumentException naming the first entry that does not make sense
+    public RecipeTable(Properties properties) {
+        boolean[] hasTarget = new boolean[targets.length];
+        List<String> requirementKeys = new ArrayList<>();
+        int highestPhase = 0;
+
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key).trim();
+            if (key.startsWith(TARGET_PREFIX)) {
+                GauntletResource resource = resource(key, key.substring(TARGET_PREFIX.length()));
+                targets[resource.ordinal()] = quantity(key, value);
+                hasTarget[resource.ordinal()] = true;
+            } else if (key.startsWith(PHASE_PREFIX)) {
+                requirementKeys.add(key);
+                highestPhase = Math.max(highestPhase, phase(key));
+            } else {
+                throw new IllegalArgumentException("Unknown recipe entry " + key);
+            }
+        }
+        for (int i = 0; i < hasTarget.length; i++) {
+            if (!hasTarget[i]) {
+                throw new IllegalArgumentException("No gathering target for " + GauntletResource.byOrdinal(i));
+            }
+        }
+        if (requirementKeys.size() > MAX_REQUIREMENTS) {
+            throw new IllegalArgumentException("At most " + MAX_REQUIREMENTS + " requirements are supported, found "
+                    + requirementKeys.size());
+        }
+
+        // Sorted so the same table always compiles to the same bits
+        Collections.sort(requirementKeys);
+        phaseRequirements = new int[highestPhase + 1];
+        for (int index = 0; index < requirementKeys.size(); index++) {
+            String key = requirementKeys.get(index);
+            String[] parts = properties.getProperty(key).trim().split("\\s+");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(key + " should be '<quantity> <resource>[+<resource>...]'");
+            }
+            requiredQuantity[index] = quantity(key, parts[0]);
+            phaseRequirements[phase(key)] |= 1 << index;
+            for (String name : parts[1].split("\\+")) {
+                requirementsOf[resource(key, name).ordinal()] |= 1 << index;
+            }
+        }
+        requirementCount = requirementKeys.size();
+        phaseCount = highestPhase;
+    }
+
+    // The table named by the system property if there is one, the bundled table otherwise; compiled once
+    public static synchronized RecipeTable getDefault() {
+        if (defaultTable == null) {
+            defaultTable = loadOverride();
+            if (defaultTable == null) {
+                defaultTable = loadBundled();
+            }
+        }
+        return defaultTable;
+    }
+
+    private static RecipeTable loadOverride() {
+        String file = System.getProperty(RECIPES_PROPERTY);
+        if (file == null || file.isEmpty()) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(Paths.get(file))) {
+            Properties properties = new Properties();
+            properties.load(reader);
+            RecipeTable table = new RecipeTable(properties);
+            log.info("Loaded recipe table {}: {} requirements over {} phases.", file, table.requirementCount,
+                    table.phaseCount);
+            return table;
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Could not load recipe table {}; using the bundled one.", file, e);
+            return null;
+        }
+    }
+
+    private static RecipeTable loadBundled() {
+        try (InputStream in = RecipeTable.class.getResourceAsStream(BUNDLED)) {
+            if (in == null) {
+                throw new IllegalStateException("Bundled recipe table " + BUNDLED + " is missing");
+            }
+            Properties properties = new Properties();
+            properties.load(in);
+            return new RecipeTable(properties);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read bundled recipe table " + BUNDLED, e);
+        }
+    }
+
+    public int getTarget(GauntletResource resource) {
+        return targets[resource.ordinal()];
+    }
+
+    public int getRequiredQuantity(int requirement) {
+        return requiredQuantity[requirement];
+    }
+
+    // Bit n is set when requirement n belongs to the phase
+    public int getPhaseMask(int phase) {
+        return phase >= 1 && phase < phaseRequirements.length ? phaseRequirements[phase] : 0;
+    }
+
+    // Bit n is set when the resource's count goes towards requirement n
+    public int getRequirementsOf(GauntletResource resource) {
+        return requirementsOf[resource.ordinal()];
+    }
+
+    private static GauntletResource resource(String key, String name) {
+        try {
+            return GauntletResource.valueOf(name.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(key + " names unknown resource " + name);
+        }
+    }
+
+    private static int quantity(String key, String value) {
+        try {
+            int quantity = Integer.parseInt(value);
+            if (quantity < 0) {
+                throw new IllegalArgumentException(key + " has a negative quantity");
+            }
+            return quantity;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " has a quantity that is not a number: " + value);
+        }
+    }
+
+    // The <phase> in phase.<phase>.<name>
+    private static int phase(String key) {
+        int end = key.indexOf('.', PHASE_PREFIX.length());
+        if (end < 0) {
+            throw new IllegalArgumentException(key + " should be phase.<phase>.<name>");
+        }
+        try {
+            int phase = Integer.parseInt(key.substring(PHASE_PREFIX.length(), end));
+            if (phase < 1) {
+                throw new IllegalArgumentException(key + " has a phase below 1");
+            }
+            return phase;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " has a phase that is not a number");
+        }
+    }
+}
@@ -1,152 +1,278 @@
 package fighter.tasks.tracking;
 
+import fighter.world.InventoryChangeListener;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static fighter.DungeonUtils.getResourceTracker;
 
+/**
+ * Counts of every GauntletResource for the current run, and whether each crafting phase can go ahead.
+ * <p>
+ * Counts follow the inventory: the tracker listens to the world snapshot's inventory events, so they reflect what
+ * actually arrived or left, stack sizes included. A count is what is held right now, not what the run has gathered
+ * so far: items used up in crafting leave it again, so targets and requirements are held amounts too. Counts live in
+ * an atomic array indexed by the resource's ordinal, with the target for each resource in a parallel array, so reads
+ * never take a lock. Only the bot thread writes. Each write is bracketed by a sequence counter, and checks that
+ * combine several counts (crafting readiness) retry until they have read them all between two writes, so the UI
+ * thread and the bot thread always agree on a consistent set of counts without contending on a monitor.
+ * <p>
+ * Crafting readiness is not recomputed from the counts. Every phase requirement (e.g. 160 shards of either kind)
+ * keeps its remaining deficit, updated by the count change that affects it, and a bitmask of the requirements still
+ * short; readiness is one mask test, and listeners hear about a phase the moment its last requirement is met.
+ * The targets and requirements come from a {@link RecipeTable}.
+ */
 @Log4j2(topic = "ResourceTracker")
-public class ResourceTracker {
-
-    // Resource counts
-    private int paddlefishCount;
-    private int corruptedShards;
-    private int crystallineShards;
-    private int grymLeaf;
-    private int vialCount;
-    private int waterFilledVial;
-    private int PotionCount;
-    private int weaponFrameCount;
-    private int corruptedOrbCount;
-    private int crystallineOrbCount;
-    private int corruptedBowstringCount;
-    private int crystallineBowstringCount;
-    private int corruptedDustCount;
-    private int crystallineDustCount;
-    private int crystalOre;
-    private int corruptedOre;
-    private int phrenBark;
-    private int linumTirinium;
-
-
-    // Crafting phase requirements
-    private final int PHASE1_REQUIRED_SHARDS = 160; // Combined crystalline + corrupted
-
-    private final int PHASE2_REQUIRED_SHARDS = 380; // Combined crystalline + corrupted
-    private final int PHASE2_REQUIRED_CRYSTAL_ORE = 3;
-    private final int PHASE2_REQUIRED_PHREN_BARK = 3;
-    private final int PHASE2_REQUIRED_LINUM_TIRINIUM = 3;
-    private final int PHASE2_REQUIRED_BOWSTRING = 1; // Combined crystalline + corrupted
-    private final int PHASE2_REQUIRED_ORB = 1; // Combined crystalline + corrupted
-
-    // Add to ResourceTracker.java
-
-    // Getter for Phase 1 required shards
-    public int getPhase1RequiredShards() {
-        return PHASE1_REQUIRED_SHARDS;
+public class ResourceTracker implements InventoryChangeListener {
+
+    // Resource counts and how many of each a run needs, both indexed by GauntletResource ordinal
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(GauntletResource.count());
+    private final int[] targets = new int[GauntletResource.count()];
+
+    // Odd while the bot thread is writing; readers that saw it change retry
+    private final AtomicLong version = new AtomicLong();
+
+    // One bit per requirement of the recipe table. For each: the quantity, and the remaining deficit (negative once
+    // exceeded). requirementsOf holds, per resource ordinal, the requirements its count goes towards.
+    private final int[] requiredQuantity = new int[RecipeTable.MAX_REQUIREMENTS];
+    private final int[] deficit = new int[RecipeTable.MAX_REQUIREMENTS];
+    private final int[] requirementsOf = new int[GauntletResource.count()];
+    private final int[] phaseRequirements; // Indexed by phase; 0 is unused
+    private final int requirementCount;
+    private volatile int unmetRequirements;
+
+    private final List<CraftingPhaseListener> phaseListeners = new ArrayList<>();
+
+    public ResourceTracker() {
+        this(RecipeTable.getDefault());
+    }
+
+    public ResourceTracker(RecipeTable recipes) {
+        for (int i = 0; i < targets.length; i++) {
+            GauntletResource resource = GauntletResource.byOrdinal(i);
+            targets[i] = recipes.getTarget(resource);
+            requirementsOf[i] = recipes.getRequirementsOf(resource);
+        }
+        requirementCount = recipes.getRequirementCount();
+        for (int i = 0; i < requirementCount; i++) {
+            requiredQuantity[i] = recipes.getRequiredQuantity(i);
+        }
+        phaseRequirements = new int[recipes.getPhaseCount() + 1];
+        for (int phase = 1; phase < phaseRequirements.length; phase++) {
+            phaseRequirements[phase] = recipes.getPhaseMask(phase);
+        }
+        resetDeficits();
+    }
+
+    public void addPhaseListener(CraftingPhaseListener listener) {
+        phaseListeners.add(listener);
+    }
+
+    // Whether the current phase still has a requirement short that this resource counts towards
+    public boolean isShortFor(GauntletResource resource) {
+        int phase = craftingPhase;
+        return phase >= 1 && phase < phaseRequirements.length
+                && (unmetRequirements & phaseRequirements[phase] & requirementsOf[resource.ordinal()]) != 0;
+    }
+
+    // How many more the current phase still needs of the requirement this resource counts towards (the largest, if
+    // several are short); 0 when nothing it goes towards is short
+    public int getShortfall(GauntletResource resource) {
+        int phase = craftingPhase;
+        if (phase < 1 || phase >= phaseRequirements.length) {
+            return 0;
+        }
+        int shortfall = 0;
+        int affected = unmetRequirements & phaseRequirements[phase] & requirementsOf[resource.ordinal()];
+        while (affected != 0) {
+            int index = Integer.numberOfTrailingZeros(affected);
+            affected &= affected - 1;
+            shortfall = Math.max(shortfall, deficit[index]);
+        }
+        return shortfall;
+    }
+
+    public int getCount(GauntletResource resource) {
+        return counts.get(resource.ordinal());
+    }
+
+    // Copies every count, indexed by ordinal, from a single consistent point in time; for UI and reporting
+    public void snapshot(int[] into) {
+        long seen;
+        do {
+            seen = beginRead();
+            for (int i = 0; i < into.length && i < counts.length(); i++) {
+                into[i] = counts.get(i);
+            }
+        } while (!endRead(seen));
     }
 
     // Method to check if all Phase 2 crafting requirements are met
     public boolean isPhaseTwoCraftingComplete() {
-        int totalShards = crystallineShards + corruptedShards;
-        int totalBowstrings = crystallineBowstringCount + corruptedBowstringCount;
-        int totalOrbs = crystallineOrbCount + corruptedOrbCount;
-
-        return totalShards >= PHASE2_REQUIRED_SHARDS &&
-                totalBowstrings >= PHASE2_REQUIRED_BOWSTRING &&
-                totalOrbs >= PHASE2_REQUIRED_ORB &&
-                crystalOre >= PHASE2_REQUIRED_CRYSTAL_ORE &&
-                linumTirinium >= PHASE2_REQUIRED_LINUM_TIRINIUM &&
-                phrenBark >= PHASE2_REQUIRED_PHREN_BARK;
-    }
-
-    public synchronized void incrementResourceCount(String resourceName) {
-        switch (resourceName) {
-            case "Crystalline Shards":
-                crystallineShards++;
-                break;
-            case "Corrupted Shards":
-                corruptedShards++;
-                break;
-            case "Weapon Frame":
-                weaponFrameCount++;
-                break;
-            case "Raw Paddlefish":
-                paddlefishCount++;
-                break;
-            case "Grym Leaf":
-                grymLeaf++;
-                break;
-            case "Crystal Ore":
-                crystalOre++;
-                break;
-            case "Corrupted Ore":
-                corruptedOre++;
-                break;
-            case "Linum Tirinium":
-                linumTirinium++;
-                break;
-            case "Phren Bark":
-                phrenBark++;
-                break;
-            // Add any other resources as needed
-            default:
-                log.warn("Attempted to increment unknown resource: " + resourceName);
-                break;
+        return phaseRequirements.length > 2 && (unmetRequirements & phaseRequirements[2]) == 0;
+    }
+
+    // How many of the phase's requirements are still short, e.g. for the UI
+    public int getUnmetRequirementCount(int phase) {
+        return phase >= 1 && phase < phaseRequirements.length
+                ? Integer.bitCount(unmetRequirements & phaseRequirements[phase]) : 0;
+    }
+
+    public void incrementResourceCount(String resourceName) {
+        GauntletResource resource = GauntletResource.fromName(resourceName);
+        if (resource == null) {
+            log.warn("Attempted to increment unknown resource: {}", resourceName);
+            return;
+        }
+        increment(resource);
+    }
+
+    public void increment(GauntletResource resource) {
+        adjust(resource, 1);
+    }
+
+    // Fed from the world snapshot's inventory events, so counts follow what actually arrived, stack sizes included
+    @Override
+    public void onInventoryChanged(String itemName, int quantityDelta) {
+        GauntletResource resource = GauntletResource.fromName(itemName);
+        if (resource != null) {
+            adjust(resource, quantityDelta);
+        }
+    }
+
+    // Applies a change in a count and carries it through to the deficits of the requirements it goes towards
+    private void adjust(GauntletResource resource, int delta) {
+        // Never below zero, e.g. when items held across a reset for a new run are used up afterwards
+        delta = Math.max(delta, -counts.get(resource.ordinal()));
+        if (delta == 0) {
+            return;
+        }
+        int before = unmetRequirements;
+        int after = before;
+        beginWrite();
+        counts.addAndGet(resource.ordinal(), delta);
+        int affected = requirementsOf[resource.ordinal()];
+        while (affected != 0) {
+            int index = Integer.numberOfTrailingZeros(affected);
+            affected &= affected - 1;
+            deficit[index] -= delta;
+            after = deficit[index] > 0 ? after | 1 << index : after & ~(1 << index);
+        }
+        unmetRequirements = after;
+        endWrite();
+
+        for (int phase = 1; phase < phaseRequirements.length; phase++) {
+            int mask = phaseRequirements[phase];
+            if ((before & mask) != 0 && (after & mask) == 0) {
+                log.info("All crafting phase {} requirements met.", phase);
+                for (int i = 0; i < phaseListeners.size(); i++) {
+                    phaseListeners.get(i).onPhaseRequirementsMet(phase);
+                }
+            }
         }
     }
 
 
     // Crafted items tracking
-    private boolean basicBowCrafted;
-    private boolean attunedBowCrafted;
-    private boolean perfectedBowCrafted;
-    private boolean basicStaffCrafted;
-    private boolean attunedStaffCrafted;
+    private volatile boolean basicBowCrafted;
+    private volatile boolean attunedBowCrafted;
+    private volatile boolean perfectedBowCrafted;
+    private volatile boolean basicStaffCrafted;
+    private volatile boolean attunedStaffCrafted;
     @Setter
-    private boolean perfectedStaffCrafted;
+    private volatile boolean perfectedStaffCrafted;
 
     // Crafted items tracking for armor (body, legs, helm) with corrupted and crystal variants
-    private boolean corruptedBodyCrafted;
-    private boolean crystalBodyCrafted;
-    private boolean corruptedLegsCrafted;
-    private boolean crystalLegsCrafted;
-    private boolean corruptedHelmCrafted;
-    private boolean crystalHelmCrafted;
+    private volatile boolean corruptedBodyCrafted;
+    private volatile boolean crystalBodyCrafted;
+    private volatile boolean corruptedLegsCrafted;
+    private volatile boolean crystalLegsCrafted;
+    private volatile boolean corruptedHelmCrafted;
+    private volatile boolean crystalHelmCrafted;
 
     // Current crafting phase
     @Getter
-    private int craftingPhase = 1;
+    private volatile int craftingPhase = 1;
+
+    // The crafted flags as bits, for checkpoints; the order must not change once checkpoints have been written
+    // Read on every loop through the checkpoint fingerprint, so it is built with shifts rather than a temporary array
+    public int getCraftedMask() {
+        return (basicBowCrafted ? 1 : 0)
+                | (attunedBowCrafted ? 1 << 1 : 0)
+                | (perfectedBowCrafted ? 1 << 2 : 0)
+                | (basicStaffCrafted ? 1 << 3 : 0)
+                | (attunedStaffCrafted ? 1 << 4 : 0)
+                | (perfectedStaffCrafted ? 1 << 5 : 0)
+                | (corruptedBodyCrafted ? 1 << 6 : 0)
+                | (crystalBodyCrafted ? 1 << 7 : 0)
+                | (corruptedLegsCrafted ? 1 << 8 : 0)
+                | (crystalLegsCrafted ? 1 << 9 : 0)
+                | (corruptedHelmCrafted ? 1 << 10 : 0)
+                | (crystalHelmCrafted ? 1 << 11 : 0);
+    }
+
+    // Puts back the crafting progress saved in a checkpoint. Counts are not restored: they follow the inventory.
+    public void restoreProgress(int craftedMask, int phase) {
+        basicBowCrafted = (craftedMask & 1) != 0;
+        attunedBowCrafted = (craftedMask & 1 << 1) != 0;
+        perfectedBowCrafted = (craftedMask & 1 << 2) != 0;
+        basicStaffCrafted = (craftedMask & 1 << 3) != 0;
+        attunedStaffCrafted = (craftedMask & 1 << 4) != 0;
+        perfectedStaffCrafted = (craftedMask & 1 << 5) != 0;
+        corruptedBodyCrafted = (craftedMask & 1 << 6) != 0;
+        crystalBodyCrafted = (craftedMask & 1 << 7) != 0;
+        corruptedLegsCrafted = (craftedMask & 1 << 8) != 0;
+        crystalLegsCrafted = (craftedMask & 1 << 9) != 0;
+        corruptedHelmCrafted = (craftedMask & 1 << 10) != 0;
+        crystalHelmCrafted = (craftedMask & 1 << 11) != 0;
+        if (phase >= 1 && phase < phaseRequirements.length) {
+            beginWrite();
+            craftingPhase = phase;
+            endWrite();
+        }
+    }
 
-    // Method to check if ready for crafting phase 1 or 2
+    // Method to check if ready for crafting phase 1 or 2; the phase and the unmet mask are read as one pair
     public boolean isReadyToCraft() {
-        int totalShards = crystallineShards + corruptedShards;
-        int totalBowstrings = crystallineBowstringCount + corruptedBowstringCount;
-        int totalOrbs = crystallineOrbCount + corruptedOrbCount;
-
-        if (craftingPhase == 1) {
-            int PHASE1_REQUIRED_WEAPON_FRAMES = 2;
-            return totalShards >= PHASE1_REQUIRED_SHARDS &&
-                    weaponFrameCount >= PHASE1_REQUIRED_WEAPON_FRAMES;
-        } else if (craftingPhase == 2) {
-            return totalShards >= PHASE2_REQUIRED_SHARDS &&
-                    totalBowstrings >= PHASE2_REQUIRED_BOWSTRING &&
-                    totalOrbs >= PHASE2_REQUIRED_ORB &&
-                    crystalOre >= PHASE2_REQUIRED_CRYSTAL_ORE &&
-                    linumTirinium >= PHASE2_REQUIRED_LINUM_TIRINIUM &&
-                    phrenBark >= PHASE2_REQUIRED_PHREN_BARK;
+        long seen;
+        boolean ready;
+        do {
+            seen = beginRead();
+            int phase = craftingPhase;
+            ready = phase >= 1 && phase < phaseRequirements.length
+                    && (unmetRequirements & phaseRequirements[phase]) == 0;
+        } while (!endRead(seen));
+        return ready;
+    }
+
+    // Moves on from the phase once its crafting is done. Its items have been used up by then, so unlike
+    // advanceCraftingPhase this does not ask isReadyToCraft; false if the tracker was not at that phase.
+    public boolean finishCraftingPhase(int phase) {
+        if (craftingPhase != phase || phase >= phaseRequirements.length - 1) {
+            return false;
         }
-        return false;
+        beginWrite();
+        craftingPhase = phase + 1;
+        endWrite();
+        return true;
     }
 
     // Advance to the next crafting phase if requirements are met
     public void advanceCraftingPhase() {
-        if (craftingPhase == 1 && isReadyToCraft()) {
-            craftingPhase = 2;
-            log.info("Advanced to crafting phase 2.");
-        } else if (craftingPhase == 2 && isReadyToCraft()) {
-            log.info("Crafting phase 2 requirements met. All crafting phases complete.");
+        int lastPhase = phaseRequirements.length - 1;
+        if (craftingPhase < lastPhase && isReadyToCraft()) {
+            beginWrite();
+            craftingPhase++;
+            endWrite();
+            log.info("Advanced to crafting phase {}.", craftingPhase);
+        } else if (craftingPhase == lastPhase && isReadyToCraft()) {
+            log.info("Crafting phase {} requirements met. All crafting phases complete.", lastPhase);
         } else {
             log.info("Crafting requirements for current phase not yet met.");
         }
@@ -154,51 +280,28 @@ public class ResourceTracker {
 
     // Check if specific resource is still needed (by quantity)
     public static boolean isNeededResource(String resourceName) {
-        return switch (resourceName) {
-            case "Raw Paddlefish" -> getResourceTracker().getPaddlefishCount() < 23;
-            case "Grym Leaf" -> getResourceTracker().getGrymLeaf() < 3;
-            case "Crystal Ore" -> getResourceTracker().getCrystalOre() < 3;
-            case "Corrupted ore" -> getResourceTracker().getCorruptedOre() < 3;
-            case "Phren Bark" -> getResourceTracker().getPhrenBark() < 3;
-            case "Linum Tirinium" -> getResourceTracker().getLinumTirinium() < 3;
-            case "Corrupted Shards" -> getResourceTracker().getCorruptedShards() < 380;
-            case "Crystalline Shards" -> getResourceTracker().getCrystallineShards() < 380;
-            case "Corrupted Orb" -> getResourceTracker().getCorruptedOrbCount() < 1;
-            case "Crystalline Orb" -> getResourceTracker().getCrystallineOrbCount() < 1;
-            case "Corrupted Bowstring" -> getResourceTracker().getCorruptedBowstringCount() < 1;
-            case "Crystalline Bowstring" -> getResourceTracker().getCrystallineBowstringCount() < 1;
-            case "Weapon Frame" -> getResourceTracker().getWeaponFrameCount() < 2;
-            case "Corrupted Dust" -> getResourceTracker().getCorruptedDustCount() < 30;
-            case "Crystalline Dust" -> getResourceTracker().getCrystallineDustCount() < 30;
-            case "Vial" -> getResourceTracker().getVialCount() < 3;
-            case "Water-Filled Vial" -> getResourceTracker().getWaterFilledVial() < 3;
-            case "Egniol Potion (3)" -> getResourceTracker().getPotionCount() < 3;
-            default -> false;
-        };
+        GauntletResource resource = GauntletResource.fromName(resourceName);
+        return resource != null && getResourceTracker().isNeeded(resource);
+    }
+
+    public boolean isNeeded(GauntletResource resource) {
+        int index = resource.ordinal();
+        return counts.get(index) < targets[index];
+    }
+
+    // How many more of the resource have to be held to reach its target, 0 once it is reached
+    public int getRemaining(GauntletResource resource) {
+        int index = resource.ordinal();
+        return Math.max(0, targets[index] - counts.get(index));
     }
 
     public boolean isResourceFullyGathered(String resourceName) {
-        return switch (resourceName) {
-            case "Raw Paddlefish" -> getPaddlefishCount() >= 23;
-            case "Grym Leaf" -> getGrymLeaf() >= 3;
-            case "Crystal Ore" -> getCrystalOre() >= 3;
-            case "Corrupted ore" -> getCorruptedOre() >= 3;
-            case "Phren Bark" -> getPhrenBark() >= 3;
-            case "Linum Tirinium" -> getLinumTirinium() >= 3;
-            case "Corrupted Shards" -> getCorruptedShards() >= 380;
-            case "Crystalline Shards" -> getCrystallineShards() >= 380;
-            case "Corrupted Orb" -> getCorruptedOrbCount() >= 1;
-            case "Crystalline Orb" -> getCrystallineOrbCount() >= 1;
-            case "Corrupted Bowstring" -> getCorruptedBowstringCount() >= 1;
-            case "Crystalline Bowstring" -> getCrystallineBowstringCount() >= 1;
-            case "Weapon Frame" -> getWeaponFrameCount() >= 2;
-            case "Corrupted Dust" -> getCorruptedDustCount() >= 30;
-            case "Crystalline Dust" -> getCrystallineDustCount() >= 30;
-            case "Vial" -> getVialCount() >= 3;
-            case "Water-Filled Vial" -> getWaterFilledVial() >= 3;
-            case "Egniol Potion (3)" -> getPotionCount() >= 3;
-            default -> false;
-        };
+        GauntletResource resource = GauntletResource.fromName(resourceName);
+        return resource != null && !isNeeded(resource);
+    }
+
+    public boolean isResourceFullyGathered(GauntletResource resource) {
+        return !isNeeded(resource);
     }
 
     // Reset crafting progress for new run
@@ -208,29 +311,19 @@ public class ResourceTracker {
 
     // Reset method for new run
     public void resetForNewRun() {
-        paddlefishCount = 0;
-        corruptedShards = 0;
-        crystallineShards = 0;
-        grymLeaf = 0;
-        vialCount = 0;
-        weaponFrameCount = 0;
-        crystalOre = 0;
-        phrenBark = 0;
-        linumTirinium = 0;
-        corruptedOrbCount = 0;
-        crystallineOrbCount = 0;
-        corruptedBowstringCount = 0;
-        crystallineBowstringCount = 0;
-        corruptedDustCount = 0;
-        crystallineDustCount = 0;
-
+        beginWrite();
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        resetDeficits();
         craftingPhase = 1; // Reset to phase 1 for new run
+        endWrite();
 
         log.info("Resource tracker reset for new run. All resource counts set to zero.");
     }
 
     // Tracking crafted bow tiers
-    public synchronized void trackBowCrafting(String tier) {
+    public void trackBowCrafting(String tier) {
         switch (tier.toLowerCase()) {
             case "basic":
                 basicBowCrafted = true;
@@ -245,12 +338,12 @@ public class ResourceTracker {
                 log.info("Perfected Bow crafted.");
                 break;
             default:
-                log.warn("Unknown bow tier: " + tier);
+                log.warn("Unknown bow tier: {}", tier);
         }
     }
 
     // Tracking crafted staff tiers
-    public synchronized void trackStaffCrafting(String tier) {
+    public void trackStaffCrafting(String tier) {
         switch (tier.toLowerCase()) {
             case "basic":
                 basicStaffCrafted = true;
@@ -265,32 +358,12 @@ public class ResourceTracker {
                 log.info("Perfected Staff crafted.");
                 break;
             default:
-                log.warn("Unknown staff tier: " + tier);
+                log.warn("Unknown staff tier: {}", tier);
         }
     }
 
-    public void incrementCrystallineShards() {
-        crystallineShards++; // Adjust variable name as necessary
-    }
-
-    public void incrementCorruptedShards() {
-        corruptedShards++;
-    }
-
-    public void incrementWeaponFrameCount() {
-        weaponFrameCount++;
-    }
-
-    public void incrementPaddlefishCount() {
-        paddlefishCount++;
-    }
-
-    public void incrementGrymLeaf() {
-        grymLeaf++;
-    }
-
     // Reset all crafted items (for new runs or when restarting)
-    public synchronized void resetCraftedItems() {
+    public void resetCraftedItems() {
         // Reset crafted bows
         basicBowCrafted = false;
         attunedBowCrafted = false;
@@ -312,7 +385,7 @@ public class ResourceTracker {
         log.info("Reset crafted items progress for bows, staffs, and armor.");
     }
 
-    public synchronized void trackArmorCrafting(String type, String variant) {
+    public void trackArmorCrafting(String type, String variant) {
         switch (type.toLowerCase()) {
             case "body":
                 if (variant.equalsIgnoreCase("corrupted")) {
@@ -322,7 +395,7 @@ public class ResourceTracker {
                     crystalBodyCrafted = true;
                     log.info("Crystal Body Armor crafted.");
                 } else {
-                    log.warn("Unknown body armor variant: " + variant);
+                    log.warn("Unknown body armor variant: {}", variant);
                 }
                 break;
 
@@ -334,7 +407,7 @@ public class ResourceTracker {
                     crystalLegsCrafted = true;
                     log.info("Crystal Leg Armor crafted.");
                 } else {
-                    log.warn("Unknown leg armor variant: " + variant);
+                    log.warn("Unknown leg armor variant: {}", variant);
                 }
                 break;
 
@@ -346,16 +419,16 @@ public class ResourceTracker {
                     crystalHelmCrafted = true;
                     log.info("Crystal Helm crafted.");
                 } else {
-                    log.warn("Unknown helm variant: " + variant);
+                    log.warn("Unknown helm variant: {}", variant);
                 }
                 break;
 
             default:
-                log.warn("Unknown armor type: " + type);
+                log.warn("Unknown armor type: {}", type);
         }
     }
 
-    public synchronized boolean isArmorCrafted(String type, String variant) {
+    public boolean isArmorCrafted(String type, String variant) {
         return !switch (type.toLowerCase()) {
             case "body" -> variant.equalsIgnoreCase("corrupted") ? corruptedBodyCrafted :
                     variant.equalsIgnoreCase("crystal") && crystalBodyCrafted;
@@ -364,86 +437,12 @@ public class ResourceTracker {
             case "helm" -> variant.equalsIgnoreCase("corrupted") ? corruptedHelmCrafted :
                     variant.equalsIgnoreCase("crystal") && crystalHelmCrafted;
             default -> {
-                log.warn("Unknown armor type or variant: " + type + ", " + variant);
+                log.warn("Unknown armor type or variant: {}, {}", type, variant);
                 yield false;
             }
         };
     }
 
-
-    // Getters for all resource types
-    public synchronized int getPaddlefishCount() {
-        return paddlefishCount;
-    }
-
-    public synchronized int getCrystalOre() {
-        return crystalOre;
-    }
-
-    public synchronized int getPhrenBark() {
-        return phrenBark;
-    }
-
-    public synchronized int getLinumTirinium() {
-        return linumTirinium;
-    }
-
-    public synchronized int getCorruptedShards() {
-        return corruptedShards;
-    }
-
-    public synchronized int getCrystallineShards() {
-        return crystallineShards;
-    }
-
-    public synchronized int getGrymLeaf() {
-        return grymLeaf;
-    }
-
-    public synchronized int getVialCount() {
-        return vialCount;
-    }
-
-    public synchronized int getWaterFilledVial() {
-        return waterFilledVial;
-    }
-
-    public synchronized int getWeaponFrameCount() {
-        return weaponFrameCount;
-    }
-
-    public synchronized int getCorruptedOrbCount() {
-        return corruptedOrbCount;
-    }
-
-    public synchronized int getCrystallineOrbCount() {
-        return crystallineOrbCount;
-    }
-
-    public synchronized int getCorruptedBowstringCount() {
-        return corruptedBowstringCount;
-    }
-
-    public synchronized int getCrystallineBowstringCount() {
-        return crystallineBowstringCount;
-    }
-
-    public synchronized int getCorruptedDustCount() {
-        return corruptedDustCount;
-    }
-
-    public synchronized int getCrystallineDustCount() {
-        return crystallineDustCount;
-    }
-
-    public synchronized int getPotionCount() {
-        return PotionCount;
-    }
-
-    public synchronized int getCorruptedOre() {
-        return corruptedOre;
-    }
-
     public boolean isBowCrafted(String tier) {
         return switch (tier.toLowerCase()) {
             case "basic" -> basicBowCrafted;
@@ -461,5 +460,37 @@ public class ResourceTracker {
             default -> false;
         };
     }
-}
 
+    // With every count at zero, each requirement is short by its full quantity
+    private void resetDeficits() {
+        int unmet = 0;
+        for (int i = 0; i < requirementCount; i++) {
+            deficit[i] = requiredQuantity[i];
+            unmet |= 1 << i;
+        }
+        unmetRequirements = unmet;
+    }
+
+    // Sequence counter around writes; a single writer (the bot thread) is assumed
+    private void beginWrite() {
+        version.incrementAndGet();
+    }
+
+    private void endWrite() {
+        version.incrementAndGet();
+    }
+
+    // Waits out a write in progress and returns the version the read started at
+    private long beginRead() {
+        long seen = version.get();
+        while ((seen & 1) != 0) {
+            Thread.onSpinWait();
+            seen = version.get();
+        }
+        return seen;
+    }
+
+    private boolean endRead(long seen) {
+        return version.get() == seen;
+    }
+}
@@ -0,0 +1,8 @@
+package fighter.world;
+
+// Told how an item's total quantity in the inventory changed between two captures: positive when items arrived,
+// negative when they were used, dropped or banked. Called on the thread that read the snapshot (the bot thread).
+@FunctionalInterface
+public interface InventoryChangeListener {
+    void onInventoryChanged(String itemName, int quantityDelta);
+}
@@ -0,0 +1,223 @@
+package fighter.world;
+
+import com.runemate.game.api.hybrid.local.hud.interfaces.SpriteItem;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Index over the inventory of a WorldSnapshot: by name, by item id and by ItemCategory, each giving the first slot,
+ * the total quantity and a bitmask of the slots holding it. Contains, count and first-slot lookups are a single hash
+ * or table lookup instead of a scan of the inventory.
+ * <p>
+ * The index is only rebuilt when a capture shows the inventory actually changed (an item, quantity or order), which
+ * in practice is a few times a minute. Slots are positions in the captured inventory, and the entities returned are
+ * the snapshot's own, so their handles are always from the latest capture. Bot thread only, like the snapshot.
+ */
+public class InventoryIndex {
+    private static final int SLOTS = WorldSnapshot.INVENTORY_SIZE;
+    private static final int ID_TABLE_SIZE = 64; // Power of two, at least twice the number of slots
+    private static final ItemCategory[] CATEGORIES = ItemCategory.values();
+
+    private static final class Entry {
+        private int firstSlot;
+        private int quantity;
+        private int slotMask;
+
+        private Entry reset() {
+            firstSlot = -1;
+            quantity = 0;
+            slotMask = 0;
+            return this;
+        }
+
+        private void add(int slot, int amount) {
+            if (firstSlot < 0) {
+                firstSlot = slot;
+            }
+            quantity += amount;
+            slotMask |= 1 << slot;
+        }
+    }
+
+    private final List<SceneEntity<SpriteItem>> items;
+
+    private final Map<String, Entry> byName = new HashMap<>();
+    private final Entry[] namePool = new Entry[SLOTS];
+    private final int[] idKeys = new int[ID_TABLE_SIZE];
+    private final Entry[] idEntries = new Entry[ID_TABLE_SIZE];
+    private final Entry[] idPool = new Entry[SLOTS];
+    private final Entry[] byCategory = new Entry[CATEGORIES.length];
+    private final Map<String, ItemCategory> categoryCache = new HashMap<>();
+
+    // What the index was built from, slot by slot, to tell whether a new capture changed anything
+    private final int[] builtIds = new int[SLOTS];
+    private final int[] builtQuantities = new int[SLOTS];
+    private final String[] builtNames = new String[SLOTS];
+    private int builtSize = -1;
+
+    @Getter
+    private int usedSlots;
+
+    InventoryIndex(List<SceneEntity<SpriteItem>> items) {
+        this.items = items;
+        for (int i = 0; i < SLOTS; i++) {
+            namePool[i] = new Entry();
+            idPool[i] = new Entry();
+        }
+        for (int i = 0; i < byCategory.length; i++) {
+            byCategory[i] = new Entry().reset();
+        }
+    }
+
+    // Called by the snapshot after every capture
+    void refresh() {
+        if (!changedSinceBuilt()) {
+            return;
+        }
+        byName.clear();
+        for (int i = 0; i < ID_TABLE_SIZE; i++) {
+            idEntries[i] = null;
+        }
+        for (int i = 0; i < byCategory.length; i++) {
+            byCategory[i].reset();
+        }
+
+        int size = Math.min(items.size(), SLOTS);
+        int names = 0;
+        int ids = 0;
+        for (int slot = 0; slot < size; slot++) {
+            SceneEntity<SpriteItem> item = items.get(slot);
+            String name = item.getName();
+            int quantity = item.getQuantity();
+
+            if (name != null) {
+                Entry byItemName = byName.get(name);
+                if (byItemName == null) {
+                    byItemName = namePool[names++].reset();
+                    byName.put(name, byItemName);
+                }
+                byItemName.add(slot, quantity);
+            }
+
+            int bucket = bucketFor(item.getId());
+            if (idEntries[bucket] == null) {
+                idKeys[bucket] = item.getId();
+                idEntries[bucket] = idPool[ids++].reset();
+            }
+            idEntries[bucket].add(slot, quantity);
+
+            byCategory[categoryOf(name).ordinal()].add(slot, quantity);
+
+            builtIds[slot] = item.getId();
+            builtQuantities[slot] = quantity;
+            builtNames[slot] = name;
+        }
+        builtSize = size;
+        usedSlots = size;
+    }
+
+    public boolean contains(String name) {
+        return byName.containsKey(name);
+    }
+
+    public int quantity(String name) {
+        Entry entry = byName.get(name);
+        return entry != null ? entry.quantity : 0;
+    }
+
+    public SceneEntity<SpriteItem> first(String name) {
+        return itemAt(byName.get(name));
+    }
+
+    public boolean contains(int id) {
+        return idEntries[bucketFor(id)] != null;
+    }
+
+    public int quantity(int id) {
+        Entry entry = idEntries[bucketFor(id)];
+        return entry != null ? entry.quantity : 0;
+    }
+
+    public SceneEntity<SpriteItem> first(int id) {
+        return itemAt(idEntries[bucketFor(id)]);
+    }
+
+    public boolean contains(ItemCategory category) {
+        return byCategory[category.ordinal()].firstSlot >= 0;
+    }
+
+    public int quantity(ItemCategory category) {
+        return byCategory[category.ordinal()].quantity;
+    }
+
+    public SceneEntity<SpriteItem> first(ItemCategory category) {
+        return itemAt(byCategory[category.ordinal()]);
+    }
+
+    public int firstSlot(String name) {
+        Entry entry = byName.get(name);
+        return entry != null ? entry.firstSlot : -1;
+    }
+
+    // Bit n is set when slot n holds the item; iterate with Integer.numberOfTrailingZeros
+    public int slotMask(String name) {
+        Entry entry = byName.get(name);
+        return entry != null ? entry.slotMask : 0;
+    }
+
+    public int slotMask(ItemCategory category) {
+        return byCategory[category.ordinal()].slotMask;
+    }
+
+    public SceneEntity<SpriteItem> item(int slot) {
+        return slot >= 0 && slot < items.size() ? items.get(slot) : null;
+    }
+
+    public int getFreeSlots() {
+        return SLOTS - usedSlots;
+    }
+
+    private SceneEntity<SpriteItem> itemAt(Entry entry) {
+        return entry != null && entry.firstSlot >= 0 ? items.get(entry.firstSlot) : null;
+    }
+
+    // Linear probing; the table is never more than half full, so a free bucket is always found
+    private int bucketFor(int id) {
+        int bucket = (id * 0x9E3779B9) >>> 26;
+        while (idEntries[bucket] != null && idKeys[bucket] != id) {
+            bucket = (bucket + 1) & (ID_TABLE_SIZE - 1);
+        }
+        return bucket;
+    }
+
+    private ItemCategory categoryOf(String name) {
+        if (name == null) {
+            return ItemCategory.OTHER;
+        }
+        ItemCategory category = categoryCache.get(name);
+        if (category == null) {
+            category = ItemCategory.classify(name);
+            categoryCache.put(name, category);
+        }
+        return category;
+    }
+
+    private boolean changedSinceBuilt() {
+        int size = Math.min(items.size(), SLOTS);
+        if (size != builtSize) {
+            return true;
+        }
+        for (int slot = 0; slot < size; slot++) {
+            SceneEntity<SpriteItem> item = items.get(slot);
+            if (item.getId() != builtIds[slot] || item.getQuantity() != builtQuantities[slot]
+                    || !Objects.equals(item.getName(), builtNames[slot])) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,42 @@
+package fighter.world;
+
+import fighter.tasks.tracking.GauntletResource;
+
+// What an inventory item is for. Looking items up by category also covers the different spellings the game and
+// this code use for the same item (e.g. "Teleport crystal" and "Teleport Crystal", or any dose of a potion).
+public enum ItemCategory {
+    TELEPORT,
+    POTION,
+    FOOD,
+    RESOURCE,
+    WEAPON,
+    ARMOUR,
+    TOOL,
+    OTHER;
+
+    // Decided once per distinct name; InventoryIndex caches the answer
+    static ItemCategory classify(String name) {
+        if (name == null) {
+            return OTHER;
+        }
+        String lower = name.toLowerCase();
+        if (lower.equals("teleport crystal")) {
+            return TELEPORT;
+        } else if (lower.startsWith("egniol potion")) {
+            return POTION;
+        } else if (lower.equals("paddlefish")) {
+            return FOOD;
+        } else if (GauntletResource.fromName(name) != null) {
+            return RESOURCE;
+        } else if (lower.contains("bow") || lower.contains("staff") || lower.contains("halberd")
+                || lower.contains("sceptre")) {
+            return WEAPON;
+        } else if (lower.contains("helm") || lower.contains("body") || lower.contains("legs")) {
+            return ARMOUR;
+        } else if (lower.equals("pickaxe") || lower.equals("hatchet") || lower.equals("hammer")
+                || lower.equals("pestle and mortar")) {
+            return TOOL;
+        }
+        return OTHER;
+    }
+}
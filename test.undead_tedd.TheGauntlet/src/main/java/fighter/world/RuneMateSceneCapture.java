@@ -0,0 +1,66 @@
+package fighter.world;
+
+import com.runemate.game.api.hybrid.entities.GameObject;
+import com.runemate.game.api.hybrid.entities.GroundItem;
+import com.runemate.game.api.hybrid.entities.Npc;
+import com.runemate.game.api.hybrid.entities.Player;
+import com.runemate.game.api.hybrid.entities.Projectile;
+import com.runemate.game.api.hybrid.entities.SpotAnimation;
+import com.runemate.game.api.hybrid.entities.definitions.GameObjectDefinition;
+import com.runemate.game.api.hybrid.entities.definitions.ItemDefinition;
+import com.runemate.game.api.hybrid.local.hud.interfaces.Inventory;
+import com.runemate.game.api.hybrid.local.hud.interfaces.SpriteItem;
+import com.runemate.game.api.hybrid.region.GameObjects;
+import com.runemate.game.api.hybrid.region.GroundItems;
+import com.runemate.game.api.hybrid.region.Npcs;
+import com.runemate.game.api.hybrid.region.Players;
+import com.runemate.game.api.hybrid.region.Projectiles;
+import com.runemate.game.api.hybrid.region.SpotAnimations;
+
+// Captures the scene from the game client, one query per entity type
+public class RuneMateSceneCapture implements SceneCapture {
+
+    // Only the objects the bot cares about; an unfiltered object query returns every wall and floor tile
+    private static final String[] TRACKED_OBJECT_NAMES = {
+            "Node", "Illuminated Symbol", "Barrier", "The Gauntlet", "Reward Chest", "Bank Deposit Box",
+            "Singing Bowl", "Water Pump", "Crystal Ore", "Corrupted Ore", "Phren Bark", "Linum Tirinium", "Grym Leaf"
+    };
+
+    @Override
+    public void capture(WorldSnapshot snapshot) {
+        Player player = Players.getLocal();
+        if (player != null) {
+            snapshot.setPlayer(player, player.getPosition(), player.isMoving());
+        }
+
+        for (Npc npc : Npcs.newQuery().results()) {
+            var healthGauge = npc.getHealthGauge(); // Only shown while the NPC is in combat
+            snapshot.addNpc(npc, npc.getId(), npc.getName(), npc.getPosition(),
+                    healthGauge != null ? healthGauge.getPercent() : -1, npc.getAnimationId());
+        }
+        for (GameObject object : GameObjects.newQuery().names(TRACKED_OBJECT_NAMES).results()) {
+            GameObjectDefinition definition = object.getDefinition();
+            if (definition != null) {
+                snapshot.addObject(object, object.getId(), definition.getName(), object.getPosition(), definition.getActions());
+            }
+        }
+        for (GroundItem item : GroundItems.newQuery().results()) {
+            ItemDefinition definition = item.getDefinition();
+            if (definition != null) {
+                snapshot.addGroundItem(item, item.getId(), definition.getName(), item.getPosition(), item.getQuantity());
+            }
+        }
+        for (SpriteItem item : Inventory.getItems()) {
+            ItemDefinition definition = item.getDefinition();
+            if (definition != null) {
+                snapshot.addInventoryItem(item, item.getId(), definition.getName(), item.getQuantity());
+            }
+        }
+        for (SpotAnimation animation : SpotAnimations.newQuery().results()) {
+            snapshot.addSpotAnimation(animation.getPosition());
+        }
+        for (Projectile projectile : Projectiles.newQuery().results()) {
+            snapshot.addProjectile(projectile.getSpotAnimationId());
+        }
+    }
+}
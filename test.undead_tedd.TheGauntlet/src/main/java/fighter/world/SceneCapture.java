@@ -0,0 +1,11 @@
+package fighter.world;
+
+// Source of the scene for WorldSnapshot: fills an empty snapshot through its add methods
+public interface SceneCapture {
+    void capture(WorldSnapshot snapshot);
+
+    // Performs an action on an entity this source captured; the client implementation uses the entity's handle
+    default boolean interact(SceneEntity<?> entity, String action) {
+        return entity.getHandle() != null && entity.getHandle().interact(action);
+    }
+}
@@ -0,0 +1,66 @@
+package fighter.world;
+
+import com.runemate.game.api.hybrid.entities.details.Interactable;
+import com.runemate.game.api.hybrid.location.Coordinate;
+import lombok.Getter;
+
+import java.util.List;
+
+// An entity captured by WorldSnapshot, with its id, name and position resolved once for the whole tick.
+// Instances are pooled and rewritten on every capture, so keep the handle rather than the entity across ticks.
+@Getter
+public class SceneEntity<T extends Interactable> {
+    private T handle;
+    private int id;
+    private String name;
+    private Coordinate position;
+    private int quantity;
+    private List<String> actions;
+    // NPCs only: health gauge percentage and current animation, -1 when the client shows none
+    private int healthPercent = -1;
+    private int animationId = -1;
+    // The capture that produced this entity; interactions are routed back through it
+    private SceneCapture source;
+
+    public SceneEntity() {
+    }
+
+    public SceneEntity(T handle, int id, String name, Coordinate position, int quantity, List<String> actions) {
+        set(handle, id, name, position, quantity, actions);
+    }
+
+    public SceneEntity<T> set(T handle, int id, String name, Coordinate position, int quantity, List<String> actions) {
+        this.handle = handle;
+        this.id = id;
+        this.name = name;
+        this.position = position;
+        this.quantity = quantity;
+        this.actions = actions;
+        this.healthPercent = -1;
+        this.animationId = -1;
+        return this;
+    }
+
+    SceneEntity<T> setCombatState(int healthPercent, int animationId) {
+        this.healthPercent = healthPercent;
+        this.animationId = animationId;
+        return this;
+    }
+
+    public boolean hasAction(String action) {
+        return actions != null && actions.contains(action);
+    }
+
+    void bind(SceneCapture source) {
+        this.source = source;
+    }
+
+    public boolean interact(String action) {
+        return source != null ? source.interact(this, action) : handle != null && handle.interact(action);
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + id + ") at " + position;
+    }
+}
@@ -0,0 +1,8 @@
+package fighter.world;
+
+// Told about every fresh capture, after the inventory listeners, on the thread that read the snapshot (the bot
+// thread). The entities are only valid until the next capture, so keep ids and positions rather than the entities.
+@FunctionalInterface
+public interface SceneListener {
+    void onSceneCaptured(WorldSnapshot world);
+}
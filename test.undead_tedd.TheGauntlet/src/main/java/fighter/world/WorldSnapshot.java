@@ -0,0 +1,386 @@
+package fighter.world;
+
+import com.runemate.game.api.hybrid.entities.GameObject;
+import com.runemate.game.api.hybrid.entities.GroundItem;
+import com.runemate.game.api.hybrid.entities.Npc;
+import com.runemate.game.api.hybrid.entities.Player;
+import com.runemate.game.api.hybrid.entities.details.Interactable;
+import com.runemate.game.api.hybrid.local.hud.interfaces.SpriteItem;
+import com.runemate.game.api.hybrid.location.Coordinate;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A view of the scene (NPCs, objects, ground items, spot animations, projectiles, local player and inventory)
+ * captured once per game tick.
+ * Every task and DungeonUtils helper reads from here instead of running its own query, so all decisions
+ * made within a tick agree with each other.
+ * <p>
+ * The lists and the SceneEntity instances in them are reused between captures, so once the pools have warmed up
+ * a capture allocates nothing beyond what the RuneMate queries themselves return.
+ * <p>
+ * Each capture's inventory is compared with the previous one's, and every change in an item's total quantity is
+ * reported to the inventory listeners. An arrival is reported straight away, but a loss only once two captures in a
+ * row agree on it, so a capture that caught the inventory empty or half read does not report every item removed
+ * and then added again. Deriving the events from captures, rather than from the client's inventory
+ * events, keeps them on the bot thread, works against any SceneCapture, and makes them part of a recorded trace.
+ * Scene listeners are told about every capture after that, for following NPCs across ticks in the same way.
+ * <p>
+ * Inventory lookups go through an {@link InventoryIndex}, which is only rebuilt when a capture shows the inventory
+ * changed. Tasks should use it, through the methods here or {@link #getInventoryIndex()}, rather than scanning
+ * {@link #getInventory()} themselves.
+ */
+@Log4j2(topic = "WorldSnapshot")
+public class WorldSnapshot {
+    public static final int INVENTORY_SIZE = 28;
+
+    // Fallback in case tick events stop arriving: never serve a snapshot older than one game tick
+    private static final long TICK_NANOS = 600_000_000L;
+
+    private volatile long gameTick;
+    private long capturedTick = -1;
+    private long capturedAtNanos;
+
+    // Where the scene is read from; the game client by default, a stand-in for benchmarks
+    @Setter
+    private SceneCapture capture = new RuneMateSceneCapture();
+
+    private final List<SceneEntity<Npc>> npcPool = new ArrayList<>();
+    private final List<SceneEntity<GameObject>> objectPool = new ArrayList<>();
+    private final List<SceneEntity<GroundItem>> groundItemPool = new ArrayList<>();
+    private final List<SceneEntity<SpriteItem>> inventoryPool = new ArrayList<>();
+
+    @Getter
+    private final List<SceneEntity<Npc>> npcs = new ArrayList<>();
+    @Getter
+    private final List<SceneEntity<GameObject>> objects = new ArrayList<>();
+    @Getter
+    private final List<SceneEntity<GroundItem>> groundItems = new ArrayList<>();
+    @Getter
+    private final List<SceneEntity<SpriteItem>> inventory = new ArrayList<>();
+    @Getter
+    private final List<Coordinate> spotAnimationPositions = new ArrayList<>();
+    // Spot animation ids of the projectiles in flight, kept unboxed
+    private int[] projectileIds = new int[8];
+    @Getter
+    private int projectileCount;
+    @Getter
+    private Player player;
+    @Getter
+    private Coordinate playerPosition;
+    @Getter
+    private boolean playerMoving;
+
+    // Item totals by name at the previous and the current capture, for turning captures into inventory events
+    private String[] previousNames = new String[INVENTORY_SIZE];
+    private int[] previousQuantities = new int[INVENTORY_SIZE];
+    private int previousKinds;
+    private String[] currentNames = new String[INVENTORY_SIZE];
+    private int[] currentQuantities = new int[INVENTORY_SIZE];
+    // Totals the listeners have been told about, and the confirmed totals of this capture; an item can be in either
+    // of the last two captures, hence twice the room
+    private String[] publishedNames = new String[2 * INVENTORY_SIZE];
+    private int[] publishedQuantities = new int[2 * INVENTORY_SIZE];
+    private int publishedKinds;
+    private String[] confirmedNames = new String[2 * INVENTORY_SIZE];
+    private int[] confirmedQuantities = new int[2 * INVENTORY_SIZE];
+    private final List<InventoryChangeListener> inventoryListeners = new ArrayList<>();
+    private final List<SceneListener> sceneListeners = new ArrayList<>();
+    @Getter
+    private final InventoryIndex inventoryIndex = new InventoryIndex(inventory);
+
+    // Called from the engine's tick event; the next read on the bot thread recaptures the scene
+    public void onTickStart() {
+        gameTick++;
+    }
+
+    // Forces the next read to recapture, e.g. after an action that changed the scene mid-tick
+    public void invalidate() {
+        capturedTick = -1;
+    }
+
+    // Returns this snapshot, recapturing it first if a new tick has started since the last capture
+    public WorldSnapshot current() {
+        long tick = gameTick;
+        if (tick != capturedTick || System.nanoTime() - capturedAtNanos > TICK_NANOS) {
+            clear();
+            capture.capture(this);
+            capturedTick = tick;
+            capturedAtNanos = System.nanoTime();
+            inventoryIndex.refresh();
+            publishInventoryChanges();
+            for (int i = 0; i < sceneListeners.size(); i++) {
+                sceneListeners.get(i).onSceneCaptured(this);
+            }
+            log.debug("Scene captured: {} npcs, {} objects, {} ground items, {} inventory items.",
+                    npcs.size(), objects.size(), groundItems.size(), inventory.size());
+        }
+        return this;
+    }
+
+    private void clear() {
+        npcs.clear();
+        objects.clear();
+        groundItems.clear();
+        inventory.clear();
+        spotAnimationPositions.clear();
+        projectileCount = 0;
+        player = null;
+        playerPosition = null;
+        playerMoving = false;
+    }
+
+    public void addInventoryListener(InventoryChangeListener listener) {
+        inventoryListeners.add(listener);
+    }
+
+    public void addSceneListener(SceneListener listener) {
+        sceneListeners.add(listener);
+    }
+
+    // Totals the freshly captured inventory by name and reports every change in the confirmed totals
+    private void publishInventoryChanges() {
+        int kinds = 0;
+        for (int i = 0; i < inventory.size(); i++) {
+            SceneEntity<SpriteItem> item = inventory.get(i);
+            String name = item.getName();
+            if (name == null) {
+                continue;
+            }
+            int index = indexOf(currentNames, kinds, name);
+            if (index < 0) {
+                currentNames[kinds] = name;
+                currentQuantities[kinds] = item.getQuantity();
+                kinds++;
+            } else {
+                currentQuantities[index] += item.getQuantity();
+            }
+        }
+
+        // The confirmed total is the larger of this capture's and the previous one's: a rise shows at once, a drop
+        // only when the capture after it reads the same
+        int confirmedKinds = 0;
+        for (int i = 0; i < kinds; i++) {
+            int previous = indexOf(previousNames, previousKinds, currentNames[i]);
+            confirmedNames[confirmedKinds] = currentNames[i];
+            confirmedQuantities[confirmedKinds] = previous < 0 ? currentQuantities[i]
+                    : Math.max(currentQuantities[i], previousQuantities[previous]);
+            confirmedKinds++;
+        }
+        for (int i = 0; i < previousKinds; i++) {
+            if (indexOf(currentNames, kinds, previousNames[i]) < 0) {
+                confirmedNames[confirmedKinds] = previousNames[i];
+                confirmedQuantities[confirmedKinds] = previousQuantities[i];
+                confirmedKinds++;
+            }
+        }
+
+        if (!inventoryListeners.isEmpty()) {
+            for (int i = 0; i < confirmedKinds; i++) {
+                int published = indexOf(publishedNames, publishedKinds, confirmedNames[i]);
+                int delta = confirmedQuantities[i] - (published < 0 ? 0 : publishedQuantities[published]);
+                if (delta != 0) {
+                    notifyInventoryListeners(confirmedNames[i], delta);
+                }
+            }
+            for (int i = 0; i < publishedKinds; i++) {
+                if (indexOf(confirmedNames, confirmedKinds, publishedNames[i]) < 0) {
+                    notifyInventoryListeners(publishedNames[i], -publishedQuantities[i]);
+                }
+            }
+        }
+
+        // The current totals become the previous ones and the confirmed ones the published; the old arrays are
+        // reused next time
+        String[] names = previousNames;
+        int[] quantities = previousQuantities;
+        previousNames = currentNames;
+        previousQuantities = currentQuantities;
+        previousKinds = kinds;
+        currentNames = names;
+        currentQuantities = quantities;
+
+        names = publishedNames;
+        quantities = publishedQuantities;
+        publishedNames = confirmedNames;
+        publishedQuantities = confirmedQuantities;
+        publishedKinds = confirmedKinds;
+        confirmedNames = names;
+        confirmedQuantities = quantities;
+    }
+
+    private void notifyInventoryListeners(String name, int delta) {
+        for (int i = 0; i < inventoryListeners.size(); i++) {
+            inventoryListeners.get(i).onInventoryChanged(name, delta);
+        }
+    }
+
+    private static int indexOf(String[] names, int count, String name) {
+        for (int i = 0; i < count; i++) {
+            if (name.equals(names[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Population methods used by SceneCapture implementations while a capture is in progress
+
+    public void setPlayer(Player player, Coordinate position, boolean moving) {
+        this.player = player;
+        this.playerPosition = position;
+        this.playerMoving = moving;
+    }
+
+    public void addNpc(Npc handle, int id, String name, Coordinate position) {
+        addNpc(handle, id, name, position, -1, -1);
+    }
+
+    public void addNpc(Npc handle, int id, String name, Coordinate position, int healthPercent, int animationId) {
+        npcs.add(obtain(npcPool, npcs.size()).set(handle, id, name, position, 1, null)
+                .setCombatState(healthPercent, animationId));
+    }
+
+    public void addObject(GameObject handle, int id, String name, Coordinate position, List<String> actions) {
+        objects.add(obtain(objectPool, objects.size()).set(handle, id, name, position, 1, actions));
+    }
+
+    public void addGroundItem(GroundItem handle, int id, String name, Coordinate position, int quantity) {
+        groundItems.add(obtain(groundItemPool, groundItems.size()).set(handle, id, name, position, quantity, null));
+    }
+
+    public void addInventoryItem(SpriteItem handle, int id, String name, int quantity) {
+        inventory.add(obtain(inventoryPool, inventory.size()).set(handle, id, name, null, quantity, null));
+    }
+
+    public void addSpotAnimation(Coordinate position) {
+        spotAnimationPositions.add(position);
+    }
+
+    public void addProjectile(int spotAnimationId) {
+        if (projectileCount == projectileIds.length) {
+            projectileIds = Arrays.copyOf(projectileIds, projectileCount * 2);
+        }
+        projectileIds[projectileCount++] = spotAnimationId;
+    }
+
+    public int getProjectileId(int index) {
+        return projectileIds[index];
+    }
+
+    // Returns the pooled entity at index, growing the pool the first time that index is used
+    private <T extends Interactable> SceneEntity<T> obtain(List<SceneEntity<T>> pool, int index) {
+        if (index == pool.size()) {
+            pool.add(new SceneEntity<>());
+        }
+        SceneEntity<T> entity = pool.get(index);
+        entity.bind(capture);
+        return entity;
+    }
+
+    // Lookups below use indexed loops so the per-tick decision path does not allocate iterators
+
+    public SceneEntity<Npc> firstNpc(String name) {
+        for (int i = 0; i < npcs.size(); i++) {
+            SceneEntity<Npc> npc = npcs.get(i);
+            if (name.equals(npc.getName())) {
+                return npc;
+            }
+        }
+        return null;
+    }
+
+    public SceneEntity<Npc> nearestNpc(Collection<String> names) {
+        SceneEntity<Npc> nearest = null;
+        double nearestDistance = Double.MAX_VALUE;
+        for (int i = 0; i < npcs.size(); i++) {
+            SceneEntity<Npc> npc = npcs.get(i);
+            if (npc.getName() != null && names.contains(npc.getName())) {
+                double distance = distanceTo(npc);
+                if (distance < nearestDistance) {
+                    nearest = npc;
+                    nearestDistance = distance;
+                }
+            }
+        }
+        return nearest;
+    }
+
+    public SceneEntity<GameObject> firstObject(String name) {
+        for (int i = 0; i < objects.size(); i++) {
+            SceneEntity<GameObject> object = objects.get(i);
+            if (name.equals(object.getName())) {
+                return object;
+            }
+        }
+        return null;
+    }
+
+    public SceneEntity<GameObject> nearestObject(String name) {
+        return nearestObject(name, null);
+    }
+
+    // Nearest object with the given name, optionally restricted to those offering an action (e.g. "Light")
+    public SceneEntity<GameObject> nearestObject(String name, String action) {
+        SceneEntity<GameObject> nearest = null;
+        double nearestDistance = Double.MAX_VALUE;
+        for (int i = 0; i < objects.size(); i++) {
+            SceneEntity<GameObject> object = objects.get(i);
+            if (name.equals(object.getName()) && (action == null || object.hasAction(action))) {
+                double distance = distanceTo(object);
+                if (distance < nearestDistance) {
+                    nearest = object;
+                    nearestDistance = distance;
+                }
+            }
+        }
+        return nearest;
+    }
+
+    public SceneEntity<SpriteItem> inventoryItem(String name) {
+        return inventoryIndex.first(name);
+    }
+
+    // Any item of the category, e.g. whichever dose of Egniol potion is left
+    public SceneEntity<SpriteItem> inventoryItem(ItemCategory category) {
+        return inventoryIndex.first(category);
+    }
+
+    public boolean inventoryContains(String name) {
+        return inventoryIndex.contains(name);
+    }
+
+    public boolean inventoryContains(ItemCategory category) {
+        return inventoryIndex.contains(category);
+    }
+
+    public int inventoryQuantity(String name) {
+        return inventoryIndex.quantity(name);
+    }
+
+    public boolean hasSpotAnimationAt(Coordinate position) {
+        for (int i = 0; i < spotAnimationPositions.size(); i++) {
+            if (position.equals(spotAnimationPositions.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isInventoryFull() {
+        return inventory.size() >= INVENTORY_SIZE;
+    }
+
+    public double distanceTo(SceneEntity<?> entity) {
+        if (playerPosition == null || entity.getPosition() == null) {
+            return Double.MAX_VALUE;
+        }
+        return playerPosition.distanceTo(entity.getPosition());
+    }
+}
@@ -0,0 +1,318 @@
+package fighter.replay;
+
+import com.runemate.game.api.hybrid.entities.Npc;
+import com.runemate.game.api.hybrid.local.hud.interfaces.Equipment;
+import com.runemate.game.api.hybrid.location.Coordinate;
+import com.runemate.game.api.osrs.local.hud.interfaces.ControlPanelTab;
+import com.runemate.game.api.osrs.local.hud.interfaces.Prayer;
+import fighter.DungeonUtils;
+import fighter.game.GamePort;
+import fighter.game.TickClock;
+import fighter.world.SceneEntity;
+import fighter.world.WorldSnapshot;
+import lombok.Getter;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GamePort that answers every call from an observation trace recorded by {@link RecordingGamePort}, so the decision
+ * tree and its leaves can be run again offline against exactly what the bot saw live.
+ * <p>
+ * Each call must match the next recorded event; anything else means the code made a different choice than it did
+ * live and is reported as an {@link IllegalStateException} naming the event. A recorded tick is delivered just
+ * before the first event observed on it, or ahead of a scene capture so the snapshot recaptures at the same point.
+ * <p>
+ * Ticks do not sleep unless a time scale is given; with one, each recorded tick sleeps a tick scaled down by it.
+ * Every wait the bot makes is a tick wait, so a replay is repeatable at any pace.
+ */
+public class ReplayGamePort implements GamePort {
+    private final DataInputStream in;
+    private final TickClock tickClock = new TickClock();
+    private final double timeScale;
+
+    private int nextCode;
+    private long pendingTick = -1;
+    @Getter
+    private long eventIndex;
+
+    public ReplayGamePort(Path trace, double timeScale) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(trace), 1 << 16));
+        this.timeScale = timeScale;
+        if (in.readInt() != TraceEvent.MAGIC || in.readInt() != TraceEvent.VERSION) {
+            in.close();
+            throw new IOException("Not an observation trace: " + trace);
+        }
+        advance();
+        applyPendingTick(false); // Start on the tick the recording started on, without pacing the ticks before it
+    }
+
+    public boolean isExhausted() {
+        return nextCode < 0;
+    }
+
+    public void close() throws IOException {
+        in.close();
+    }
+
+    @Override
+    public void capture(WorldSnapshot snapshot) {
+        try {
+            expect(TraceEvent.CAPTURE);
+            snapshot.setPlayer(null, readPosition(), in.readBoolean());
+
+            int npcs = in.readUnsignedShort();
+            for (int i = 0; i < npcs; i++) {
+                snapshot.addNpc(null, in.readInt(), readNullableString(), readPosition(), in.readByte(), in.readInt());
+            }
+
+            int objects = in.readUnsignedShort();
+            for (int i = 0; i < objects; i++) {
+                int id = in.readInt();
+                String name = readNullableString();
+                Coordinate position = readPosition();
+                int actionCount = in.readUnsignedByte();
+                List<String> actions = new ArrayList<>(actionCount);
+                for (int j = 0; j < actionCount; j++) {
+                    actions.add(readNullableString());
+                }
+                snapshot.addObject(null, id, name, position, actions);
+            }
+
+            int groundItems = in.readUnsignedShort();
+            for (int i = 0; i < groundItems; i++) {
+                snapshot.addGroundItem(null, in.readInt(), readNullableString(), readPosition(), in.readInt());
+            }
+
+            int inventory = in.readUnsignedShort();
+            for (int i = 0; i < inventory; i++) {
+                snapshot.addInventoryItem(null, in.readInt(), readNullableString(), in.readInt());
+            }
+
+            int spotAnimations = in.readUnsignedShort();
+            for (int i = 0; i < spotAnimations; i++) {
+                snapshot.addSpotAnimation(readPosition());
+            }
+
+            int projectiles = in.readUnsignedShort();
+            for (int i = 0; i < projectiles; i++) {
+                snapshot.addProjectile(in.readInt());
+            }
+            advance();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean interact(SceneEntity<?> entity, String action) {
+        try {
+            expect(TraceEvent.INTERACT);
+            String recordedName = in.readUTF();
+            String recordedAction = in.readUTF();
+            if (!recordedName.equals(String.valueOf(entity.getName())) || !recordedAction.equals(action)) {
+                throw new IllegalStateException("Replay diverged at event " + eventIndex + ": expected " + recordedAction
+                        + " on " + recordedName + " but the bot did " + action + " on " + entity.getName());
+            }
+            boolean result = in.readBoolean();
+            advance();
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int getHealthPercent() {
+        return readInt(TraceEvent.HEALTH);
+    }
+
+    @Override
+    public int getPrayerPoints() {
+        return readInt(TraceEvent.PRAYER_POINTS);
+    }
+
+    @Override
+    public boolean isPrayerActive(Prayer prayer) {
+        return readBoolean(TraceEvent.PRAYER_ACTIVE);
+    }
+
+    @Override
+    public boolean activatePrayer(Prayer prayer) {
+        return readBoolean(TraceEvent.ACTIVATE_PRAYER);
+    }
+
+    @Override
+    public boolean deactivatePrayer(Prayer prayer) {
+        return readBoolean(TraceEvent.DEACTIVATE_PRAYER);
+    }
+
+    @Override
+    public String getEquippedItemName(Equipment.Slot slot) {
+        try {
+            expect(TraceEvent.EQUIPPED_ITEM);
+            in.readUnsignedByte(); // The slot asked for; the bot asks in the same order when it replays
+            String name = readNullableString();
+            advance();
+            return name;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int getPlayerHitsplatCount() {
+        return readInt(TraceEvent.HITSPLAT_COUNT);
+    }
+
+    @Override
+    public boolean hasPlayerHitsplat(SceneEntity<Npc> npc) {
+        return readBoolean(TraceEvent.HAS_HITSPLAT);
+    }
+
+    @Override
+    public boolean isTabOpen(ControlPanelTab tab) {
+        return readBoolean(TraceEvent.TAB_OPEN);
+    }
+
+    @Override
+    public boolean pressKey(int keyCode) {
+        return readBoolean(TraceEvent.PRESS_KEY);
+    }
+
+    @Override
+    public boolean releaseKey(int keyCode) {
+        return readBoolean(TraceEvent.RELEASE_KEY);
+    }
+
+    @Override
+    public boolean stepTowards(Coordinate destination) {
+        return readBoolean(TraceEvent.STEP_TOWARDS);
+    }
+
+    @Override
+    public void setupCamera(int yaw, double pitch, int zoom) {
+        readEmpty(TraceEvent.SETUP_CAMERA);
+    }
+
+    @Override
+    public void turnCameraTo(Coordinate target, int yawOffset) {
+        readEmpty(TraceEvent.TURN_CAMERA);
+    }
+
+    @Override
+    public TickClock getTickClock() {
+        return tickClock;
+    }
+
+    @Override
+    public boolean awaitTick(long tick, int slackTicks) {
+        return readBoolean(TraceEvent.AWAIT_TICK);
+    }
+
+    private int readInt(byte code) {
+        try {
+            expect(code);
+            int value = in.readInt();
+            advance();
+            return value;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean readBoolean(byte code) {
+        try {
+            expect(code);
+            boolean value = in.readBoolean();
+            advance();
+            return value;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readEmpty(byte code) {
+        try {
+            expect(code);
+            advance();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void expect(byte code) {
+        if (nextCode != code) {
+            throw new IllegalStateException(nextCode < 0
+                    ? "Replay ran past the end of the trace after " + eventIndex + " events, calling " + TraceEvent.name(code)
+                    : "Replay diverged at event " + eventIndex + ": the trace has " + TraceEvent.name(nextCode)
+                    + " but the bot called " + TraceEvent.name(code));
+        }
+        applyPendingTick(true);
+        eventIndex++;
+    }
+
+    // Reads the code of the next event, holding back any tick changes recorded in front of it
+    private void advance() throws IOException {
+        try {
+            nextCode = in.readByte();
+            while (nextCode == TraceEvent.TICK) {
+                pendingTick = in.readLong();
+                nextCode = in.readByte();
+            }
+        } catch (EOFException e) {
+            nextCode = -1;
+        }
+        // The live snapshot recaptured on its own when it noticed the tick; make the replayed one do the same
+        if (nextCode == TraceEvent.CAPTURE) {
+            applyPendingTick(true);
+            DungeonUtils.invalidateWorld();
+        }
+    }
+
+    private void applyPendingTick(boolean paced) {
+        if (pendingTick < 0) {
+            return;
+        }
+        while (tickClock.getTick() < pendingTick) {
+            tickClock.onTick();
+            DungeonUtils.onGameTick();
+            if (paced) {
+                sleepScaled((int) (TickClock.TICK_NANOS / 1_000_000L));
+            }
+        }
+        pendingTick = -1;
+    }
+
+    private void sleepScaled(int millis) {
+        if (timeScale <= 0) {
+            return;
+        }
+        long nanos = (long) (millis * 1_000_000L / timeScale);
+        if (nanos > 0) {
+            try {
+                Thread.sleep(nanos / 1_000_000L, (int) (nanos % 1_000_000L));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Coordinate readPosition() throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new Coordinate(in.readShort(), in.readShort(), in.readByte());
+    }
+
+    private String readNullableString() throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
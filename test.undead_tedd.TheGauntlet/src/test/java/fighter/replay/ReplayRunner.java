@@ -0,0 +1,157 @@
+package fighter.replay;
+
+import com.runemate.game.api.script.framework.tree.TreeTask;
+import fighter.DungeonCrawler;
+import fighter.DungeonUtils;
+import fighter.journal.Decision;
+import fighter.journal.JournalReader;
+import fighter.journal.JournalRecord;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Replays a recorded run offline: the observation trace is fed back to a fresh DungeonCrawler through a
+ * ReplayGamePort, and the branch chosen on every loop is checked against the session's decision journal. The tree is
+ * walked the same way TreeBot and SimulationRunner walk it. Scenario tests replay a checked-in trace and assert on
+ * the result; {@link #main} replays one from the command line.
+ * <p>
+ * Usage: ReplayRunner &lt;trace&gt; &lt;journal&gt; [corrupted] [timeScale]. A timeScale of 0 (the default)
+ * replays as fast as the machine allows. Replay stops at the first divergence and reports where it was.
+ * <p>
+ * Whether the bot was switched on is a UI input and not part of the trace; it is taken from the journal, where a
+ * loop with the bot switched off is recorded as IDLE. A trace is always recorded alongside a journal, and journaling
+ * reads the game, so the replayed bot journals too, to a directory of its own.
+ */
+@Log4j2(topic = "ReplayRunner")
+public class ReplayRunner {
+    @Getter
+    private final ReplayGamePort port;
+    @Getter
+    private final DungeonCrawler bot;
+    private final TreeTask root;
+
+    @Getter
+    private long loops;
+    @Getter
+    private int replayed;
+    private long[] replayedNanos = new long[0];
+    private long[] recordedNanos = new long[0];
+    private long elapsedNanos;
+
+    /**
+     * Installs the trace as the game and builds the bot against it. DungeonUtils is static, so only one runner can
+     * be live per JVM.
+     *
+     * @param journalDirectory where the replayed decisions are journaled
+     */
+    public ReplayRunner(Path trace, boolean corrupted, double timeScale, Path journalDirectory) throws IOException {
+        port = new ReplayGamePort(trace, timeScale);
+        // The port has to be in place before the bot is created, since every task picks it up in its constructor
+        DungeonUtils.setGamePort(port);
+        bot = new DungeonCrawler();
+        bot.setEnterCorrupted(corrupted);
+        bot.openDecisionJournal(journalDirectory);
+        root = bot.createRootTask();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ReplayRunner <trace> <journal> [corrupted] [timeScale]");
+            return;
+        }
+        boolean corrupted = args.length > 2 && Boolean.parseBoolean(args[2]);
+        double timeScale = args.length > 3 ? Double.parseDouble(args[3]) : 0;
+
+        ReplayRunner runner = new ReplayRunner(Paths.get(args[0]), corrupted, timeScale,
+                Files.createTempDirectory("replay-journal"));
+        String divergence = runner.replay(Paths.get(args[1]));
+        runner.close();
+        runner.report();
+        if (divergence != null) {
+            log.error("Replay diverged at {}", divergence);
+        }
+    }
+
+    /**
+     * Replays the recorded loops in order until the journal runs out or the replay takes a different branch.
+     *
+     * @return where the replay diverged, or null if every loop chose the recorded branch
+     */
+    public String replay(Path journal) throws IOException {
+        try (JournalReader reader = new JournalReader(journal)) {
+            loops = reader.getRecordCount();
+            replayedNanos = new long[(int) Math.min(loops, Integer.MAX_VALUE - 8)];
+            recordedNanos = new long[replayedNanos.length];
+            JournalRecord expected = new JournalRecord();
+            String divergence = null;
+
+            long started = System.nanoTime();
+            while (replayed < replayedNanos.length && reader.next(expected)) {
+                bot.setBotRunning(expected.getDecision() != Decision.IDLE);
+                try {
+                    long decisionStart = System.nanoTime();
+                    TreeTask leaf = resolveLeaf(root);
+                    replayedNanos[replayed] = System.nanoTime() - decisionStart;
+                    recordedNanos[replayed] = expected.getDecisionNanos();
+
+                    if (bot.getLastDecision() != expected.getDecision()) {
+                        divergence = "loop " + replayed + " (tick " + expected.getTick() + ") chose "
+                                + bot.getLastDecision() + ", the recorded run chose " + expected.getDecision();
+                        break;
+                    }
+                    replayed++;
+                    if (leaf != null) {
+                        leaf.execute();
+                    }
+                } catch (IllegalStateException e) {
+                    divergence = "loop " + replayed + " (tick " + expected.getTick() + "): " + e.getMessage();
+                    break;
+                }
+            }
+            elapsedNanos = System.nanoTime() - started;
+            return divergence;
+        }
+    }
+
+    public void close() throws IOException {
+        bot.closeDecisionJournal();
+        port.close();
+    }
+
+    // Walks from the root down to the leaf the tree would execute this loop
+    private static TreeTask resolveLeaf(TreeTask task) {
+        while (task != null && !task.isLeaf()) {
+            task = task.validate() ? task.successTask() : task.failureTask();
+        }
+        return task;
+    }
+
+    private void report() {
+        long[] replayedSorted = Arrays.copyOf(replayedNanos, replayed);
+        long[] recordedSorted = Arrays.copyOf(recordedNanos, replayed);
+        Arrays.sort(replayedSorted);
+        Arrays.sort(recordedSorted);
+        double seconds = elapsedNanos / 1e9;
+        log.info("Replayed {} of {} loops ({} trace events, {} ticks) in {} s: {} loops/s.", replayed, loops,
+                port.getEventIndex(), port.getTickClock().getTick(), String.format("%.2f", seconds),
+                String.format("%.0f", replayed / seconds));
+        log.info("Decision latency replayed: p50 {} us, p99 {} us, max {} us; recorded: p50 {} us, p99 {} us, max {} us.",
+                percentileMicros(replayedSorted, 0.50), percentileMicros(replayedSorted, 0.99),
+                percentileMicros(replayedSorted, 1.0), percentileMicros(recordedSorted, 0.50),
+                percentileMicros(recordedSorted, 0.99), percentileMicros(recordedSorted, 1.0));
+    }
+
+    private static String percentileMicros(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return "-";
+        }
+        int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(percentile * sortedNanos.length) - 1);
+        return String.format("%.1f", sortedNanos[Math.max(0, index)] / 1e3);
+    }
+}
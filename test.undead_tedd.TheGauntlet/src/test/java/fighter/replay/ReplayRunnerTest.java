@@ -0,0 +1,43 @@
+package fighter.replay;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Replays a checked-in recording of the simulated Gauntlet (seed 42, 200 ticks) and expects the tree to take the
+// recorded branch on every loop. A change to what the bot reads from the game, or in which order, shows up here;
+// when that is intended, record again by running SimulationRunner with -Ddungeoncrawler.record=<directory> and the
+// arguments 42 200 0 false, and cut the journal down to the records its header counts
+class ReplayRunnerTest {
+    private static final String TRACE = "sim-seed42.trace";
+    private static final String JOURNAL = "sim-seed42.journal";
+
+    @TempDir
+    Path journalDirectory;
+
+    @Test
+    void replaysTheRecordedDecisions() throws Exception {
+        ReplayRunner runner = new ReplayRunner(resource(TRACE), false, 0, journalDirectory);
+        String divergence;
+        try {
+            divergence = runner.replay(resource(JOURNAL));
+        } finally {
+            runner.close();
+        }
+
+        assertNull(divergence, "the replay diverged from the recorded run");
+        assertTrue(runner.getLoops() > 0, "the journal holds no loops");
+        assertEquals(runner.getLoops(), runner.getReplayed());
+        assertTrue(runner.getPort().isExhausted(), "the replay stopped short of the end of the trace");
+    }
+
+    private static Path resource(String name) throws Exception {
+        return Paths.get(ReplayRunnerTest.class.getResource(name).toURI());
+    }
+}
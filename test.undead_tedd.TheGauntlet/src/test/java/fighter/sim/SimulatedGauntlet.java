@@ -0,0 +1,986 @@
+package fighter.sim;
+
+import com.runemate.game.api.hybrid.entities.Npc;
+import com.runemate.game.api.hybrid.local.hud.interfaces.Equipment;
+import com.runemate.game.api.hybrid.location.Coordinate;
+import com.runemate.game.api.osrs.local.hud.interfaces.ControlPanelTab;
+import com.runemate.game.api.osrs.local.hud.interfaces.Prayer;
+import fighter.game.GamePort;
+import fighter.game.TickClock;
+import fighter.world.SceneEntity;
+import fighter.world.WorldSnapshot;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An in-process Gauntlet behind the GamePort, so the decision tree can run without a game client.
+ * <p>
+ * The dungeon is a 7x7 grid of 16x16 rooms with the crafting room in the middle, laid out on the same coordinates
+ * DungeonUtils and BossType use. Rooms are lit through the nodes on their doorways and are populated when lit with
+ * resource nodes, weak monsters and the two demi-bosses. The Barrier in the crafting room leads to the Hunllef, and
+ * so does the preparation time running out.
+ * <p>
+ * Time only moves inside delay calls: every 600 ms of simulated time is one game tick, and each tick is slept for
+ * 600 ms / timeScale of real time (not at all when timeScale is 0). Item and object names follow the names the
+ * tasks look for rather than the exact in-game names.
+ */
+@Log4j2(topic = "SimulatedGauntlet")
+public class SimulatedGauntlet implements GamePort {
+    public static final int TICK_MILLIS = 600;
+    public static final int GRID_SIZE = 7;
+    public static final int ROOM_SIZE = 16;
+
+    private static final int CRAFTING_ROOM = GRID_SIZE / 2;
+    private static final int MAX_HITPOINTS = 99;
+    private static final int MAX_PRAYER = 77;
+    private static final int VIEW_DISTANCE = 24;
+    private static final int RUN_TILES_PER_TICK = 2;
+    private static final int PLAYER_ATTACK_SPEED = 4;
+    private static final int HUNLLEF_ATTACK_SPEED = 5;
+    private static final int HUNLLEF_ATTACKS_PER_STYLE = 4;
+    private static final int TORNADO_INTERVAL = 12;
+    private static final int TORNADO_LIFETIME = 6;
+    private static final int HUNLLEF_PROJECTILE_TICKS = 2;
+    private static final int PRAYER_DISABLE_CHANCE = 5; // One magic attack in this many switches prayers off
+    private static final int HITSPLAT_TICKS = 2;
+    private static final int HEALTH_GAUGE_TICKS = 10;
+    // A dead NPC plays its death animation, gauge at 0, for this long before it leaves the scene and drops its loot
+    private static final int DEATH_TICKS = 3;
+    private static final int DEATH_ANIMATION = 4_000; // Any id will do; the bot learns it from the first kill
+    private static final int HITPOINT_REGEN_TICKS = 100; // Like the game, one hitpoint comes back every minute
+    // Like the game, the player is moved to the Hunllef once preparation time runs out. The game allows ten minutes;
+    // the simulated dungeon has no cooked food, so most of a run is spent regenerating and it gets ten times as long.
+    private static final int PREPARATION_TICKS = 10_000;
+
+    // Doorway node offsets within a room, two per side, in the order north, east, south, west
+    private static final int[][] DOOR_NODE_OFFSETS = {{6, 14, 9, 14}, {14, 9, 14, 6}, {9, 1, 6, 1}, {1, 6, 1, 9}};
+    private static final int[][] DOOR_DIRECTIONS = {{0, 1}, {1, 0}, {0, -1}, {-1, 0}};
+
+    private static final String[] RESOURCE_NODE_NAMES = {"Crystal Ore", "Phren Bark", "Linum Tirinium", "Grym Leaf"};
+    private static final String[] WEAK_MONSTERS = {"Rat", "Spider", "Bat"};
+
+    private enum Area {LOBBY, DUNGEON, ARENA}
+
+    private enum Kind {NPC, OBJECT, GROUND_ITEM}
+
+    private enum Style {MELEE, RANGED, MAGIC}
+
+    // One simulated NPC, object or ground item
+    private static final class Thing {
+        final Kind kind;
+        final Area area;
+        final String name;
+        final int id;
+        Coordinate position;
+        List<String> actions;
+        int quantity = 1;
+        // NPC combat state
+        int hitpoints;
+        int maxHitpoints;
+        int maxHit;
+        int attackSpeed;
+        Style style = Style.MELEE;
+        int attackCount;
+        long lastHitByPlayerTick = Long.MIN_VALUE / 2;
+        long diedTick = -1;
+        // Resource nodes: gathers left; doorway nodes: the room they light
+        int remaining;
+        int targetRoom = -1;
+
+        Thing(Kind kind, Area area, String name, int id, Coordinate position, List<String> actions) {
+            this.kind = kind;
+            this.area = area;
+            this.name = name;
+            this.id = id;
+            this.position = position;
+            this.actions = actions;
+        }
+    }
+
+    // One inventory slot
+    private static final class Item {
+        final String name;
+        final int id;
+        int quantity;
+
+        Item(String name, int id, int quantity) {
+            this.name = name;
+            this.id = id;
+            this.quantity = quantity;
+        }
+    }
+
+    private final Random random;
+    private final double timeScale;
+    private final boolean corrupted;
+    private final int originX;
+    private final int originY;
+    private final String prefix;
+    private final List<String> catalogue = new ArrayList<>();
+    private final List<Runnable> tickListeners = new ArrayList<>();
+    @Getter
+    private final TickClock tickClock = new TickClock();
+
+    private final List<Thing> things = new ArrayList<>();
+    private final List<Item> inventory = new ArrayList<>();
+    private final List<Coordinate> tornadoes = new ArrayList<>();
+    private final List<Long> tornadoExpiry = new ArrayList<>();
+    private final List<Integer> projectiles = new ArrayList<>();
+    private final List<Long> projectileExpiry = new ArrayList<>();
+    private final List<Long> playerHitsplatExpiry = new ArrayList<>();
+    private final Set<Prayer> activePrayers = new HashSet<>();
+    private final boolean[] litRooms = new boolean[GRID_SIZE * GRID_SIZE];
+
+    @Getter
+    private long simulatedMillis;
+    private long nextTickMillis = TICK_MILLIS;
+    @Getter
+    private long tick;
+
+    private Area area = Area.LOBBY;
+    private Coordinate position;
+    private Coordinate destination;
+    private Thing target;
+    private String targetAction;
+    private boolean moving;
+    private int hitpoints = MAX_HITPOINTS;
+    private int prayerPoints = MAX_PRAYER;
+    // Like the game, a prayer switched on during a tick does not drain on the tick that follows, which is what
+    // makes flicking it cheaper than leaving it on
+    private long prayerActivatedTick = -1;
+    // A prayer switched on and straight back off within one tick still protects on the tick that follows, at no cost
+    private Prayer flickedPrayer;
+    private long flickedTick = -1;
+    private long nextPlayerAttackTick;
+    private final Map<Equipment.Slot, String> equipment = new EnumMap<>(Equipment.Slot.class);
+    private ControlPanelTab openTab = ControlPanelTab.INVENTORY;
+    private boolean craftingMenuOpen;
+    private int dragonRoom = -1;
+    private long preparationEndTick;
+    private int darkBeastRoom = -1;
+
+    // Throughput counters
+    @Getter
+    private long actions;
+    @Getter
+    private long kills;
+    @Getter
+    private long resourcesGathered;
+    @Getter
+    private long roomsLit;
+    @Getter
+    private long itemsCrafted;
+    @Getter
+    private long damageTaken;
+    @Getter
+    private long bossAttacks;
+    @Getter
+    private int runsCompleted;
+    @Getter
+    private int deaths;
+
+    public SimulatedGauntlet(long seed, double timeScale, boolean corrupted) {
+        this.random = new Random(seed);
+        this.timeScale = timeScale;
+        this.corrupted = corrupted;
+        this.prefix = corrupted ? "Corrupted" : "Crystalline";
+        // The crafting room sits at (1904, 5664) for the normal variant and 64 tiles east for the corrupted one
+        this.originX = (corrupted ? 1968 : 1904) - CRAFTING_ROOM * ROOM_SIZE;
+        this.originY = 5664 - CRAFTING_ROOM * ROOM_SIZE;
+        resetToLobby();
+    }
+
+    // Called on the calling thread at the start of every simulated tick, e.g. DungeonUtils::onGameTick
+    public void addTickListener(Runnable listener) {
+        tickListeners.add(listener);
+    }
+
+    // Advances time to the start of the next tick; used by the runner when a decision did not wait on anything
+    public void advanceToNextTick() {
+        advance((int) (nextTickMillis - simulatedMillis));
+    }
+
+    // SceneCapture
+
+    @Override
+    public void capture(WorldSnapshot snapshot) {
+        snapshot.setPlayer(null, position, moving);
+        for (int i = 0; i < things.size(); i++) {
+            Thing thing = things.get(i);
+            if (!isVisible(thing)) {
+                continue;
+            }
+            switch (thing.kind) {
+                case NPC -> snapshot.addNpc(null, thing.id, thing.name, thing.position, healthPercent(thing),
+                        thing.diedTick >= 0 ? DEATH_ANIMATION : -1);
+                case OBJECT -> snapshot.addObject(null, thing.id, thing.name, thing.position, thing.actions);
+                case GROUND_ITEM -> snapshot.addGroundItem(null, thing.id, thing.name, thing.position, thing.quantity);
+            }
+        }
+        for (int i = 0; i < inventory.size(); i++) {
+            Item item = inventory.get(i);
+            snapshot.addInventoryItem(null, item.id, item.name, item.quantity);
+        }
+        if (area == Area.ARENA) {
+            for (int i = 0; i < tornadoes.size(); i++) {
+                snapshot.addSpotAnimation(tornadoes.get(i));
+            }
+            for (int i = 0; i < projectiles.size(); i++) {
+                snapshot.addProjectile(projectiles.get(i));
+            }
+        }
+    }
+
+    @Override
+    public boolean interact(SceneEntity<?> entity, String action) {
+        if (entity.getPosition() == null) {
+            return interactWithItem(entity.getName(), action);
+        }
+        Thing thing = findThing(entity.getName(), entity.getPosition());
+        if (thing == null || !isVisible(thing) || !acceptsAction(thing, action)) {
+            return false;
+        }
+        actions++;
+        craftingMenuOpen = false;
+        target = thing;
+        targetAction = action;
+        destination = thing.position;
+        return true;
+    }
+
+    // GamePort
+
+    @Override
+    public int getHealthPercent() {
+        return hitpoints * 100 / MAX_HITPOINTS;
+    }
+
+    @Override
+    public int getPrayerPoints() {
+        return prayerPoints;
+    }
+
+    @Override
+    public boolean isPrayerActive(Prayer prayer) {
+        return activePrayers.contains(prayer);
+    }
+
+    @Override
+    public boolean activatePrayer(Prayer prayer) {
+        if (prayerPoints <= 0) {
+            return false;
+        }
+        // Protection prayers are mutually exclusive
+        activePrayers.removeIf(active -> active.name().startsWith("PROTECT_FROM_"));
+        activePrayers.add(prayer);
+        prayerActivatedTick = tick;
+        return true;
+    }
+
+    @Override
+    public boolean deactivatePrayer(Prayer prayer) {
+        if (!activePrayers.remove(prayer)) {
+            return false;
+        }
+        if (prayerActivatedTick == tick) {
+            flickedPrayer = prayer;
+            flickedTick = tick;
+        }
+        return true;
+    }
+
+    @Override
+    public String getEquippedItemName(Equipment.Slot slot) {
+        return equipment.get(slot);
+    }
+
+    @Override
+    public int getPlayerHitsplatCount() {
+        return playerHitsplatExpiry.size();
+    }
+
+    @Override
+    public boolean hasPlayerHitsplat(SceneEntity<Npc> npc) {
+        Thing thing = findThing(npc.getName(), npc.getPosition());
+        return thing != null && tick - thing.lastHitByPlayerTick < HITSPLAT_TICKS;
+    }
+
+    @Override
+    public boolean isTabOpen(ControlPanelTab tab) {
+        return openTab == tab;
+    }
+
+    @Override
+    public boolean pressKey(int keyCode) {
+        actions++;
+        if (keyCode == KeyEvent.VK_F3) {
+            openTab = ControlPanelTab.INVENTORY;
+            return true;
+        }
+        if (keyCode == KeyEvent.VK_F5 || keyCode == KeyEvent.VK_F1) {
+            openTab = ControlPanelTab.PRAYER;
+            return true;
+        }
+        if (craftingMenuOpen && keyCode >= '1' && keyCode <= '8') {
+            craft((char) keyCode);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean releaseKey(int keyCode) {
+        return true;
+    }
+
+    @Override
+    public boolean stepTowards(Coordinate destination) {
+        actions++;
+        target = null;
+        this.destination = destination;
+        return true;
+    }
+
+    @Override
+    public void setupCamera(int yaw, double pitch, int zoom) {
+        // The simulation has no camera
+    }
+
+    @Override
+    public void turnCameraTo(Coordinate target, int yawOffset) {
+        // The simulation has no camera
+    }
+
+    @Override
+    public boolean awaitTick(long tick, int slackTicks) {
+        while (tickClock.getTick() < tick) {
+            advanceToNextTick();
+        }
+        return true;
+    }
+
+    // Time
+
+    private void advance(int millis) {
+        long until = simulatedMillis + Math.max(0, millis);
+        while (nextTickMillis <= until) {
+            simulatedMillis = nextTickMillis;
+            nextTickMillis += TICK_MILLIS;
+            if (timeScale > 0) {
+                LockSupport.parkNanos((long) (TICK_MILLIS * 1_000_000L / timeScale));
+            }
+            runTick();
+        }
+        simulatedMillis = until;
+    }
+
+    private void runTick() {
+        tick++;
+        tickClock.onTick();
+        expire(playerHitsplatExpiry, null);
+        expire(tornadoExpiry, tornadoes);
+        expire(projectileExpiry, projectiles);
+        if (area == Area.DUNGEON && tick >= preparationEndTick) {
+            log.info("Preparation time is up after {} ticks.", tick);
+            enterArena();
+        }
+        movePlayer();
+        performTargetAction();
+        removeDeadNpcs();
+        runNpcs();
+        if (area == Area.ARENA && tick % TORNADO_INTERVAL == 0) {
+            spawnTornadoes();
+        }
+        if (tick % HITPOINT_REGEN_TICKS == 0 && hitpoints < MAX_HITPOINTS) {
+            hitpoints++;
+        }
+        if (!activePrayers.isEmpty() && prayerActivatedTick != tick - 1 && tick % 3 == 0) {
+            prayerPoints = Math.max(0, prayerPoints - 1);
+            if (prayerPoints == 0) {
+                activePrayers.clear();
+            }
+        }
+        for (int i = 0; i < tickListeners.size(); i++) {
+            tickListeners.get(i).run();
+        }
+    }
+
+    private void expire(List<Long> expiry, List<?> paired) {
+        for (int i = expiry.size() - 1; i >= 0; i--) {
+            if (expiry.get(i) <= tick) {
+                expiry.remove(i);
+                if (paired != null) {
+                    paired.remove(i);
+                }
+            }
+        }
+    }
+
+    private void movePlayer() {
+        moving = false;
+        if (destination == null) {
+            return;
+        }
+        int reach = target != null && target.kind == Kind.NPC ? attackRange() : target != null ? 1 : 0;
+        for (int step = 0; step < RUN_TILES_PER_TICK && distance(position, destination) > reach; step++) {
+            position = new Coordinate(position.getX() + Integer.signum(destination.getX() - position.getX()),
+                    position.getY() + Integer.signum(destination.getY() - position.getY()), position.getPlane());
+            moving = true;
+        }
+        if (distance(position, destination) <= reach) {
+            destination = null;
+        }
+    }
+
+    // Player actions
+
+    private void performTargetAction() {
+        if (target == null || destination != null) {
+            return;
+        }
+        if (!things.contains(target)) {
+            target = null;
+            return;
+        }
+        switch (targetAction) {
+            case "Attack" -> attack(target);
+            case "Gather" -> gather(target);
+            case "Light" -> lightNode(target);
+            case "Take" -> take(target);
+            case "Enter", "Enter-corrupted" -> enterDungeon();
+            case "Pass" -> enterArena();
+            case "Sing-crystal" -> craftingMenuOpen = true;
+            case "Fill" -> fillVials();
+            case "Loot", "Deposit" -> depositLoot();
+            default -> log.debug("No simulated behaviour for {} on {}", targetAction, target.name);
+        }
+        if (!"Attack".equals(targetAction) && !"Gather".equals(targetAction)) {
+            target = null;
+        }
+    }
+
+    private void attack(Thing npc) {
+        if (npc.diedTick >= 0) {
+            target = null;
+            return;
+        }
+        if (tick < nextPlayerAttackTick) {
+            return;
+        }
+        nextPlayerAttackTick = tick + PLAYER_ATTACK_SPEED;
+        npc.hitpoints -= random.nextInt(weaponMaxHit() + 1);
+        npc.lastHitByPlayerTick = tick;
+        if (npc.name.endsWith("Hunllef")) {
+            bossAttacks++;
+        }
+        if (npc.hitpoints <= 0) {
+            target = null;
+            kills++;
+            npc.diedTick = tick;
+            if (npc.name.endsWith("Hunllef")) {
+                runsCompleted++;
+                log.info("Hunllef defeated after {} ticks.", tick);
+                resetToLobby();
+            }
+        }
+    }
+
+    private void gather(Thing node) {
+        if (inventory.size() >= WorldSnapshot.INVENTORY_SIZE) {
+            target = null;
+            return;
+        }
+        if (random.nextInt(3) == 0) {
+            addItem(node.name, 1);
+            resourcesGathered++;
+            if (--node.remaining <= 0) {
+                things.remove(node);
+                target = null;
+            }
+        }
+    }
+
+    private void lightNode(Thing node) {
+        if (node.targetRoom >= 0 && !litRooms[node.targetRoom]) {
+            lightRoom(node.targetRoom);
+        }
+    }
+
+    private void take(Thing groundItem) {
+        Item stack = findItem(groundItem.name);
+        if (stack == null && inventory.size() >= WorldSnapshot.INVENTORY_SIZE) {
+            return;
+        }
+        things.remove(groundItem);
+        addItem(groundItem.name, groundItem.quantity);
+    }
+
+    private boolean interactWithItem(String name, String action) {
+        Item item = findItem(name);
+        if (item == null) {
+            return false;
+        }
+        actions++;
+        switch (action) {
+            case "Drop" -> {
+                inventory.remove(item);
+                dropItem(item.name, item.quantity, position);
+            }
+            case "Eat" -> {
+                if (!name.startsWith("Raw")) {
+                    removeOne(item);
+                    hitpoints = Math.min(MAX_HITPOINTS, hitpoints + 20);
+                }
+            }
+            case "Drink" -> {
+                removeOne(item);
+                prayerPoints = Math.min(MAX_PRAYER, prayerPoints + 25);
+            }
+            case "Wield", "Wear" -> equip(item);
+            case "Teleport", "Activate" -> {
+                removeOne(item);
+                area = Area.DUNGEON;
+                position = roomCentre(CRAFTING_ROOM, CRAFTING_ROOM);
+                destination = null;
+                target = null;
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Singing Bowl recipes by menu key; armour and weapons are simplified to one shard cost each
+    private void craft(char key) {
+        String product;
+        int shards;
+        String component = null;
+        switch (key) {
+            case '1' -> { product = "Teleport crystal"; shards = 40; }
+            case '3' -> { product = prefix + " Helm"; shards = 40; }
+            case '4' -> { product = prefix + " Body"; shards = 40; }
+            case '5' -> { product = prefix + " Legs"; shards = 40; }
+            case '6' -> { product = "Vial"; shards = 10; }
+            case '7' -> { product = "Crystal Staff"; shards = 20; component = "Weapon Frame"; }
+            case '8' -> { product = "Crystal Bow"; shards = 20; component = "Weapon Frame"; }
+            default -> { return; }
+        }
+        Item shardStack = findItem(shardName());
+        Item componentItem = component != null ? findItem(component) : null;
+        if (shardStack == null || shardStack.quantity < shards || (component != null && componentItem == null)) {
+            return;
+        }
+        shardStack.quantity -= shards;
+        if (shardStack.quantity == 0) {
+            inventory.remove(shardStack);
+        }
+        if (componentItem != null) {
+            removeOne(componentItem);
+        }
+        addItem(product, 1);
+        itemsCrafted++;
+    }
+
+    private void fillVials() {
+        for (int i = 0; i < inventory.size(); i++) {
+            if ("Vial".equals(inventory.get(i).name)) {
+                inventory.set(i, new Item("Water-filled vial", idOf("Water-filled vial"), 1));
+            }
+        }
+    }
+
+    private void depositLoot() {
+        inventory.clear();
+    }
+
+    // NPC behaviour
+
+    private void removeDeadNpcs() {
+        for (int i = things.size() - 1; i >= 0; i--) {
+            Thing npc = things.get(i);
+            if (npc.diedTick >= 0 && tick - npc.diedTick >= DEATH_TICKS) {
+                things.remove(i);
+                dropLoot(npc);
+            }
+        }
+    }
+
+    private void runNpcs() {
+        for (int i = 0; i < things.size(); i++) {
+            Thing npc = things.get(i);
+            if (npc.kind != Kind.NPC || npc.attackSpeed == 0 || npc.area != area || npc.diedTick >= 0
+                    || !isAggressive(npc)) {
+                continue;
+            }
+            if (tick % npc.attackSpeed != 0) {
+                continue;
+            }
+            // The Hunllef switches between ranged and magic after every fourth attack
+            if (npc.name.endsWith("Hunllef") && npc.attackCount > 0 && npc.attackCount % HUNLLEF_ATTACKS_PER_STYLE == 0) {
+                npc.style = npc.style == Style.RANGED ? Style.MAGIC : Style.RANGED;
+            }
+            npc.attackCount++;
+            boolean disablesPrayer = false;
+            if (npc.name.endsWith("Hunllef")) {
+                disablesPrayer = npc.style == Style.MAGIC && random.nextInt(PRAYER_DISABLE_CHANCE) == 0;
+                launchHunllefProjectile(npc.style, disablesPrayer);
+            }
+            if (!isProtectedFrom(npc.style)) {
+                hitPlayer(random.nextInt(npc.maxHit + 1));
+                if (area == Area.LOBBY) {
+                    return;
+                }
+            }
+            if (disablesPrayer) {
+                activePrayers.clear();
+                flickedTick = -1;
+            }
+        }
+        if (area == Area.ARENA) {
+            for (int i = 0; i < tornadoes.size(); i++) {
+                if (tornadoes.get(i).equals(position)) {
+                    hitPlayer(10 + random.nextInt(10));
+                }
+            }
+        }
+    }
+
+    // NPCs fight back once engaged, and anything within two tiles attacks on its own
+    private boolean isAggressive(Thing npc) {
+        return npc == target || tick - npc.lastHitByPlayerTick < 10 || distance(position, npc.position) <= 2;
+    }
+
+    private boolean isProtectedFrom(Style style) {
+        Prayer protection = switch (style) {
+            case MELEE -> Prayer.PROTECT_FROM_MELEE;
+            case RANGED -> Prayer.PROTECT_FROM_MISSILES;
+            case MAGIC -> Prayer.PROTECT_FROM_MAGIC;
+        };
+        return activePrayers.contains(protection) || (flickedTick == tick - 1 && flickedPrayer == protection);
+    }
+
+    private void hitPlayer(int damage) {
+        hitpoints -= damage;
+        damageTaken += damage;
+        playerHitsplatExpiry.add(tick + HITSPLAT_TICKS);
+        if (hitpoints <= 0) {
+            deaths++;
+            log.info("Player died after {} ticks.", tick);
+            resetToLobby();
+        }
+    }
+
+    // Crystalline magic, ranged and prayer-disable projectiles; the corrupted ones are one id higher
+    private void launchHunllefProjectile(Style style, boolean disablesPrayer) {
+        int id = disablesPrayer ? 1713 : style == Style.MAGIC ? 1707 : 1711;
+        projectiles.add(corrupted ? id + 1 : id);
+        projectileExpiry.add(tick + HUNLLEF_PROJECTILE_TICKS);
+    }
+
+    private void spawnTornadoes() {
+        for (int i = 0; i < 3; i++) {
+            tornadoes.add(new Coordinate(position.getX() + random.nextInt(5) - 2, position.getY() + random.nextInt(5) - 2,
+                    position.getPlane()));
+            tornadoExpiry.add(tick + TORNADO_LIFETIME);
+        }
+    }
+
+    private void dropLoot(Thing npc) {
+        if (npc.name.endsWith("Hunllef")) {
+            return;
+        }
+        dropItem(shardName(), npc.maxHit * 3 + random.nextInt(10), npc.position);
+        if (npc.name.endsWith("Dragon")) {
+            dropItem(prefix + " Orb", 1, npc.position);
+        } else if (npc.name.endsWith("Dark Beast")) {
+            dropItem(prefix + " Bowstring", 1, npc.position);
+        } else if (random.nextInt(10) == 0) {
+            dropItem("Weapon Frame", 1, npc.position);
+        } else if (random.nextInt(4) == 0) {
+            dropItem("Raw paddlefish", 1, npc.position);
+        }
+    }
+
+    private void dropItem(String name, int quantity, Coordinate at) {
+        Thing item = new Thing(Kind.GROUND_ITEM, area, name, idOf(name), at, null);
+        item.quantity = quantity;
+        things.add(item);
+    }
+
+    // World layout
+
+    private void resetToLobby() {
+        things.clear();
+        inventory.clear();
+        tornadoes.clear();
+        tornadoExpiry.clear();
+        projectiles.clear();
+        projectileExpiry.clear();
+        activePrayers.clear();
+        Arrays.fill(litRooms, false);
+        area = Area.LOBBY;
+        hitpoints = MAX_HITPOINTS;
+        prayerPoints = MAX_PRAYER;
+        destination = null;
+        target = null;
+        equipment.clear();
+        Coordinate lobby = new Coordinate(3036, 6124, 1);
+        position = lobby;
+        addThing(Kind.NPC, Area.LOBBY, "Bryn", new Coordinate(3034, 6126, 1), List.of("Talk-to"));
+        addThing(Kind.OBJECT, Area.LOBBY, "Reward Chest", new Coordinate(3038, 6126, 1), List.of("Loot"));
+        addThing(Kind.OBJECT, Area.LOBBY, "Bank Deposit Box", new Coordinate(3039, 6122, 1), List.of("Deposit"));
+        addThing(Kind.OBJECT, Area.LOBBY, "The Gauntlet", new Coordinate(3036, 6130, 1), List.of("Enter", "Enter-corrupted"));
+    }
+
+    private void enterDungeon() {
+        things.removeIf(thing -> thing.area == Area.LOBBY);
+        area = Area.DUNGEON;
+        position = roomCentre(CRAFTING_ROOM, CRAFTING_ROOM);
+        addItem("Pestle and mortar", 1);
+        addItem("Teleport crystal", 1);
+        equipment.put(Equipment.Slot.WEAPON, "Crystal Sceptre");
+        preparationEndTick = tick + PREPARATION_TICKS;
+
+        Coordinate base = roomBase(CRAFTING_ROOM, CRAFTING_ROOM);
+        addThing(Kind.OBJECT, Area.DUNGEON, "Singing Bowl", offset(base, 7, 8), List.of("Sing-crystal"));
+        addThing(Kind.OBJECT, Area.DUNGEON, "Water Pump", offset(base, 9, 8), List.of("Fill"));
+        addThing(Kind.OBJECT, Area.DUNGEON, "Barrier", offset(base, 7, 3), List.of("Pass"));
+        litRooms[roomIndex(CRAFTING_ROOM, CRAFTING_ROOM)] = true;
+        addDoorNodes(CRAFTING_ROOM, CRAFTING_ROOM);
+        spawnDemiBosses();
+    }
+
+    private void enterArena() {
+        things.removeIf(thing -> thing.area == Area.DUNGEON);
+        area = Area.ARENA;
+        destination = null;
+        target = null;
+        Coordinate northwest = corrupted ? new Coordinate(1970, 5693, 1) : new Coordinate(1906, 5693, 1);
+        position = offset(northwest, 5, -10);
+        Thing hunllef = addThing(Kind.NPC, Area.ARENA, prefix + " Hunllef", offset(northwest, 5, -5), List.of("Attack"));
+        hunllef.hitpoints = 1000;
+        hunllef.maxHitpoints = 1000;
+        hunllef.maxHit = 16;
+        hunllef.attackSpeed = HUNLLEF_ATTACK_SPEED;
+        hunllef.style = Style.RANGED;
+    }
+
+    // The two demi-bosses live in random rooms and appear when those rooms are lit
+    private void spawnDemiBosses() {
+        do {
+            dragonRoom = random.nextInt(litRooms.length);
+            darkBeastRoom = random.nextInt(litRooms.length);
+        } while (dragonRoom == darkBeastRoom || litRooms[dragonRoom] || litRooms[darkBeastRoom]);
+    }
+
+    private void lightRoom(int room) {
+        litRooms[room] = true;
+        roomsLit++;
+        int gridX = room % GRID_SIZE;
+        int gridY = room / GRID_SIZE;
+        Coordinate base = roomBase(gridX, gridY);
+
+        // Doorway nodes elsewhere that led into this room can no longer be lit
+        for (int i = 0; i < things.size(); i++) {
+            if (things.get(i).targetRoom == room) {
+                things.get(i).actions = List.of();
+            }
+        }
+        addThing(Kind.OBJECT, Area.DUNGEON, "Illuminated Symbol", offset(base, 8, 8), List.of());
+        addDoorNodes(gridX, gridY);
+
+        int resources = 1 + random.nextInt(2);
+        for (int i = 0; i < resources; i++) {
+            String name = RESOURCE_NODE_NAMES[random.nextInt(RESOURCE_NODE_NAMES.length)];
+            Thing node = addThing(Kind.OBJECT, Area.DUNGEON, name, offset(base, 3 + random.nextInt(10), 3 + random.nextInt(10)),
+                    List.of("Gather"));
+            node.remaining = 3 + random.nextInt(3);
+        }
+        int monsters = random.nextInt(3);
+        for (int i = 0; i < monsters; i++) {
+            addMonster(prefix + " " + WEAK_MONSTERS[random.nextInt(WEAK_MONSTERS.length)], base, 18, 3, 4, Style.MELEE);
+        }
+        if (room == dragonRoom) {
+            addMonster(prefix + " Dragon", base, 150, 12, 4, Style.MAGIC);
+        } else if (room == darkBeastRoom) {
+            addMonster(prefix + " Dark Beast", base, 150, 12, 4, Style.RANGED);
+        }
+    }
+
+    private void addMonster(String name, Coordinate base, int hitpoints, int maxHit, int attackSpeed, Style style) {
+        Thing npc = addThing(Kind.NPC, Area.DUNGEON, name, offset(base, 3 + random.nextInt(10), 3 + random.nextInt(10)),
+                List.of("Attack"));
+        npc.hitpoints = hitpoints;
+        npc.maxHitpoints = hitpoints;
+        npc.maxHit = maxHit;
+        npc.attackSpeed = attackSpeed;
+        npc.style = style;
+    }
+
+    // Adds lightable nodes on each doorway that leads to an unlit room inside the grid
+    private void addDoorNodes(int gridX, int gridY) {
+        Coordinate base = roomBase(gridX, gridY);
+        for (int side = 0; side < DOOR_DIRECTIONS.length; side++) {
+            int neighbourX = gridX + DOOR_DIRECTIONS[side][0];
+            int neighbourY = gridY + DOOR_DIRECTIONS[side][1];
+            if (neighbourX < 0 || neighbourY < 0 || neighbourX >= GRID_SIZE || neighbourY >= GRID_SIZE) {
+                continue;
+            }
+            int neighbour = roomIndex(neighbourX, neighbourY);
+            List<String> nodeActions = litRooms[neighbour] ? List.of() : List.of("Light");
+            int[] offsets = DOOR_NODE_OFFSETS[side];
+            for (int i = 0; i < offsets.length; i += 2) {
+                addThing(Kind.OBJECT, Area.DUNGEON, "Node", offset(base, offsets[i], offsets[i + 1]), nodeActions)
+                        .targetRoom = neighbour;
+            }
+        }
+    }
+
+    private Thing addThing(Kind kind, Area area, String name, Coordinate position, List<String> actions) {
+        Thing thing = new Thing(kind, area, name, idOf(name), position, actions);
+        things.add(thing);
+        return thing;
+    }
+
+    // Helpers
+
+    // Like the client, an NPC only shows its health gauge for a while after being hit
+    private int healthPercent(Thing npc) {
+        if (npc.maxHitpoints == 0 || tick - npc.lastHitByPlayerTick > HEALTH_GAUGE_TICKS) {
+            return -1;
+        }
+        return Math.max(0, npc.hitpoints) * 100 / npc.maxHitpoints;
+    }
+
+    private boolean isVisible(Thing thing) {
+        if (thing.area != area) {
+            return false;
+        }
+        if (area != Area.DUNGEON) {
+            return true;
+        }
+        return litRooms[roomOf(thing.position)] && distance(position, thing.position) <= VIEW_DISTANCE;
+    }
+
+    private boolean acceptsAction(Thing thing, String action) {
+        if (thing.kind == Kind.GROUND_ITEM) {
+            return "Take".equals(action);
+        }
+        return thing.actions != null && thing.actions.contains(action);
+    }
+
+    private Thing findThing(String name, Coordinate at) {
+        for (int i = 0; i < things.size(); i++) {
+            Thing thing = things.get(i);
+            if (thing.name.equals(name) && thing.position.equals(at)) {
+                return thing;
+            }
+        }
+        return null;
+    }
+
+    private Item findItem(String name) {
+        for (int i = 0; i < inventory.size(); i++) {
+            if (inventory.get(i).name.equals(name)) {
+                return inventory.get(i);
+            }
+        }
+        return null;
+    }
+
+    // Shards stack, everything else takes a slot per item
+    private void addItem(String name, int quantity) {
+        Item stack = findItem(name);
+        if (stack != null && name.equals(shardName())) {
+            stack.quantity += quantity;
+        } else if (inventory.size() < WorldSnapshot.INVENTORY_SIZE) {
+            inventory.add(new Item(name, idOf(name), quantity));
+        }
+    }
+
+    // The item moves from the inventory to its slot, and whatever was in the slot goes back to the inventory
+    private void equip(Item item) {
+        String lowerCase = item.name.toLowerCase();
+        Equipment.Slot slot = lowerCase.contains("helm") ? Equipment.Slot.HEAD
+                : lowerCase.contains("body") ? Equipment.Slot.BODY
+                : lowerCase.contains("legs") ? Equipment.Slot.LEGS
+                : Equipment.Slot.WEAPON;
+        inventory.remove(item);
+        String previous = equipment.put(slot, item.name);
+        if (previous != null) {
+            addItem(previous, 1);
+        }
+    }
+
+    private void removeOne(Item item) {
+        if (--item.quantity <= 0) {
+            inventory.remove(item);
+        }
+    }
+
+    private String shardName() {
+        return corrupted ? "Corrupted shards" : "Crystal shards";
+    }
+
+    private int weaponMaxHit() {
+        String weapon = equipment.get(Equipment.Slot.WEAPON);
+        if (weapon == null) {
+            return 2;
+        }
+        return weapon.equals("Crystal Sceptre") ? 8 : 16;
+    }
+
+    private int attackRange() {
+        return equipment.containsKey(Equipment.Slot.WEAPON) ? 7 : 1;
+    }
+
+    // Stable per-name ids, standing in for game ids
+    private int idOf(String name) {
+        int index = catalogue.indexOf(name);
+        if (index < 0) {
+            catalogue.add(name);
+            index = catalogue.size() - 1;
+        }
+        return index;
+    }
+
+    private int roomIndex(int gridX, int gridY) {
+        return gridY * GRID_SIZE + gridX;
+    }
+
+    private int roomOf(Coordinate at) {
+        int gridX = Math.floorDiv(at.getX() - originX, ROOM_SIZE);
+        int gridY = Math.floorDiv(at.getY() - originY, ROOM_SIZE);
+        gridX = Math.max(0, Math.min(GRID_SIZE - 1, gridX));
+        gridY = Math.max(0, Math.min(GRID_SIZE - 1, gridY));
+        return roomIndex(gridX, gridY);
+    }
+
+    private Coordinate roomBase(int gridX, int gridY) {
+        return new Coordinate(originX + gridX * ROOM_SIZE, originY + gridY * ROOM_SIZE, 1);
+    }
+
+    private Coordinate roomCentre(int gridX, int gridY) {
+        return offset(roomBase(gridX, gridY), ROOM_SIZE / 2, ROOM_SIZE / 2);
+    }
+
+    private static Coordinate offset(Coordinate base, int dx, int dy) {
+        return new Coordinate(base.getX() + dx, base.getY() + dy, base.getPlane());
+    }
+
+    // Chebyshev distance in tiles, which is how far the player has to walk
+    private static int distance(Coordinate a, Coordinate b) {
+        return Math.max(Math.abs(a.getX() - b.getX()), Math.abs(a.getY() - b.getY()));
+    }
+}
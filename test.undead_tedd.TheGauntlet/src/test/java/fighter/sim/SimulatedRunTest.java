@@ -0,0 +1,41 @@
+package fighter.sim;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the whole decision tree against the simulated Gauntlet, as fast as it goes, for two hours of game time: long
+// enough to light the dungeon, kill and gather for the first crafts, and be sent to the Hunllef when preparation
+// time runs out
+class SimulatedRunTest {
+    private static final long SEED = 42L;
+    private static final long TICKS = 12_000;
+
+    @TempDir
+    Path journalDirectory;
+
+    @Test
+    void progressesFromTheStartingRoomToTheHunllef() {
+        SimulatedGauntlet gauntlet = new SimulatedGauntlet(SEED, 0, false);
+        SimulationRunner runner = new SimulationRunner(gauntlet, false, journalDirectory);
+        try {
+            runner.runUntil(TICKS);
+        } finally {
+            runner.close();
+        }
+
+        assertEquals(TICKS, gauntlet.getTick());
+        assertNotNull(runner.getBot().getLastDecision(), "the tree never took a branch");
+        assertTrue(runner.getDecisionNanos().length > TICKS / 2, "the tree looped less than every other tick");
+        assertTrue(gauntlet.getRoomsLit() > 1, "never got past the starting room");
+        assertTrue(gauntlet.getKills() > 0, "killed nothing");
+        assertTrue(gauntlet.getResourcesGathered() > 0, "gathered nothing");
+        assertTrue(gauntlet.getItemsCrafted() > 0, "crafted nothing");
+        assertTrue(gauntlet.getRunsCompleted() > 0 || gauntlet.getBossAttacks() > 0, "never fought the Hunllef");
+    }
+}
@@ -0,0 +1,163 @@
+package fighter.sim;
+
+import com.runemate.game.api.script.framework.tree.TreeTask;
+import fighter.DungeonCrawler;
+import fighter.DungeonUtils;
+import fighter.game.GamePort;
+import fighter.replay.RecordingGamePort;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Runs the DungeonCrawler decision tree against a SimulatedGauntlet without a game client, then reports throughput
+ * and decision latency. The tree is walked the same way TreeBot walks it: validate each branch down to a leaf, then
+ * execute the leaf. Scenario tests drive it a loop at a time; {@link #main} runs it from the command line.
+ * <p>
+ * Usage: SimulationRunner [seed] [ticks] [timeScale] [corrupted], e.g. {@code 42 6000 1000 false}.
+ * A timeScale of 0 runs as fast as the machine allows. Decisions are journaled under {@code journal/} like a live run,
+ * and {@code -Ddungeoncrawler.record=<directory>} records an observation trace for ReplayRunner.
+ */
+@Log4j2(topic = "SimulationRunner")
+public class SimulationRunner {
+    @Getter
+    private final SimulatedGauntlet gauntlet;
+    private final GamePort port;
+    @Getter
+    private final DungeonCrawler bot;
+    private final TreeTask root;
+
+    private long[] decisionNanos = new long[1024];
+    private int decisions;
+    private long loopStartTick;
+
+    /**
+     * Installs the gauntlet as the game and builds the bot against it. DungeonUtils is static, so only one runner
+     * can be live per JVM.
+     *
+     * @param journalDirectory where decisions are journaled, or null to not journal them
+     */
+    public SimulationRunner(SimulatedGauntlet gauntlet, boolean corrupted, Path journalDirectory) {
+        this.gauntlet = gauntlet;
+        gauntlet.addTickListener(DungeonUtils::onGameTick);
+        // The port has to be in place before the bot is created, since every task picks it up in its constructor
+        port = RecordingGamePort.wrapIfEnabled(gauntlet);
+        DungeonUtils.setGamePort(port);
+
+        bot = new DungeonCrawler();
+        bot.setEnterCorrupted(corrupted);
+        bot.setBotRunning(true);
+        if (journalDirectory != null) {
+            bot.openDecisionJournal(journalDirectory);
+        }
+        root = bot.createRootTask();
+    }
+
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 42L;
+        long ticks = args.length > 1 ? Long.parseLong(args[1]) : 6000L;
+        double timeScale = args.length > 2 ? Double.parseDouble(args[2]) : 1000.0;
+        boolean corrupted = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+        SimulationRunner runner = new SimulationRunner(new SimulatedGauntlet(seed, timeScale, corrupted), corrupted,
+                Paths.get("journal"));
+        long started = System.nanoTime();
+        runner.runUntil(ticks);
+        long elapsedNanos = System.nanoTime() - started;
+        runner.close();
+
+        report(runner.gauntlet, runner.getDecisionNanos(), elapsedNanos);
+    }
+
+    // Loops the tree until the gauntlet reaches the given tick
+    public void runUntil(long tick) {
+        while (gauntlet.getTick() < tick) {
+            runLoop();
+        }
+    }
+
+    // One loop of the tree: resolve the leaf, timing the decision, then execute it
+    public void runLoop() {
+        execute(decide());
+    }
+
+    // The first half of a loop: walks the tree to the leaf it chose, timing the walk
+    public TreeTask decide() {
+        loopStartTick = gauntlet.getTick();
+        long decisionStart = System.nanoTime();
+        TreeTask leaf = resolveLeaf(root);
+        long decisionTime = System.nanoTime() - decisionStart;
+        if (decisions == decisionNanos.length) {
+            decisionNanos = Arrays.copyOf(decisionNanos, decisions * 2);
+        }
+        decisionNanos[decisions++] = decisionTime;
+        return leaf;
+    }
+
+    // The second half of a loop: runs the chosen leaf, which is where simulated time moves on (the teleport is taken
+    // by the root itself)
+    public void execute(TreeTask leaf) {
+        if (leaf != null) {
+            leaf.execute();
+        }
+        // A leaf that did not wait on anything still costs the bot a loop; never spin within one tick
+        if (gauntlet.getTick() == loopStartTick) {
+            gauntlet.advanceToNextTick();
+        }
+    }
+
+    // Grows the latency buffer ahead of the given number of further loops, so those loops do not allocate
+    public void reserveLoops(int loops) {
+        if (decisions + loops > decisionNanos.length) {
+            decisionNanos = Arrays.copyOf(decisionNanos, decisions + loops);
+        }
+    }
+
+    public void close() {
+        bot.closeDecisionJournal();
+        if (port instanceof RecordingGamePort) {
+            ((RecordingGamePort) port).close();
+        }
+    }
+
+    // Decision latency of every loop so far, in loop order
+    public long[] getDecisionNanos() {
+        return Arrays.copyOf(decisionNanos, decisions);
+    }
+
+    // Walks from the root down to the leaf the tree would execute this loop
+    private static TreeTask resolveLeaf(TreeTask task) {
+        while (task != null && !task.isLeaf()) {
+            task = task.validate() ? task.successTask() : task.failureTask();
+        }
+        return task;
+    }
+
+    private static void report(SimulatedGauntlet gauntlet, long[] decisionNanos, long elapsedNanos) {
+        Arrays.sort(decisionNanos);
+        double seconds = elapsedNanos / 1e9;
+        double simulatedSeconds = gauntlet.getSimulatedMillis() / 1e3;
+
+        log.info("Simulated {} ticks ({} s of game time) in {} s: {} ticks/s, {}x real time.",
+                gauntlet.getTick(), String.format("%.0f", simulatedSeconds), String.format("%.2f", seconds),
+                String.format("%.0f", gauntlet.getTick() / seconds), String.format("%.0f", simulatedSeconds / seconds));
+        log.info("Decisions: {}, latency p50 {} us, p99 {} us, max {} us.", decisionNanos.length,
+                percentileMicros(decisionNanos, 0.50), percentileMicros(decisionNanos, 0.99),
+                percentileMicros(decisionNanos, 1.0));
+        log.info("Runs completed: {}, deaths: {}, kills: {}, resources gathered: {}, rooms lit: {}, items crafted: {}, "
+                        + "damage taken: {}, actions: {}.",
+                gauntlet.getRunsCompleted(), gauntlet.getDeaths(), gauntlet.getKills(), gauntlet.getResourcesGathered(),
+                gauntlet.getRoomsLit(), gauntlet.getItemsCrafted(), gauntlet.getDamageTaken(), gauntlet.getActions());
+    }
+
+    private static String percentileMicros(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return "-";
+        }
+        int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(percentile * sortedNanos.length) - 1);
+        return String.format("%.1f", sortedNanos[Math.max(0, index)] / 1e3);
+    }
+}
@@ -0,0 +1,73 @@
+package fighter.sim;
+
+import com.runemate.game.api.script.framework.tree.TreeTask;
+import fighter.journal.Decision;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Deciding a loop must not allocate on the bot thread in any of the branches a run spends its time in: the bot runs
+// for hours and every collection pauses it mid-tick. The simulated run is played until the tree takes each branch,
+// and the decision is then measured there, in the game state that led to it. Only the decision is measured: the
+// leaf acts on the simulation, which runs on the same thread and allocates for its own bookkeeping.
+// The build runs this class on its own, in a JVM without C2 (see allocationTest in build.gradle.kts): queuing a method
+// for C2 makes HotSpot resolve its class's string literals on the calling thread, which shows up here as a few
+// hundred bytes whenever another method of the tree gets hot. C1 does no escape analysis either, so nothing is
+// passed here only because the compiler happened to eliminate it.
+@Tag("allocation")
+class SteadyStateAllocationTest {
+    private static final long SEED = 42L;
+    private static final long MAX_TICKS = 12_000; // By then the run has crafted and been sent to the Hunllef
+    private static final int WARM_UP_LOOPS = 20_000; // Decisions taken at each branch before measuring
+    private static final int LOOPS_PER_BATCH = 500;
+    private static final int BATCHES = 10;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final long threadId = Thread.currentThread().getId();
+
+    @Test
+    void steadyStateDecisionsDoNotAllocate() {
+        Set<Decision> unmeasured = EnumSet.of(Decision.GATHERING, Decision.COMBAT, Decision.TRAVERSAL,
+                Decision.CRAFTING, Decision.BOSS_FIGHT);
+        SimulatedGauntlet gauntlet = new SimulatedGauntlet(SEED, 0, false);
+        SimulationRunner runner = new SimulationRunner(gauntlet, false, null);
+        try {
+            while (!unmeasured.isEmpty() && gauntlet.getTick() < MAX_TICKS) {
+                TreeTask leaf = runner.decide();
+                Decision decision = runner.getBot().getLastDecision();
+                if (unmeasured.remove(decision)) {
+                    runner.reserveLoops(WARM_UP_LOOPS + LOOPS_PER_BATCH * BATCHES);
+                    allocatedDeciding(runner, WARM_UP_LOOPS);
+                    for (int batch = 0; batch < BATCHES; batch++) {
+                        assertEquals(0, allocatedDeciding(runner, LOOPS_PER_BATCH), "bytes allocated over "
+                                + LOOPS_PER_BATCH + " " + decision + " decisions in batch " + batch);
+                        assertEquals(decision, runner.getBot().getLastDecision(), "the tree left the branch");
+                    }
+                }
+                runner.execute(leaf);
+            }
+        } finally {
+            runner.close();
+        }
+
+        assertTrue(unmeasured.isEmpty(), "the run never took " + unmeasured);
+    }
+
+    // Takes the decision again and again in the same game state; nothing moves on until the leaf is executed
+    private long allocatedDeciding(SimulationRunner runner, int loops) {
+        // The first read can allocate inside the bean itself
+        threads.getThreadAllocatedBytes(threadId);
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < loops; i++) {
+            runner.decide();
+        }
+        return threads.getThreadAllocatedBytes(threadId) - before;
+    }
+}